@@ -0,0 +1,60 @@
+package com.gramirez.quotes.benchmark;
+
+import java.util.Random;
+
+/**
+ * Synthetic quote lengths, in characters, capped at the 1000 characters a
+ * quote's text column allows.
+ */
+public enum LengthDistribution {
+
+    /** Most quotes are a sentence or two: median around 90 characters, long right tail. */
+    LOG_NORMAL {
+        @Override
+        int sample(Random random) {
+            return logNormal(random, 90, 0.8);
+        }
+    },
+
+    /** Short one-liners mixed with a smaller group of paragraph-long passages. */
+    BIMODAL {
+        @Override
+        int sample(Random random) {
+            return random.nextInt(10) < 7 ? logNormal(random, 50, 0.4) : logNormal(random, 350, 0.35);
+        }
+    },
+
+    /** Every length equally likely; the worst case for the length histograms. */
+    UNIFORM {
+        @Override
+        int sample(Random random) {
+            return 1 + random.nextInt(MAX_LENGTH);
+        }
+    };
+
+    static final int MAX_LENGTH = 1000;
+
+    abstract int sample(Random random);
+
+    public int[] sample(int count, long seed) {
+        Random random = new Random(seed);
+        int[] lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            lengths[i] = sample(random);
+        }
+        return lengths;
+    }
+
+    public long[] histogram(int[] lengths) {
+        long[] counts = new long[MAX_LENGTH + 1];
+        for (int length : lengths) {
+            counts[length]++;
+        }
+        return counts;
+    }
+
+    private static int logNormal(Random random, double median, double sigma) {
+        long length = Math.round(median * Math.exp(sigma * random.nextGaussian()));
+        return (int) Math.max(1, Math.min(MAX_LENGTH, length));
+    }
+}
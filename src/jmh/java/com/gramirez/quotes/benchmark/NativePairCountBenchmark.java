@@ -0,0 +1,111 @@
+package com.gramirez.quotes.benchmark;
+
+import com.gramirez.quotes.repository.QuoteRepository;
+import com.gramirez.quotes.utils.LengthMetric;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The native CTE from {@link QuoteRepository#COUNT_POSSIBLE_PAIRS_QUERY}, run
+ * over the same synthetic quotes as {@link PairCountBenchmark}. The histogram
+ * is loaded into a temporary quote_length_stats table, with an empty temporary
+ * quote_length_stats_delta beside it. Both shadow the real tables for this
+ * session only, so any database (-Dquotes.bench.jdbc-url) can be used without
+ * touching its data.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class NativePairCountBenchmark {
+
+    private static final long SEED = 42;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int quoteCount;
+
+    @Param({"LOG_NORMAL", "BIMODAL", "UNIFORM"})
+    private LengthDistribution distribution;
+
+    @Param({"200", "1000"})
+    private int maxLength;
+
+    private SingleConnectionDataSource dataSource;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private MapSqlParameterSource parameters;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String url = System.getProperty("quotes.bench.jdbc-url");
+        if (url == null) {
+            throw new IllegalStateException("Set -Dquotes.bench.jdbc-url to run the native benchmark");
+        }
+        // One connection for the whole trial: the temporary table only exists in its session
+        dataSource = new SingleConnectionDataSource(url, System.getProperty("quotes.bench.jdbc-user", "postgres"),
+                System.getProperty("quotes.bench.jdbc-password", ""), true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("""
+                CREATE TEMPORARY TABLE quote_length_stats (
+                    metric    varchar(16) NOT NULL,
+                    length    integer     NOT NULL,
+                    frequency bigint      NOT NULL DEFAULT 0,
+                    PRIMARY KEY (metric, length)
+                )
+                """);
+        jdbc.execute("""
+                CREATE TEMPORARY TABLE quote_length_stats_delta (
+                    metric varchar(16) NOT NULL,
+                    length integer     NOT NULL,
+                    delta  bigint      NOT NULL
+                )
+                """);
+
+        long[] counts = distribution.histogram(distribution.sample(quoteCount, SEED));
+        List<Object[]> rows = new ArrayList<>();
+        for (int length = 0; length < counts.length; length++) {
+            if (counts[length] > 0) {
+                rows.add(new Object[]{LengthMetric.CHARACTERS.getKey(), length, counts[length]});
+            }
+        }
+        jdbc.batchUpdate("INSERT INTO quote_length_stats (metric, length, frequency) VALUES (?, ?, ?)", rows);
+        jdbc.execute("ANALYZE quote_length_stats");
+
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        parameters = new MapSqlParameterSource()
+                .addValue("maxLength", maxLength)
+                .addValue("metric", LengthMetric.CHARACTERS.getKey());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (dataSource != null) {
+            dataSource.destroy();
+        }
+    }
+
+    @Benchmark
+    public Long countPossiblePairs() {
+        return jdbcTemplate.queryForObject(QuoteRepository.COUNT_POSSIBLE_PAIRS_QUERY, parameters, Long.class);
+    }
+}
@@ -0,0 +1,115 @@
+package com.gramirez.quotes.benchmark;
+
+import com.gramirez.quotes.utils.QuoteLengthHistogram;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory strategies for countPairsWithMaxLength over the same synthetic quotes:
+ * <ul>
+ *     <li>{@code sortedScan}: two pointers over every quote's length, O(quotes),
+ *     what any approach without a histogram has to beat</li>
+ *     <li>{@code histogramNestedLoop}: every pair of distinct lengths, O(lengths^2),
+ *     the same work the native CTE does</li>
+ *     <li>{@code histogramPrefixSum}: one pass with prefix sums, O(lengths), what
+ *     {@link QuoteLengthHistogram} answers single queries with</li>
+ *     <li>{@code convolutionTableBuild} / {@code convolutionTableLookup}: the
+ *     self-convolution table behind batch queries, built per query, and then
+ *     reused</li>
+ * </ul>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PairCountBenchmark {
+
+    private static final long SEED = 42;
+
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    private int quoteCount;
+
+    @Param({"LOG_NORMAL", "BIMODAL", "UNIFORM"})
+    private LengthDistribution distribution;
+
+    @Param({"200", "1000"})
+    private int maxLength;
+
+    private int[] sortedLengths;
+    private long[] counts;
+    private long[] pairCountTable;
+    private int[] thresholds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        int[] lengths = distribution.sample(quoteCount, SEED);
+        counts = distribution.histogram(lengths);
+        sortedLengths = lengths;
+        Arrays.sort(sortedLengths);
+        pairCountTable = QuoteLengthHistogram.buildPairCountTable(counts);
+        thresholds = new int[]{maxLength};
+    }
+
+    @Benchmark
+    public long sortedScan() {
+        long pairs = 0;
+        int low = 0;
+        int high = sortedLengths.length - 1;
+        while (low < high) {
+            if (sortedLengths[low] + sortedLengths[high] <= maxLength) {
+                pairs += high - low;
+                low++;
+            } else {
+                high--;
+            }
+        }
+        return pairs;
+    }
+
+    @Benchmark
+    public long histogramNestedLoop() {
+        long pairs = 0;
+        for (int a = 0; a < counts.length && a <= maxLength; a++) {
+            if (counts[a] == 0) {
+                continue;
+            }
+            if (2 * a <= maxLength) {
+                pairs += counts[a] * (counts[a] - 1) / 2;
+            }
+            for (int b = a + 1; b < counts.length && a + b <= maxLength; b++) {
+                pairs += counts[a] * counts[b];
+            }
+        }
+        return pairs;
+    }
+
+    @Benchmark
+    public long histogramPrefixSum() {
+        return QuoteLengthHistogram.countPairs(counts, maxLength);
+    }
+
+    @Benchmark
+    public long convolutionTableBuild() {
+        return QuoteLengthHistogram.lookup(QuoteLengthHistogram.buildPairCountTable(counts), thresholds)[0];
+    }
+
+    @Benchmark
+    public long convolutionTableLookup() {
+        return QuoteLengthHistogram.lookup(pairCountTable, thresholds)[0];
+    }
+}
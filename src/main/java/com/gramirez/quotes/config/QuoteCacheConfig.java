@@ -0,0 +1,45 @@
+package com.gramirez.quotes.config;
+
+import com.gramirez.quotes.utils.BoundedCache;
+import com.gramirez.quotes.utils.BoundedCacheMeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Read-through caches in front of the quote and author lookups by id. With
+ * quotes.cache.enabled=false caching is not enabled at all, and every lookup
+ * goes to the database.
+ */
+@Configuration
+@EnableCaching
+@ConditionalOnProperty(name = "quotes.cache.enabled", havingValue = "true", matchIfMissing = true)
+public class QuoteCacheConfig {
+
+    public static final String QUOTES_CACHE = "quotes";
+    public static final String AUTHORS_CACHE = "authors";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${quotes.cache.max-size:10000}") int maxSize,
+                                     @Value("${quotes.cache.ttl-seconds:600}") long ttlSeconds) {
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                new BoundedCache(QUOTES_CACHE, maxSize, ttl),
+                new BoundedCache(AUTHORS_CACHE, maxSize, ttl)));
+        return cacheManager;
+    }
+
+    @Bean
+    public CacheMeterBinderProvider<BoundedCache> boundedCacheMeterBinderProvider() {
+        return BoundedCacheMeterBinder::new;
+    }
+}
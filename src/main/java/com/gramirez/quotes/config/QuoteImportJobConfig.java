@@ -0,0 +1,121 @@
+package com.gramirez.quotes.config;
+
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.service.AuthorService;
+import com.gramirez.quotes.service.QuoteService;
+import com.gramirez.quotes.utils.QuoteFilePartitioner;
+import com.gramirez.quotes.utils.QuoteFileRangeItemReader;
+import com.gramirez.quotes.utils.QuoteImportMetrics;
+import com.gramirez.quotes.utils.QuoteRecord;
+import com.gramirez.quotes.utils.QuoteRecordProcessor;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.configuration.annotation.JobScope;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class QuoteImportJobConfig {
+
+    public static final String JOB_NAME = "quoteImportJob";
+    public static final String WORKER_STEP_NAME = "quoteImportWorkerStep";
+
+    @Value("${quotes.import.batch.grid-size:4}")
+    private int gridSize;
+
+    @Value("${quotes.import.batch.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${quotes.import.incremental:false}")
+    private boolean incremental;
+
+    @Bean
+    public Job quoteImportJob(JobRepository jobRepository, Step quoteImportManagerStep) {
+        return new JobBuilder(JOB_NAME, jobRepository)
+                .start(quoteImportManagerStep)
+                .build();
+    }
+
+    @Bean
+    public Step quoteImportManagerStep(JobRepository jobRepository,
+                                       Step quoteImportWorkerStep,
+                                       QuoteFilePartitioner quoteFilePartitioner) {
+        SimpleAsyncTaskExecutor taskExecutor = new SimpleAsyncTaskExecutor("quote-import-partition-");
+        taskExecutor.setConcurrencyLimit(gridSize);
+
+        return new StepBuilder("quoteImportManagerStep", jobRepository)
+                .partitioner(WORKER_STEP_NAME, quoteFilePartitioner)
+                .step(quoteImportWorkerStep)
+                .gridSize(gridSize)
+                .taskExecutor(taskExecutor)
+                .build();
+    }
+
+    @Bean
+    public Step quoteImportWorkerStep(JobRepository jobRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      QuoteFileRangeItemReader quoteFileRangeItemReader,
+                                      QuoteRecordProcessor quoteRecordProcessor,
+                                      ItemWriter<Quote> quoteImportItemWriter) {
+        return new StepBuilder(WORKER_STEP_NAME, jobRepository)
+                .<QuoteRecord, Quote>chunk(chunkSize, transactionManager)
+                .reader(quoteFileRangeItemReader)
+                .processor(quoteRecordProcessor)
+                .writer(quoteImportItemWriter)
+                .build();
+    }
+
+    @Bean
+    @JobScope
+    public QuoteFilePartitioner quoteFilePartitioner(@Value("#{jobParameters['filePath']}") String filePath) {
+        return new QuoteFilePartitioner(Path.of(filePath));
+    }
+
+    @Bean
+    @StepScope
+    public QuoteFileRangeItemReader quoteFileRangeItemReader(
+            @Value("#{jobParameters['filePath']}") String filePath,
+            @Value("#{stepExecutionContext['startOffset']}") Long startOffset,
+            @Value("#{stepExecutionContext['endOffset']}") Long endOffset,
+            QuoteImportMetrics quoteImportMetrics) {
+        return new QuoteFileRangeItemReader(Path.of(filePath), startOffset, endOffset, quoteImportMetrics);
+    }
+
+    @Bean
+    @JobScope
+    public QuoteRecordProcessor quoteRecordProcessor(AuthorService authorService,
+                                                     QuoteService quoteService,
+                                                     PlatformTransactionManager transactionManager,
+                                                     QuoteImportMetrics quoteImportMetrics) {
+        return new QuoteRecordProcessor(authorService, quoteService, transactionManager, quoteImportMetrics);
+    }
+
+    @Bean
+    public ItemWriter<Quote> quoteImportItemWriter(QuoteService quoteService, QuoteImportMetrics quoteImportMetrics) {
+        return chunk -> {
+            long started = System.nanoTime();
+            List<Quote> quotes = new ArrayList<>(chunk.getItems());
+            int written;
+            if (incremental) {
+                written = quoteService.upsertBatch(quotes);
+            } else {
+                quoteService.persistBatch(quotes);
+                written = quotes.size();
+            }
+            quoteImportMetrics.recordBatch("writer", quotes.size(), System.nanoTime() - started);
+            quoteImportMetrics.recordInserted(written);
+        };
+    }
+}
@@ -2,6 +2,8 @@ package com.gramirez.quotes.controller;
 
 import com.gramirez.quotes.dto.AuthorDTO;
 import com.gramirez.quotes.service.AuthorService;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -34,30 +36,62 @@ public class AuthorController {
     @GetMapping
     @Operation(
             summary = "Get all authors",
-            description = "Retrieve a paginated list of all authors with sorting options",
+            description = "Retrieve a paginated list of all authors with sorting options. With cursor (empty for " +
+                    "the first page) pages are read by keyset instead of offset, sorted by id or name; the next " +
+                    "page's cursor is returned in the " + SeekCursor.HEADER + " header",
             parameters = {
                     @Parameter(name = "page", description = "Page number (0-based)", example = "0"),
                     @Parameter(name = "size", description = "Number of items per page", example = "60"),
                     @Parameter(name = "sort", description = "Sorting criteria in the format: property,direction. Default is id,desc",
-                            example = "name,asc")
+                            example = "name,asc"),
+                    @Parameter(name = "cursor", description = "Keyset cursor: empty for the first page, then the " +
+                            SeekCursor.HEADER + " header of the previous one. Its sort replaces sort")
             }
     )
-    @ApiResponse(
-            responseCode = "200",
-            description = "Successfully retrieved list of authors",
-            content = @Content(mediaType = "application/json",
-                    schema = @Schema(implementation = AuthorDTO.class))
-    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved list of authors",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AuthorDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Malformed cursor, or a cursor with an unsupported sort",
+                    content = @Content
+            )
+    })
     public ResponseEntity<List<AuthorDTO>> getAllAuthors(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "60") int size,
-            @RequestParam(defaultValue = "id,desc") String[] sort
+            @RequestParam(defaultValue = "id,desc") String[] sort,
+            @RequestParam(required = false) String cursor
     ) {
         String sortField = sort[0];
         String sortDirection = sort.length > 1 ? sort[1] : "desc";
         Sort.Direction direction = sortDirection.equalsIgnoreCase("asc") ?
                 Sort.Direction.ASC: Sort.Direction.DESC;
 
+        if (cursor != null) {
+            if (size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            SeekPage<AuthorDTO> authors;
+            try {
+                SeekCursor after = cursor.isEmpty() ? null : SeekCursor.decode(cursor);
+                authors = after == null
+                        ? authorService.findAllAfter(sortField, direction, null, size)
+                        : authorService.findAllAfter(after.property(), after.direction(), after, size);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (authors.next() != null) {
+                response.header(SeekCursor.HEADER, authors.next().encode());
+            }
+            return response.body(authors.items());
+        }
+
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
 
         return ResponseEntity.ok(authorService.findAll(pageable));
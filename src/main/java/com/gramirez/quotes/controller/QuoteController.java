@@ -1,10 +1,23 @@
 package com.gramirez.quotes.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.gramirez.quotes.dto.CreateQuoteDTO;
+import com.gramirez.quotes.dto.IngestResultDTO;
 import com.gramirez.quotes.dto.PairsCountDTO;
 import com.gramirez.quotes.dto.QuoteDTO;
+import com.gramirez.quotes.dto.TupleCountDTO;
+import com.gramirez.quotes.service.QuoteIngestService;
 import com.gramirez.quotes.service.QuotePairService;
 import com.gramirez.quotes.service.QuoteService;
+import com.gramirez.quotes.utils.LengthMetric;
+import com.gramirez.quotes.utils.LengthTupleCounter;
+import com.gramirez.quotes.utils.QuoteEtag;
+import com.gramirez.quotes.utils.QuoteExportFormat;
+import com.gramirez.quotes.utils.QuotePairCursor;
+import com.gramirez.quotes.utils.QuoteVersion;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -16,61 +29,205 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.IntStream;
 
 @RestController
 @RequestMapping("/api/quotes")
 @Tag(name = "Quotes", description = "API for managing and analyzing famous quotes")
 public class QuoteController {
 
+    static final int MAX_PAIR_COUNT_THRESHOLDS = 10_000;
+    static final int MAX_PAIRS_PAGE_SIZE = 100_000;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private final QuoteService quoteService;
     private final QuotePairService quotePairService;
+    private final QuoteIngestService quoteIngestService;
 
     @Autowired
-    public QuoteController(QuoteService quoteService, QuotePairService quotePairService) {
+    public QuoteController(QuoteService quoteService, QuotePairService quotePairService,
+                           QuoteIngestService quoteIngestService) {
         this.quoteService = quoteService;
         this.quotePairService = quotePairService;
+        this.quoteIngestService = quoteIngestService;
     }
 
     @GetMapping
     @Operation(
             summary = "Get paginated quotes",
-            description = "Retrieves a paginated and sorted list of all quotes in the system",
+            description = "Retrieves a paginated and sorted list of all quotes in the system, optionally " +
+                    "limited to quotes whose text length, measured by metric, is within minLength..maxLength. " +
+                    "With cursor (empty for the first page) pages are read by keyset instead of offset, sorted by " +
+                    "id or textLength; the next page's cursor is returned in the " + SeekCursor.HEADER + " header. " +
+                    "Each page carries an ETag derived from its quotes' ids and last updates; send it back as " +
+                    "If-None-Match to get a 304 while the page is unchanged",
             parameters = {
                     @Parameter(name = "page", description = "Zero-based page index", example = "0"),
                     @Parameter(name = "size", description = "Number of items per page", example = "10"),
                     @Parameter(name = "sort", description = "Sorting criteria in format: property,direction. Multiple sort params allowed",
-                            example = "id,desc")
+                            example = "id,desc"),
+                    @Parameter(name = "minLength", description = "Minimum text length, inclusive", example = "10"),
+                    @Parameter(name = "maxLength", description = "Maximum text length, inclusive", example = "100"),
+                    @Parameter(name = "metric", description = "How lengths are measured: characters, words or utf8_bytes",
+                            example = "characters"),
+                    @Parameter(name = "cursor", description = "Keyset cursor: empty for the first page, then the " +
+                            SeekCursor.HEADER + " header of the previous one. Its sort replaces sort")
             }
     )
-    @ApiResponse(
-            responseCode = "200",
-            description = "Successfully retrieved quote list",
-            content = @Content(mediaType = "application/json",
-                    schema = @Schema(implementation = QuoteDTO.class))
-    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Successfully retrieved quote list",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = QuoteDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Page unchanged since the given ETag",
+                    content = @Content
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown metric, malformed cursor, or a cursor combined with a length filter " +
+                            "or an unsupported sort",
+                    content = @Content
+            )
+    })
     public ResponseEntity<List<QuoteDTO>> getAllQuotes(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(defaultValue = "id,desc") String[] sort) {
+            @RequestParam(defaultValue = "id,desc") String[] sort,
+            @RequestParam(required = false) Integer minLength,
+            @RequestParam(required = false) Integer maxLength,
+            @RequestParam(defaultValue = "characters") String metric,
+            @RequestParam(required = false) String cursor,
+            WebRequest request) {
+
+        LengthMetric lengthMetric = lengthMetric(metric);
+        if (lengthMetric == null) {
+            return ResponseEntity.badRequest().build();
+        }
 
         String sortField = sort[0];
         String sortDirection = sort.length > 1 ? sort[1] : "desc";
         Sort.Direction direction = sortDirection.equalsIgnoreCase("asc") ?
                 Sort.Direction.ASC : Sort.Direction.DESC;
 
+        if (cursor != null) {
+            if (minLength != null || maxLength != null || size < 1) {
+                return ResponseEntity.badRequest().build();
+            }
+            SeekPage<QuoteDTO> quotes;
+            try {
+                SeekCursor after = cursor.isEmpty() ? null : SeekCursor.decode(cursor);
+                String property = after == null ? sortField : after.property();
+                Sort.Direction order = after == null ? direction : after.direction();
+                if (isConditional(request)) {
+                    SeekPage<QuoteVersion> versions = quoteService.findVersionsAfter(property, order, after, size);
+                    String etag = QuoteEtag.ofVersions(versions.items(),
+                            versions.next() == null ? null : versions.next().encode());
+                    if (request.checkNotModified(etag)) {
+                        return notModified(etag);
+                    }
+                }
+                quotes = quoteService.findAllAfter(property, order, after, size);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            String next = quotes.next() == null ? null : quotes.next().encode();
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(QuoteEtag.of(quotes.items(), next));
+            if (next != null) {
+                response.header(SeekCursor.HEADER, next);
+            }
+            return response.body(quotes.items());
+        }
+
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortField));
-        return ResponseEntity.ok(quoteService.findAll(pageable));
+        if (isConditional(request)) {
+            List<QuoteVersion> versions = minLength != null || maxLength != null
+                    ? quoteService.findVersionsByLength(minLength, maxLength, lengthMetric, pageable)
+                    : quoteService.findVersions(pageable);
+            String etag = QuoteEtag.ofVersions(versions, null);
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+        }
+        List<QuoteDTO> quotes = minLength != null || maxLength != null
+                ? quoteService.findAllByLength(minLength, maxLength, lengthMetric, pageable)
+                : quoteService.findAll(pageable);
+        return ResponseEntity.ok().eTag(QuoteEtag.of(quotes, null)).body(quotes);
+    }
+
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export all quotes",
+            description = "Streams every quote, in id order, as NDJSON (one quote object per line) or CSV " +
+                    "(id, author_id, author, text, with a header row). Rows are written as they are read from a " +
+                    "database cursor, so exports of any size use the same memory",
+            parameters = {
+                    @Parameter(name = "format", description = "ndjson or csv", example = "ndjson")
+            }
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Quotes streamed",
+                    content = {@Content(mediaType = "application/x-ndjson"), @Content(mediaType = "text/csv")}
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unknown format",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> exportQuotes(@RequestParam(defaultValue = "ndjson") String format) {
+        QuoteExportFormat exportFormat;
+        try {
+            exportFormat = QuoteExportFormat.fromParameter(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (QuoteExportFormat.RowWriter writer = exportFormat.open(outputStream)) {
+                quoteService.forEachQuote(quote -> {
+                    try {
+                        writer.write(quote);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename("quotes." + exportFormat.getKey()).build().toString())
+                .body(body);
     }
 
     @GetMapping("/{id}")
     @Operation(
             summary = "Get quote by ID",
-            description = "Retrieves a specific quote by its unique identifier"
+            description = "Retrieves a specific quote by its unique identifier. The response carries an ETag " +
+                    "derived from the quote's and its author's versions; send it back as If-None-Match to get a " +
+                    "304 while the quote is unchanged"
     )
     @ApiResponses({
             @ApiResponse(
@@ -78,6 +235,11 @@ public class QuoteController {
                     description = "Quote found",
                     content = @Content(schema = @Schema(implementation = QuoteDTO.class))
             ),
+            @ApiResponse(
+                    responseCode = "304",
+                    description = "Quote unchanged since the given ETag",
+                    content = @Content
+            ),
             @ApiResponse(
                     responseCode = "404",
                     description = "Quote not found",
@@ -86,8 +248,16 @@ public class QuoteController {
     })
     public ResponseEntity<QuoteDTO> getQuoteById(
             @Parameter(description = "ID of the quote to retrieve", required = true, example = "1")
-            @PathVariable Long id) {
-        return ResponseEntity.ok(quoteService.findById(id));
+            @PathVariable Long id,
+            WebRequest request) {
+        if (isConditional(request)) {
+            String etag = QuoteEtag.of(quoteService.findVersionById(id));
+            if (request.checkNotModified(etag)) {
+                return notModified(etag);
+            }
+        }
+        QuoteDTO quote = quoteService.findById(id);
+        return ResponseEntity.ok().eTag(QuoteEtag.of(quote)).body(quote);
     }
 
     @PostMapping
@@ -110,6 +280,42 @@ public class QuoteController {
         return new ResponseEntity<>(quoteService.create(createQuoteDTO), HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/ingest", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    @Operation(
+            summary = "Bulk ingest quotes",
+            description = "Streams newline-delimited JSON quotes ({\"Author\": ..., \"Text\": ...} per line) from the " +
+                    "request body and stores them in batches. Send Content-Encoding: gzip for compressed uploads."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Upload processed; invalid records are counted as rejected",
+                    content = @Content(schema = @Schema(implementation = IngestResultDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Upload could not be read to the end; records before the error were stored",
+                    content = @Content(schema = @Schema(implementation = IngestResultDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "415",
+                    description = "Unsupported Content-Encoding",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<IngestResultDTO> ingestQuotes(
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body) {
+        boolean gzip = "gzip".equalsIgnoreCase(contentEncoding);
+        if (contentEncoding != null && !gzip && !"identity".equalsIgnoreCase(contentEncoding)) {
+            return ResponseEntity.status(HttpStatus.UNSUPPORTED_MEDIA_TYPE).build();
+        }
+
+        IngestResultDTO result = quoteIngestService.ingest(body, gzip);
+        HttpStatus status = result.getError() == null ? HttpStatus.OK : HttpStatus.BAD_REQUEST;
+        return new ResponseEntity<>(result, status);
+    }
+
     @PutMapping("/{id}")
     @Operation(
             summary = "Update existing quote",
@@ -142,7 +348,9 @@ public class QuoteController {
     @Operation(
             summary = "Count compatible quote pairs",
             description = "Calculates the number of unique quote pairs where the combined text length " +
-                    "is less than or equal to the specified maximum length"
+                    "is less than or equal to the specified maximum length, optionally only among the quotes " +
+                    "of some authors and/or created within a date range. With minLength, only pairs whose " +
+                    "combined length is at least minLength are counted. Lengths are measured by metric"
     )
     @ApiResponses({
             @ApiResponse(
@@ -152,7 +360,7 @@ public class QuoteController {
             ),
             @ApiResponse(
                     responseCode = "400",
-                    description = "Invalid maximum length parameter",
+                    description = "Invalid maximum length or metric parameter",
                     content = @Content
             )
     })
@@ -160,12 +368,206 @@ public class QuoteController {
             @Parameter(description = "Maximum allowed combined length of quote pairs",
                     required = true,
                     example = "100")
-            @PathVariable int maxLength) {
+            @PathVariable int maxLength,
+            @Parameter(description = "Minimum combined length of quote pairs", example = "50")
+            @RequestParam(required = false) Integer minLength,
+            @Parameter(description = "Only count quotes by these authors", example = "1")
+            @RequestParam(required = false) List<Long> authorId,
+            @Parameter(description = "Only count quotes created on or after this date", example = "2024-01-01")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Only count quotes created on or before this date", example = "2024-12-31")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @Parameter(description = "How lengths are measured: characters, words or utf8_bytes",
+                    example = "characters")
+            @RequestParam(defaultValue = "characters") String metric) {
 
-        Long pairsCount = quotePairService.countPairsWithMaxLength(maxLength);
+        LengthMetric lengthMetric = lengthMetric(metric);
+        if (lengthMetric == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean filtered = (authorId != null && !authorId.isEmpty()) || from != null || to != null;
+        Long pairsCount;
+        if (minLength != null) {
+            pairsCount = quotePairService.countPairsWithLengthBetween(
+                    minLength, maxLength, lengthMetric, authorId, from, to);
+        } else if (filtered) {
+            pairsCount = quotePairService.countPairsWithMaxLength(maxLength, lengthMetric, authorId, from, to);
+        } else {
+            pairsCount = quotePairService.countPairsWithMaxLength(maxLength, lengthMetric);
+        }
         PairsCountDTO pairsCountDTO = new PairsCountDTO();
         pairsCountDTO.setCount(pairsCount);
         pairsCountDTO.setMaxLength(maxLength);
+        pairsCountDTO.setMinLength(minLength);
         return ResponseEntity.ok(pairsCountDTO);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/tuples/count")
+    @Operation(
+            summary = "Count compatible quote tuples",
+            description = "Counts the sets of size distinct quotes (1 to " + LengthTupleCounter.MAX_TUPLE_SIZE +
+                    ") whose combined text length is between minLength and maxLength, inclusive"
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Tuple count calculated successfully",
+                    content = @Content(schema = @Schema(implementation = TupleCountDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Unsupported tuple size or metric",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<TupleCountDTO> countTuplesWithLengthBetween(
+            @Parameter(description = "Number of quotes per tuple", required = true, example = "3")
+            @RequestParam int size,
+            @Parameter(description = "Minimum combined length", example = "0")
+            @RequestParam(defaultValue = "0") int minLength,
+            @Parameter(description = "Maximum combined length", required = true, example = "300")
+            @RequestParam int maxLength,
+            @Parameter(description = "How lengths are measured: characters, words or utf8_bytes",
+                    example = "characters")
+            @RequestParam(defaultValue = "characters") String metric) {
+
+        LengthMetric lengthMetric = lengthMetric(metric);
+        if (size < 1 || size > LengthTupleCounter.MAX_TUPLE_SIZE || lengthMetric == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(quotePairService.countTuplesWithLengthBetween(size, minLength, maxLength, lengthMetric));
+    }
+
+    @GetMapping("/pairs/count")
+    @Operation(
+            summary = "Count compatible quote pairs for several maximum lengths",
+            description = "Returns the pair count for each maxLength given, or for every value in the " +
+                    "inclusive range from..to. Up to " + MAX_PAIR_COUNT_THRESHOLDS + " values per request."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Pair counts calculated successfully, in the order requested",
+                    content = @Content(schema = @Schema(implementation = PairsCountDTO.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Neither or both of maxLength and from/to given, too many values, or unknown metric",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<List<PairsCountDTO>> countPairsWithMaxLengths(
+            @Parameter(description = "Maximum lengths to count pairs for", example = "100")
+            @RequestParam(required = false) List<Integer> maxLength,
+            @Parameter(description = "First maximum length of the range", example = "1")
+            @RequestParam(required = false) Integer from,
+            @Parameter(description = "Last maximum length of the range, inclusive", example = "2000")
+            @RequestParam(required = false) Integer to,
+            @Parameter(description = "How lengths are measured: characters, words or utf8_bytes",
+                    example = "characters")
+            @RequestParam(defaultValue = "characters") String metric) {
+
+        LengthMetric lengthMetric = lengthMetric(metric);
+        if (lengthMetric == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean range = from != null && to != null;
+        boolean list = maxLength != null && !maxLength.isEmpty();
+        if (range == list || (!range && (from != null || to != null))) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (range && (to < from || (long) to - from >= MAX_PAIR_COUNT_THRESHOLDS)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (list && (maxLength.size() > MAX_PAIR_COUNT_THRESHOLDS || maxLength.contains(null))) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<Integer> maxLengths = range ? IntStream.rangeClosed(from, to).boxed().toList() : maxLength;
+        return ResponseEntity.ok(quotePairService.countPairsWithMaxLengths(maxLengths, lengthMetric));
+    }
+
+    @GetMapping("/pairs/{maxLength}")
+    @Operation(
+            summary = "List compatible quote pairs",
+            description = "Streams the id pairs of quotes whose combined text length is less than or equal to " +
+                    "maxLength, up to limit pairs per page. Pass the returned nextCursor to get the next page; " +
+                    "it is null on the last page."
+    )
+    @ApiResponses({
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Page of pairs as {\"maxLength\": n, \"pairs\": [[id, id], ...], \"nextCursor\": ...}",
+                    content = @Content(mediaType = "application/json")
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Malformed cursor, limit out of range or unknown metric",
+                    content = @Content
+            )
+    })
+    public ResponseEntity<StreamingResponseBody> listPairsWithMaxLength(
+            @Parameter(description = "Maximum allowed combined length of quote pairs", required = true, example = "100")
+            @PathVariable int maxLength,
+            @Parameter(description = "nextCursor of the previous page")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of pairs in the page", example = "1000")
+            @RequestParam(defaultValue = "1000") int limit,
+            @Parameter(description = "How lengths are measured: characters, words or utf8_bytes",
+                    example = "characters")
+            @RequestParam(defaultValue = "characters") String metric) {
+
+        LengthMetric lengthMetric = lengthMetric(metric);
+        if (limit < 1 || limit > MAX_PAIRS_PAGE_SIZE || lengthMetric == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        QuotePairCursor after;
+        try {
+            after = cursor == null ? null : QuotePairCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator json = JSON_FACTORY.createGenerator(outputStream)) {
+                json.writeStartObject();
+                json.writeNumberField("maxLength", maxLength);
+                json.writeArrayFieldStart("pairs");
+                QuotePairCursor next = quotePairService.forEachPair(maxLength, lengthMetric, after, limit, (first, second) -> {
+                    try {
+                        json.writeStartArray();
+                        json.writeNumber(first);
+                        json.writeNumber(second);
+                        json.writeEndArray();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+                json.writeStringField("nextCursor", next == null ? null : next.encode());
+                json.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Null for an unknown metric, which the endpoints answer with 400.
+     */
+    private static LengthMetric lengthMetric(String metric) {
+        try {
+            return LengthMetric.fromParameter(metric);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Conditional GETs are checked against the quotes' versions before the quotes are loaded and mapped
+    private static boolean isConditional(WebRequest request) {
+        return request.getHeader(HttpHeaders.IF_NONE_MATCH) != null;
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    }
+}
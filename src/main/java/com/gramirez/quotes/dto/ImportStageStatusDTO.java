@@ -0,0 +1,11 @@
+package com.gramirez.quotes.dto;
+
+import lombok.Data;
+
+@Data
+public class ImportStageStatusDTO {
+    private long rows;
+    private long batches;
+    private double rowsPerSecond;
+    private double lastBatchMillis;
+}
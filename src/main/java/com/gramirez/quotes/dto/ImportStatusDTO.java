@@ -0,0 +1,24 @@
+package com.gramirez.quotes.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+public class ImportStatusDTO {
+    private String state;
+    private String mode;
+    private String file;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private double elapsedSeconds;
+    private long bytesTotal;
+    private long bytesRead;
+    private long parsed;
+    private long inserted;
+    private long rejected;
+    private long duplicates;
+    private Double etaSeconds;
+    private Map<String, ImportStageStatusDTO> stages;
+}
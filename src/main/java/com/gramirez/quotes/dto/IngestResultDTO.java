@@ -0,0 +1,11 @@
+package com.gramirez.quotes.dto;
+
+import lombok.Data;
+
+@Data
+public class IngestResultDTO {
+    private long accepted;
+    private long rejected;
+    private long duplicates;
+    private String error;
+}
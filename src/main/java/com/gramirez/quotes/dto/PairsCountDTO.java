@@ -1,9 +1,12 @@
 package com.gramirez.quotes.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.Data;
 
 @Data
 public class PairsCountDTO {
     private Long count;
     private int maxLength;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer minLength;
 }
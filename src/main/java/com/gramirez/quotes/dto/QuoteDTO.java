@@ -1,10 +1,17 @@
 package com.gramirez.quotes.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
 public class QuoteDTO {
     private Long id;
     private String text;
     private AuthorDTO author;
+
+    // Version for the ETag; not part of the body
+    @JsonIgnore
+    private LocalDateTime updatedAt;
 }
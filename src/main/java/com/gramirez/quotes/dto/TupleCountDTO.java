@@ -0,0 +1,13 @@
+package com.gramirez.quotes.dto;
+
+import lombok.Data;
+
+import java.math.BigInteger;
+
+@Data
+public class TupleCountDTO {
+    private BigInteger count;
+    private int size;
+    private int minLength;
+    private int maxLength;
+}
@@ -22,6 +22,7 @@ public class QuoteMapper {
         quoteDTO.setId(quote.getId());
         quoteDTO.setText(quote.getText());
         quoteDTO.setAuthor(authorMapper.toDTO(quote.getAuthor()));
+        quoteDTO.setUpdatedAt(quote.getUpdatedAt());
 
         return quoteDTO;
     }
@@ -1,5 +1,6 @@
 package com.gramirez.quotes.model;
 
+import com.gramirez.quotes.utils.QuoteContentHash;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -17,7 +18,8 @@ import java.time.LocalDateTime;
 public class Quote {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "quote_seq")
+    @SequenceGenerator(name = "quote_seq", sequenceName = "quote_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, length = 1000)
@@ -33,4 +35,28 @@ public class Quote {
     @Column (name = "updated_ad")
     private LocalDateTime updatedAt;
 
+    @Column(name = "source_id")
+    private Long sourceId;
+
+    @Column(name = "content_hash", length = 32)
+    private byte[] contentHash;
+
+    // Generated by the database from text; only populated on quotes read back from it
+    @Column(name = "text_length", insertable = false, updatable = false)
+    private Integer textLength;
+
+    @Column(name = "text_words", insertable = false, updatable = false)
+    private Integer textWords;
+
+    @Column(name = "text_bytes", insertable = false, updatable = false)
+    private Integer textBytes;
+
+    @PrePersist
+    @PreUpdate
+    void computeContentHash() {
+        if (text != null) {
+            contentHash = QuoteContentHash.of(text);
+        }
+    }
+
 }
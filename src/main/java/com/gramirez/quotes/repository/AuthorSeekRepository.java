@@ -0,0 +1,17 @@
+package com.gramirez.quotes.repository;
+
+import com.gramirez.quotes.model.Author;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
+import org.springframework.data.domain.Sort;
+
+public interface AuthorSeekRepository {
+
+    /**
+     * Up to {@code limit} authors in (property, id) order after {@code after} (or from
+     * the start when null). Sorts by id or name.
+     *
+     * @throws IllegalArgumentException for other properties, or a cursor issued for another sort
+     */
+    SeekPage<Author> findAuthorsAfter(String property, Sort.Direction direction, SeekCursor after, int limit);
+}
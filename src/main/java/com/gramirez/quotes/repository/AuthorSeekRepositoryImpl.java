@@ -0,0 +1,29 @@
+package com.gramirez.quotes.repository;
+
+import com.gramirez.quotes.model.Author;
+import com.gramirez.quotes.repository.KeysetQuery.SortKey;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+
+public class AuthorSeekRepositoryImpl implements AuthorSeekRepository {
+
+    // id uses the primary key, name ix_authors_name_id
+    private static final KeysetQuery<Author> QUERY = new KeysetQuery<>(Author.class,
+            "select e from Author e",
+            Map.of("id", new SortKey<>(Long::valueOf, Author::getId),
+                    "name", new SortKey<>(key -> key, Author::getName)),
+            Author::getId);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public SeekPage<Author> findAuthorsAfter(String property, Sort.Direction direction, SeekCursor after, int limit) {
+        return QUERY.find(entityManager, property, direction, after, limit);
+    }
+}
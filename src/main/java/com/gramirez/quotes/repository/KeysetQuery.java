@@ -0,0 +1,98 @@
+package com.gramirez.quotes.repository;
+
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Reads an entity in (sort key, id) order starting after a {@link SeekCursor}, with
+ * {@code (key, id) < (:key, :id)} instead of an offset, so every page costs the same
+ * index range scan however deep it is. Only the sort keys it is built with are
+ * accepted; they must be non-null columns with an index on (key, id).
+ */
+final class KeysetQuery<T> {
+
+    /**
+     * How a sort key is read back from a cursor, and taken from a row for the next one.
+     */
+    record SortKey<T>(Function<String, Object> parser, Function<T, Object> extractor) {
+    }
+
+    private final Class<T> type;
+    private final String select;
+    private final Map<String, SortKey<T>> sortKeys;
+    private final Function<T, Long> idExtractor;
+
+    /**
+     * @param select HQL selecting the entity as {@code e}, without where or order by clauses
+     */
+    KeysetQuery(Class<T> type, String select, Map<String, SortKey<T>> sortKeys, Function<T, Long> idExtractor) {
+        this.type = type;
+        this.select = select;
+        this.sortKeys = sortKeys;
+        this.idExtractor = idExtractor;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the property is not a supported sort key, or
+     *                                  the cursor was issued for another sort
+     */
+    SeekPage<T> find(EntityManager entityManager, String property, Sort.Direction direction,
+                     SeekCursor after, int limit) {
+        SortKey<T> sortKey = sortKeys.get(property);
+        if (sortKey == null) {
+            throw new IllegalArgumentException("Cursor pagination cannot sort by " + property);
+        }
+        if (after != null && (!after.property().equals(property) || after.direction() != direction)) {
+            throw new IllegalArgumentException("Cursor was issued for another sort");
+        }
+
+        boolean byId = property.equals("id");
+        String comparison = direction.isAscending() ? ">" : "<";
+        String order = direction.isAscending() ? "asc" : "desc";
+        StringBuilder hql = new StringBuilder(select);
+        if (after != null) {
+            hql.append(byId
+                    ? " where e.id " + comparison + " :id"
+                    : " where (e." + property + ", e.id) " + comparison + " (:key, :id)");
+        }
+        hql.append(" order by ");
+        if (!byId) {
+            hql.append("e.").append(property).append(' ').append(order).append(", ");
+        }
+        hql.append("e.id ").append(order);
+
+        TypedQuery<T> query = entityManager.createQuery(hql.toString(), type);
+        if (after != null) {
+            query.setParameter("id", after.id());
+            if (!byId) {
+                query.setParameter("key", parseKey(sortKey, after));
+            }
+        }
+        // One extra row tells whether there is a next page
+        List<T> rows = query.setMaxResults(limit + 1).getResultList();
+        if (rows.size() <= limit) {
+            return new SeekPage<>(rows, null);
+        }
+
+        List<T> page = rows.subList(0, limit);
+        T last = page.get(limit - 1);
+        SeekCursor next = new SeekCursor(property, direction,
+                String.valueOf(sortKey.extractor().apply(last)), idExtractor.apply(last));
+        return new SeekPage<>(List.copyOf(page), next);
+    }
+
+    private static <T> Object parseKey(SortKey<T> sortKey, SeekCursor after) {
+        try {
+            return sortKey.parser().apply(after.key());
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Malformed cursor key: " + after.key(), e);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.gramirez.quotes.repository;
+
+import java.util.function.BiConsumer;
+
+public interface QuoteContentHashRepository {
+
+    /**
+     * Streams the (author id, content hash) of every quote without loading
+     * the quotes themselves.
+     */
+    void forEachContentKey(BiConsumer<Long, byte[]> consumer);
+}
@@ -0,0 +1,33 @@
+package com.gramirez.quotes.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.function.BiConsumer;
+
+public class QuoteContentHashRepositoryImpl implements QuoteContentHashRepository {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public QuoteContentHashRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void forEachContentKey(BiConsumer<Long, byte[]> consumer) {
+        // PostgreSQL only honours the fetch size inside a transaction
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT author_id, content_hash FROM quotes WHERE content_hash IS NOT NULL");
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            long authorId = resultSet.getLong(1);
+            consumer.accept(resultSet.wasNull() ? null : authorId, resultSet.getBytes(2));
+        });
+    }
+}
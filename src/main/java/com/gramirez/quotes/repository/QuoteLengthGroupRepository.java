@@ -0,0 +1,30 @@
+package com.gramirez.quotes.repository;
+
+import com.gramirez.quotes.utils.LengthMetric;
+
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+public interface QuoteLengthGroupRepository {
+
+    /**
+     * Number of quotes by one author, created on one day, with the same lengths.
+     * The count is negative when the group describes quotes removed by a change.
+     */
+    record LengthGroup(Long authorId, LocalDate day, int characters, int words, int bytes, long count) {
+
+        public int length(LengthMetric metric) {
+            return switch (metric) {
+                case CHARACTERS -> characters;
+                case WORDS -> words;
+                case UTF8_BYTES -> bytes;
+            };
+        }
+    }
+
+    /**
+     * Streams the quotes grouped by author, creation day and lengths through a
+     * server-side cursor, so the groups are never all held in memory.
+     */
+    void forEachLengthGroup(Consumer<LengthGroup> consumer);
+}
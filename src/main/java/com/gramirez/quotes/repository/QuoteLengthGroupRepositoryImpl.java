@@ -0,0 +1,41 @@
+package com.gramirez.quotes.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+
+public class QuoteLengthGroupRepositoryImpl implements QuoteLengthGroupRepository {
+
+    private static final int FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public QuoteLengthGroupRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // PostgreSQL only honours the fetch size inside a transaction
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachLengthGroup(Consumer<LengthGroup> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    SELECT author_id, CAST(created_at AS date), text_length, text_words, text_bytes, count(*)
+                    FROM quotes
+                    GROUP BY author_id, CAST(created_at AS date), text_length, text_words, text_bytes
+                    """);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, resultSet -> {
+            long authorId = resultSet.getLong(1);
+            consumer.accept(new LengthGroup(resultSet.wasNull() ? null : authorId,
+                    resultSet.getObject(2, LocalDate.class), resultSet.getInt(3), resultSet.getInt(4),
+                    resultSet.getInt(5), resultSet.getLong(6)));
+        });
+    }
+}
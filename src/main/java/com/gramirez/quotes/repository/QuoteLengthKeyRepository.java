@@ -0,0 +1,21 @@
+package com.gramirez.quotes.repository;
+
+import com.gramirez.quotes.utils.LengthMetric;
+
+import java.util.stream.Stream;
+
+public interface QuoteLengthKeyRepository {
+
+    /**
+     * A quote's position in (length, id) order, for one length metric.
+     */
+    record LengthKey(int length, long id) {
+    }
+
+    /**
+     * Streams the keys after {@code after}, in (length, id) order, of the quotes
+     * no longer than {@code maxLength} as measured by {@code metric}. Rows are
+     * fetched lazily, so the stream must be closed and consumed inside a transaction.
+     */
+    Stream<LengthKey> streamLengthKeysAfter(LengthKey after, int maxLength, LengthMetric metric);
+}
@@ -0,0 +1,39 @@
+package com.gramirez.quotes.repository;
+
+import com.gramirez.quotes.utils.LengthMetric;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.util.stream.Stream;
+
+public class QuoteLengthKeyRepositoryImpl implements QuoteLengthKeyRepository {
+
+    private static final int FETCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public QuoteLengthKeyRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Stream<LengthKey> streamLengthKeysAfter(LengthKey after, int maxLength, LengthMetric metric) {
+        // Row comparison on (length, id) is a range scan of the metric's (column, id) index.
+        // The column name comes from the enum, never from the request.
+        String column = metric.getColumn();
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement("""
+                    SELECT %1$s, id FROM quotes
+                    WHERE (%1$s, id) > (?, ?) AND %1$s <= ?
+                    ORDER BY %1$s, id
+                    """.formatted(column));
+            statement.setInt(1, after.length());
+            statement.setLong(2, after.id());
+            statement.setInt(3, maxLength);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (resultSet, rowNum) -> new LengthKey(resultSet.getInt(1), resultSet.getLong(2)));
+    }
+}
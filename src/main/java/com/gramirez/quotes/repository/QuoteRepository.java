@@ -1,24 +1,45 @@
 package com.gramirez.quotes.repository;
 
+import com.gramirez.quotes.model.Author;
 import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.utils.QuoteVersion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 //TODO - Add integration tests for it
 @Repository
-public interface QuoteRepository extends JpaRepository<Quote, Long> {
+public interface QuoteRepository extends JpaRepository<Quote, Long>, QuoteUpsertRepository, QuoteContentHashRepository,
+        QuoteLengthKeyRepository, QuoteLengthGroupRepository, QuoteSeekRepository {
 
-    @Query(value = """
+    /**
+     * Pair count from quote_length_stats plus its pending deltas; shared with the JMH benchmarks.
+     */
+    String COUNT_POSSIBLE_PAIRS_QUERY = """
 
             WITH frequency_map AS (
-             SELECT length(text) AS leng_text, count(*) AS frequency
-             FROM quotes
-             WHERE length(text) <= :maxLength
-             GROUP BY length(text)
+             SELECT length AS leng_text, CAST(sum(frequency) AS bigint) AS frequency
+             FROM (SELECT length, frequency FROM quote_length_stats
+                   WHERE metric = :metric AND length <= :maxLength
+                   UNION ALL
+                   SELECT length, delta FROM quote_length_stats_delta
+                   WHERE metric = :metric AND length <= :maxLength) counts
+             GROUP BY length
+             HAVING sum(frequency) > 0
            ),
            pairs AS (
              SELECT a.leng_text AS len_a, b.leng_text AS len_b,
@@ -35,8 +56,108 @@ public interface QuoteRepository extends JpaRepository<Quote, Long> {
            SELECT SUM(pair_count) AS total_possible_pairs
            FROM pairs
 
-           """, nativeQuery = true)
-    Optional<Long> countPossiblePairs(@Param("maxLength") int maxLength);
+           """;
+
+    // Listings map every quote's author, so the author is fetched in the same select
+    // instead of one lazy load per row
+    @Override
+    @EntityGraph(attributePaths = "author")
+    Page<Quote> findAll(Pageable pageable);
+
+    @EntityGraph(attributePaths = "author")
+    Page<Quote> findByTextLengthBetween(int minLength, int maxLength, Pageable pageable);
+
+    @EntityGraph(attributePaths = "author")
+    Page<Quote> findByTextWordsBetween(int minWords, int maxWords, Pageable pageable);
+
+    @EntityGraph(attributePaths = "author")
+    Page<Quote> findByTextBytesBetween(int minBytes, int maxBytes, Pageable pageable);
+
+    /**
+     * Every quote with its author, in id order, read through a server-side cursor
+     * (PostgreSQL only honours the fetch size inside a transaction). Quotes are
+     * loaded read-only, without the snapshots dirty checking needs. The stream
+     * must be closed.
+     */
+    @Query("select q from Quote q left join fetch q.author order by q.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Quote> streamAllWithAuthor();
+
+    Optional<Quote> findFirstByAuthorAndContentHash(Author author, byte[] contentHash);
+
+    String VERSION_SELECT = "select new com.gramirez.quotes.utils.QuoteVersion(q.id, q.updatedAt, a.id, a.name, "
+            + "q.textLength) from Quote q left join q.author a";
+
+    /**
+     * What a quote's ETag is derived from, without loading the quote; the version
+     * queries below select the same rows as the page queries above, without a count.
+     */
+    @Query(VERSION_SELECT + " where q.id = :id")
+    Optional<QuoteVersion> findVersionById(@Param("id") Long id);
+
+    @Query(VERSION_SELECT)
+    List<QuoteVersion> findVersionsBy(Pageable pageable);
+
+    @Query(VERSION_SELECT + " where q.textLength between :min and :max")
+    List<QuoteVersion> findVersionsByTextLengthBetween(@Param("min") int min, @Param("max") int max, Pageable pageable);
+
+    @Query(VERSION_SELECT + " where q.textWords between :min and :max")
+    List<QuoteVersion> findVersionsByTextWordsBetween(@Param("min") int min, @Param("max") int max, Pageable pageable);
+
+    @Query(VERSION_SELECT + " where q.textBytes between :min and :max")
+    List<QuoteVersion> findVersionsByTextBytesBetween(@Param("min") int min, @Param("max") int max, Pageable pageable);
+
+    /**
+     * Rows of author id, content hash and source id for the stored quotes with any of the hashes.
+     */
+    @Query("select q.author.id, q.contentHash, q.sourceId from Quote q where q.contentHash in :hashes")
+    List<Object[]> findContentKeys(@Param("hashes") Collection<byte[]> hashes);
+
+    /**
+     * Quotes per length under the given {@link com.gramirez.quotes.utils.LengthMetric} key,
+     * from the trigger-maintained quote_length_stats table and the deltas not folded into it yet.
+     */
+    @Query(value = """
+            SELECT length, CAST(sum(frequency) AS bigint)
+            FROM (SELECT length, frequency FROM quote_length_stats WHERE metric = :metric
+                  UNION ALL
+                  SELECT length, delta FROM quote_length_stats_delta WHERE metric = :metric) counts
+            GROUP BY length
+            HAVING sum(frequency) > 0
+            """, nativeQuery = true)
+    List<Object[]> countByLength(@Param("metric") String metric);
+
+    /**
+     * Pending deltas, counting no further than {@code limit} so the check stays cheap.
+     */
+    @Query(value = "SELECT count(*) FROM (SELECT 1 FROM quote_length_stats_delta LIMIT :limit) pending",
+            nativeQuery = true)
+    long countLengthStatsDeltas(@Param("limit") int limit);
+
+    /**
+     * Moves the pending deltas into quote_length_stats in one statement, locking stats
+     * rows in (metric, length) order. Deltas appended meanwhile are left for the next fold.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = """
+            WITH folded AS (
+                DELETE FROM quote_length_stats_delta RETURNING metric, length, delta
+            )
+            INSERT INTO quote_length_stats AS s (metric, length, frequency)
+            SELECT metric, length, sum(delta) FROM folded
+            GROUP BY metric, length
+            HAVING sum(delta) <> 0
+            ORDER BY metric, length
+            ON CONFLICT (metric, length) DO UPDATE SET frequency = s.frequency + excluded.frequency
+            """, nativeQuery = true)
+    int foldLengthStatsDeltas();
+
+    @Query(value = COUNT_POSSIBLE_PAIRS_QUERY, nativeQuery = true)
+    Optional<Long> countPossiblePairs(@Param("maxLength") int maxLength, @Param("metric") String metric);
 
 
 }
\ No newline at end of file
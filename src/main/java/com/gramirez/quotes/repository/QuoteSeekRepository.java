@@ -0,0 +1,23 @@
+package com.gramirez.quotes.repository;
+
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.utils.QuoteVersion;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
+import org.springframework.data.domain.Sort;
+
+public interface QuoteSeekRepository {
+
+    /**
+     * Up to {@code limit} quotes, with their authors, in (property, id) order after
+     * {@code after} (or from the start when null). Sorts by id or textLength.
+     *
+     * @throws IllegalArgumentException for other properties, or a cursor issued for another sort
+     */
+    SeekPage<Quote> findQuotesAfter(String property, Sort.Direction direction, SeekCursor after, int limit);
+
+    /**
+     * The versions of the quotes {@link #findQuotesAfter} returns, with the same next cursor.
+     */
+    SeekPage<QuoteVersion> findVersionsAfter(String property, Sort.Direction direction, SeekCursor after, int limit);
+}
@@ -0,0 +1,43 @@
+package com.gramirez.quotes.repository;
+
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.repository.KeysetQuery.SortKey;
+import com.gramirez.quotes.utils.QuoteVersion;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.data.domain.Sort;
+
+import java.util.Map;
+
+public class QuoteSeekRepositoryImpl implements QuoteSeekRepository {
+
+    // id uses the primary key, textLength ix_quotes_text_length_id
+    private static final KeysetQuery<Quote> QUERY = new KeysetQuery<>(Quote.class,
+            "select e from Quote e left join fetch e.author",
+            Map.of("id", new SortKey<>(Long::valueOf, Quote::getId),
+                    "textLength", new SortKey<>(Integer::valueOf, Quote::getTextLength)),
+            Quote::getId);
+
+    private static final KeysetQuery<QuoteVersion> VERSION_QUERY = new KeysetQuery<>(QuoteVersion.class,
+            "select new com.gramirez.quotes.utils.QuoteVersion(e.id, e.updatedAt, a.id, a.name, e.textLength) "
+                    + "from Quote e left join e.author a",
+            Map.of("id", new SortKey<>(Long::valueOf, QuoteVersion::id),
+                    "textLength", new SortKey<>(Integer::valueOf, QuoteVersion::textLength)),
+            QuoteVersion::id);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public SeekPage<Quote> findQuotesAfter(String property, Sort.Direction direction, SeekCursor after, int limit) {
+        return QUERY.find(entityManager, property, direction, after, limit);
+    }
+
+    @Override
+    public SeekPage<QuoteVersion> findVersionsAfter(String property, Sort.Direction direction, SeekCursor after,
+                                                    int limit) {
+        return VERSION_QUERY.find(entityManager, property, direction, after, limit);
+    }
+}
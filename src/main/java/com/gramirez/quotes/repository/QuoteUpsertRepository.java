@@ -0,0 +1,35 @@
+package com.gramirez.quotes.repository;
+
+import com.gramirez.quotes.model.Quote;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface QuoteUpsertRepository {
+
+    /**
+     * Returned when the driver reported a statement as successful without a row
+     * count, so some rows may have been written.
+     */
+    int UNKNOWN_ROWS_WRITTEN = -1;
+
+    /**
+     * What an upsert may overwrite in a stored quote.
+     */
+    record StoredQuote(long sourceId, Long authorId, LocalDateTime createdAt, String text) {
+    }
+
+    /**
+     * The stored quotes with the given source ids, locked until the transaction
+     * ends so an upsert in it can tell what each row held before.
+     */
+    List<StoredQuote> lockBySourceIds(Collection<Long> sourceIds);
+
+    /**
+     * Inserts the quotes, or updates the existing quote with the same source id
+     * when its text or author changed. Returns the number of rows written, or
+     * {@link #UNKNOWN_ROWS_WRITTEN}; unchanged quotes are not counted.
+     */
+    int upsertBySourceId(List<Quote> quotes);
+}
@@ -0,0 +1,81 @@
+package com.gramirez.quotes.repository;
+
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.utils.QuoteContentHash;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public class QuoteUpsertRepositoryImpl implements QuoteUpsertRepository {
+
+    static final String UPSERT_SQL = """
+            INSERT INTO quotes (id, text, author_id, created_at, updated_ad, source_id, content_hash)
+            VALUES (nextval('quote_seq'), ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (source_id) DO UPDATE
+            SET text = excluded.text, author_id = excluded.author_id, updated_ad = excluded.updated_ad,
+                content_hash = excluded.content_hash
+            WHERE quotes.text IS DISTINCT FROM excluded.text
+               OR quotes.author_id IS DISTINCT FROM excluded.author_id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public QuoteUpsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<StoredQuote> lockBySourceIds(Collection<Long> sourceIds) {
+        if (sourceIds.isEmpty()) {
+            return List.of();
+        }
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT source_id, author_id, created_at, text FROM quotes WHERE source_id = ANY (?) FOR UPDATE");
+            statement.setArray(1, connection.createArrayOf("bigint", sourceIds.toArray()));
+            return statement;
+        }, (resultSet, rowNum) -> {
+            Long authorId = resultSet.getObject(2, Long.class);
+            return new StoredQuote(resultSet.getLong(1), authorId,
+                    resultSet.getObject(3, LocalDateTime.class), resultSet.getString(4));
+        });
+    }
+
+    @Override
+    public int upsertBySourceId(List<Quote> quotes) {
+        if (quotes.isEmpty()) {
+            return 0;
+        }
+
+        int[][] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, quotes, quotes.size(), (statement, quote) -> {
+            statement.setString(1, quote.getText());
+            statement.setObject(2, quote.getAuthor() == null ? null : quote.getAuthor().getId(), Types.BIGINT);
+            statement.setTimestamp(3, Timestamp.valueOf(quote.getCreatedAt()));
+            statement.setTimestamp(4, Timestamp.valueOf(quote.getUpdatedAt()));
+            statement.setObject(5, quote.getSourceId(), Types.BIGINT);
+            statement.setBytes(6, quote.getContentHash() != null
+                    ? quote.getContentHash() : QuoteContentHash.of(quote.getText()));
+        });
+
+        int written = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                // The driver may report SUCCESS_NO_INFO (-2) for rewritten batches
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    return UNKNOWN_ROWS_WRITTEN;
+                }
+                written += count;
+            }
+        }
+        return written;
+    }
+}
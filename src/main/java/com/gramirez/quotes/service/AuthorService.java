@@ -2,15 +2,26 @@ package com.gramirez.quotes.service;
 
 import com.gramirez.quotes.dto.AuthorDTO;
 import com.gramirez.quotes.model.Author;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface AuthorService {
     List<AuthorDTO> findAll(Pageable pageable);
+
+    /**
+     * Keyset page after {@code after}; see {@link com.gramirez.quotes.repository.AuthorSeekRepository}.
+     */
+    SeekPage<AuthorDTO> findAllAfter(String sortProperty, Sort.Direction direction, SeekCursor after, int size);
     AuthorDTO findById(Long id);
     AuthorDTO create(AuthorDTO authorDTO);
     AuthorDTO update(Long id, AuthorDTO authorDTO);
     void delete(Long id);
     Author findOrCreateByName(String name);
+    List<Author> findAllAuthors();
+    List<Author> createAll(Collection<String> names);
 }
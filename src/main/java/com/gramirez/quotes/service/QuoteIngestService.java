@@ -0,0 +1,9 @@
+package com.gramirez.quotes.service;
+
+import com.gramirez.quotes.dto.IngestResultDTO;
+
+import java.io.InputStream;
+
+public interface QuoteIngestService {
+    IngestResultDTO ingest(InputStream body, boolean gzip);
+}
@@ -1,5 +1,50 @@
 package com.gramirez.quotes.service;
 
+import com.gramirez.quotes.dto.PairsCountDTO;
+import com.gramirez.quotes.dto.TupleCountDTO;
+import com.gramirez.quotes.utils.LengthMetric;
+import com.gramirez.quotes.utils.QuotePairCursor;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Lengths are measured by the given {@link LengthMetric} throughout.
+ */
 public interface QuotePairService {
-    Long countPairsWithMaxLength(int maxLength);
+    Long countPairsWithMaxLength(int maxLength, LengthMetric metric);
+
+    /**
+     * Pair count among the quotes of the given authors created between from and to
+     * (inclusive). Null or empty filters do not restrict the quotes.
+     */
+    Long countPairsWithMaxLength(int maxLength, LengthMetric metric, Collection<Long> authorIds,
+                                 LocalDate from, LocalDate to);
+
+    /**
+     * Same as {@link #countPairsWithMaxLength(int, LengthMetric, Collection, LocalDate, LocalDate)},
+     * counting only pairs whose combined length is at least minLength.
+     */
+    Long countPairsWithLengthBetween(int minLength, int maxLength, LengthMetric metric,
+                                     Collection<Long> authorIds, LocalDate from, LocalDate to);
+
+    /**
+     * Number of sets of {@code size} distinct quotes (1 to 4) whose combined length is
+     * between minLength and maxLength, inclusive.
+     */
+    TupleCountDTO countTuplesWithLengthBetween(int size, int minLength, int maxLength, LengthMetric metric);
+
+    List<PairsCountDTO> countPairsWithMaxLengths(List<Integer> maxLengths, LengthMetric metric);
+
+    /**
+     * Passes up to {@code limit} id pairs with combined length at most {@code maxLength}
+     * to {@code consumer}, starting after {@code after} (or from the start when null).
+     * Returns the cursor to resume from, or null once every pair has been returned.
+     * A cursor only resumes an enumeration under the metric it was issued for.
+     */
+    QuotePairCursor forEachPair(int maxLength, LengthMetric metric, QuotePairCursor after, int limit,
+                                BiConsumer<Long, Long> consumer);
 }
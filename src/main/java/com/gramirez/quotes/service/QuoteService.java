@@ -3,15 +3,45 @@ package com.gramirez.quotes.service;
 import com.gramirez.quotes.dto.CreateQuoteDTO;
 import com.gramirez.quotes.dto.QuoteDTO;
 import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.utils.LengthMetric;
+import com.gramirez.quotes.utils.QuoteVersion;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface QuoteService {
     List<QuoteDTO> findAll(Pageable pageable);
+    List<QuoteDTO> findAllByLength(Integer minLength, Integer maxLength, LengthMetric metric, Pageable pageable);
+
+    /**
+     * Keyset page after {@code after}; see {@link com.gramirez.quotes.repository.QuoteSeekRepository}.
+     */
+    SeekPage<QuoteDTO> findAllAfter(String sortProperty, Sort.Direction direction, SeekCursor after, int size);
     QuoteDTO findById(Long id);
+
+    /**
+     * What the ETags of the matching find methods are derived from, read without loading the quotes.
+     */
+    QuoteVersion findVersionById(Long id);
+    List<QuoteVersion> findVersions(Pageable pageable);
+    List<QuoteVersion> findVersionsByLength(Integer minLength, Integer maxLength, LengthMetric metric, Pageable pageable);
+    SeekPage<QuoteVersion> findVersionsAfter(String sortProperty, Sort.Direction direction, SeekCursor after, int size);
     QuoteDTO create (CreateQuoteDTO createQuoteDTO);
     QuoteDTO update (Long id, CreateQuoteDTO createQuoteDTO);
     void delete(Long id);
     List<Quote> createBatch(List<CreateQuoteDTO> quoteDTOs);
+    List<Quote> persistBatch(List<Quote> quotes);
+    int upsertBatch(List<Quote> quotes);
+    void forEachContentKey(BiConsumer<Long, byte[]> consumer);
+
+    /**
+     * Passes every quote, in id order, to {@code consumer} as it is read, without
+     * holding more than a few hundred of them in memory.
+     */
+    void forEachQuote(Consumer<QuoteDTO> consumer);
 }
@@ -1,18 +1,27 @@
 package com.gramirez.quotes.service.impl;
 
+import com.gramirez.quotes.config.QuoteCacheConfig;
 import com.gramirez.quotes.dto.AuthorDTO;
 import com.gramirez.quotes.exception.AuthorNotFoundException;
 import com.gramirez.quotes.mapper.AuthorMapper;
 import com.gramirez.quotes.model.Author;
 import com.gramirez.quotes.repository.AuthorRepository;
 import com.gramirez.quotes.service.AuthorService;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -36,6 +45,13 @@ public class AuthorServiceImpl implements AuthorService {
     }
 
     @Override
+    public SeekPage<AuthorDTO> findAllAfter(String sortProperty, Sort.Direction direction, SeekCursor after, int size) {
+        SeekPage<Author> page = authorRepository.findAuthorsAfter(sortProperty, direction, after, size);
+        return new SeekPage<>(page.items().stream().map(authorMapper::toDTO).toList(), page.next());
+    }
+
+    @Override
+    @Cacheable(cacheNames = QuoteCacheConfig.AUTHORS_CACHE, key = "#id", sync = true)
     public AuthorDTO findById(Long id) {
         Author author = authorRepository.findById(id).orElseThrow(() -> new AuthorNotFoundException("Author not found"));
         return authorMapper.toDTO(author);
@@ -49,8 +65,13 @@ public class AuthorServiceImpl implements AuthorService {
         return authorMapper.toDTO(savedAuthor);
     }
 
+    // Cached quotes carry their author's name
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = QuoteCacheConfig.AUTHORS_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = QuoteCacheConfig.QUOTES_CACHE, allEntries = true)
+    })
     public AuthorDTO update(Long id, AuthorDTO authorDTO) {
         Author existingAuthor = authorRepository.findById(id).orElseThrow(() -> new AuthorNotFoundException("Author not found with id " + id));
         existingAuthor.setName(authorDTO.getName());
@@ -61,6 +82,10 @@ public class AuthorServiceImpl implements AuthorService {
 
     @Override
     @Transactional
+    @Caching(evict = {
+            @CacheEvict(cacheNames = QuoteCacheConfig.AUTHORS_CACHE, key = "#id"),
+            @CacheEvict(cacheNames = QuoteCacheConfig.QUOTES_CACHE, allEntries = true)
+    })
     public void delete(Long id) {
         if (!authorRepository.existsById(id)) {
             throw new AuthorNotFoundException("Author not found with id " + id);
@@ -85,4 +110,25 @@ public class AuthorServiceImpl implements AuthorService {
         }
 
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Author> findAllAuthors() {
+        return authorRepository.findAll();
+    }
+
+    @Override
+    @Transactional
+    public List<Author> createAll(Collection<String> names) {
+        List<Author> authors = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (name == null || name.trim().isEmpty()) {
+                throw new IllegalArgumentException("Author name cannot be empty");
+            }
+            Author author = new Author();
+            author.setName(name.trim());
+            authors.add(author);
+        }
+        return authorRepository.saveAll(authors);
+    }
 }
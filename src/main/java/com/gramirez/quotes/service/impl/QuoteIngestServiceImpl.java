@@ -0,0 +1,129 @@
+package com.gramirez.quotes.service.impl;
+
+import com.gramirez.quotes.dto.CreateQuoteDTO;
+import com.gramirez.quotes.dto.IngestResultDTO;
+import com.gramirez.quotes.service.QuoteIngestService;
+import com.gramirez.quotes.service.QuoteService;
+import com.gramirez.quotes.utils.JsonObjectScanner;
+import com.gramirez.quotes.utils.QuoteJsonStreamReader;
+import com.gramirez.quotes.utils.QuoteRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Ingests NDJSON (or a JSON array) of quotes straight from the request body.
+ * Records are parsed one at a time and written in batches, so memory use does
+ * not depend on the size of the upload.
+ */
+@Service
+public class QuoteIngestServiceImpl implements QuoteIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteIngestServiceImpl.class);
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    private static final int MAX_TEXT_LENGTH = 1000;
+
+    private final QuoteService quoteService;
+
+    @Value("${quotes.ingest.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${quotes.ingest.max-object-bytes:65536}")
+    private int maxObjectBytes = 65536;
+
+    @Autowired
+    public QuoteIngestServiceImpl(QuoteService quoteService) {
+        this.quoteService = quoteService;
+    }
+
+    @Override
+    public IngestResultDTO ingest(InputStream body, boolean gzip) {
+        IngestResultDTO result = new IngestResultDTO();
+        List<CreateQuoteDTO> batch = new ArrayList<>(batchSize);
+
+        try {
+            InputStream input = gzip ? new GZIPInputStream(body, GZIP_BUFFER_SIZE) : body;
+            JsonObjectScanner scanner = new JsonObjectScanner(input, 0, true, maxObjectBytes);
+            byte[] object;
+
+            while ((object = nextObject(scanner, result)) != null) {
+                CreateQuoteDTO quote = toCreateQuote(object, scanner.objectStart());
+                if (quote == null) {
+                    result.setRejected(result.getRejected() + 1);
+                    continue;
+                }
+
+                batch.add(quote);
+                if (batch.size() >= batchSize) {
+                    write(batch, result);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("Ingest stopped on unreadable input", e);
+            result.setError(e.getMessage());
+        }
+
+        // Records parsed before a broken line are still written
+        if (!batch.isEmpty()) {
+            write(batch, result);
+        }
+
+        logger.info("Ingest finished: {} accepted, {} rejected, {} duplicates skipped",
+                result.getAccepted(), result.getRejected(), result.getDuplicates());
+        return result;
+    }
+
+    // A broken NDJSON line only costs that line; a broken JSON array ends the ingest
+    private byte[] nextObject(JsonObjectScanner scanner, IngestResultDTO result) throws IOException {
+        while (true) {
+            try {
+                return scanner.nextObject();
+            } catch (JsonObjectScanner.MalformedObjectException e) {
+                if (!scanner.isLineDelimited()) {
+                    throw e;
+                }
+                logger.debug("Skipping malformed line: {}", e.getMessage());
+                result.setRejected(result.getRejected() + 1);
+                scanner.skipLine();
+            }
+        }
+    }
+
+    private CreateQuoteDTO toCreateQuote(byte[] object, long offset) {
+        QuoteRecord record;
+        try {
+            record = QuoteJsonStreamReader.parseObject(object);
+        } catch (IOException e) {
+            logger.debug("Malformed quote at offset {}", offset, e);
+            return null;
+        }
+        if (!record.isValid() || record.getAuthor().isBlank() || record.getText().codePointCount(0, record.getText().length()) > MAX_TEXT_LENGTH) {
+            return null;
+        }
+
+        CreateQuoteDTO quote = new CreateQuoteDTO();
+        quote.setAuthor(record.getAuthor());
+        quote.setText(record.getText());
+        return quote;
+    }
+
+    private void write(List<CreateQuoteDTO> batch, IngestResultDTO result) {
+        try {
+            int written = quoteService.createBatch(batch).size();
+            result.setAccepted(result.getAccepted() + written);
+            result.setDuplicates(result.getDuplicates() + batch.size() - written);
+        } catch (RuntimeException e) {
+            logger.error("Failed to write a batch of {} ingested quotes", batch.size(), e);
+            result.setRejected(result.getRejected() + batch.size());
+        }
+    }
+}
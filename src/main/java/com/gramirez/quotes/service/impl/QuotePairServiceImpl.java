@@ -1,23 +1,202 @@
 package com.gramirez.quotes.service.impl;
 
+import com.gramirez.quotes.dto.PairsCountDTO;
+import com.gramirez.quotes.dto.TupleCountDTO;
+import com.gramirez.quotes.repository.QuoteLengthKeyRepository.LengthKey;
 import com.gramirez.quotes.repository.QuoteRepository;
 import com.gramirez.quotes.service.QuotePairService;
+import com.gramirez.quotes.utils.LengthMetric;
+import com.gramirez.quotes.utils.LengthTupleCounter;
+import com.gramirez.quotes.utils.QuoteLengthBuckets;
+import com.gramirez.quotes.utils.QuoteLengthHistogram;
+import com.gramirez.quotes.utils.QuotePairCursor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
 
 @Service
 public class QuotePairServiceImpl implements QuotePairService {
 
+    private static final int WINDOW_COMPACT_THRESHOLD = 1024;
+
+    private final QuoteLengthHistogram quoteLengthHistogram;
+    private final QuoteLengthBuckets quoteLengthBuckets;
     private final QuoteRepository quoteRepository;
 
+    @Value("${quotes.pairs.source:memory}")
+    private String source = "memory";
+
     @Autowired
-    public QuotePairServiceImpl(QuoteRepository quoteRepository) {
+    public QuotePairServiceImpl(QuoteLengthHistogram quoteLengthHistogram, QuoteLengthBuckets quoteLengthBuckets,
+                                QuoteRepository quoteRepository) {
+        this.quoteLengthHistogram = quoteLengthHistogram;
+        this.quoteLengthBuckets = quoteLengthBuckets;
         this.quoteRepository = quoteRepository;
     }
 
     @Override
-    public Long countPairsWithMaxLength(int maxLength) {
-        return quoteRepository.countPossiblePairs(maxLength).orElse(0L);
+    public Long countPairsWithMaxLength(int maxLength, LengthMetric metric) {
+        if (fromDatabase()) {
+            return quoteRepository.countPossiblePairs(maxLength, metric.getKey()).orElse(0L);
+        }
+        return quoteLengthHistogram.countPairs(metric, maxLength);
+    }
+
+    /**
+     * Filtered counts always come from the in-memory buckets, whatever the source.
+     */
+    @Override
+    public Long countPairsWithMaxLength(int maxLength, LengthMetric metric, Collection<Long> authorIds,
+                                        LocalDate from, LocalDate to) {
+        if ((authorIds == null || authorIds.isEmpty()) && from == null && to == null) {
+            return countPairsWithMaxLength(maxLength, metric);
+        }
+        return quoteLengthBuckets.countPairs(metric, maxLength, authorIds, from, to);
+    }
+
+    @Override
+    public Long countPairsWithLengthBetween(int minLength, int maxLength, LengthMetric metric,
+                                            Collection<Long> authorIds, LocalDate from, LocalDate to) {
+        if (maxLength < minLength) {
+            return 0L;
+        }
+        boolean filtered = (authorIds != null && !authorIds.isEmpty()) || from != null || to != null;
+        if (!filtered && !fromDatabase()) {
+            return quoteLengthHistogram.countPairs(metric, minLength, maxLength);
+        }
+        return countPairsWithMaxLength(maxLength, metric, authorIds, from, to)
+                - countPairsWithMaxLength(minLength - 1, metric, authorIds, from, to);
+    }
+
+    @Override
+    public TupleCountDTO countTuplesWithLengthBetween(int size, int minLength, int maxLength, LengthMetric metric) {
+        BigInteger count;
+        if (fromDatabase()) {
+            long[] lengthCounts = QuoteLengthHistogram.countsOf(quoteRepository.countByLength(metric.getKey()));
+            count = new LengthTupleCounter(lengthCounts).count(size, minLength, maxLength);
+        } else {
+            count = quoteLengthHistogram.countTuples(metric, size, minLength, maxLength);
+        }
+
+        TupleCountDTO tupleCountDTO = new TupleCountDTO();
+        tupleCountDTO.setCount(count);
+        tupleCountDTO.setSize(size);
+        tupleCountDTO.setMinLength(minLength);
+        tupleCountDTO.setMaxLength(maxLength);
+        return tupleCountDTO;
+    }
+
+    @Override
+    public List<PairsCountDTO> countPairsWithMaxLengths(List<Integer> maxLengths, LengthMetric metric) {
+        int[] thresholds = maxLengths.stream().mapToInt(Integer::intValue).toArray();
+        long[] counts;
+        if (fromDatabase()) {
+            long[] lengthCounts = QuoteLengthHistogram.countsOf(quoteRepository.countByLength(metric.getKey()));
+            counts = QuoteLengthHistogram.lookup(QuoteLengthHistogram.buildPairCountTable(lengthCounts), thresholds);
+        } else {
+            counts = quoteLengthHistogram.countPairs(metric, thresholds);
+        }
+
+        List<PairsCountDTO> pairsCounts = new ArrayList<>(thresholds.length);
+        for (int i = 0; i < thresholds.length; i++) {
+            PairsCountDTO pairsCountDTO = new PairsCountDTO();
+            pairsCountDTO.setCount(counts[i]);
+            pairsCountDTO.setMaxLength(thresholds[i]);
+            pairsCounts.add(pairsCountDTO);
+        }
+        return pairsCounts;
+    }
+
+    /**
+     * Sweeps the quotes in (length, id) order with one index range scan. Each
+     * quote is paired with the quotes after it that still fit in the remaining
+     * length; as the first quote gets longer that bound shrinks, so the keys a
+     * later first quote needs have already been read. Keys are kept in a window
+     * from the current first quote to the furthest one read, are read only as
+     * pairs are emitted, and the sweep stops once a quote is longer than half of
+     * maxLength. Pairs go straight to the consumer.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public QuotePairCursor forEachPair(int maxLength, LengthMetric metric, QuotePairCursor after, int limit,
+                                       BiConsumer<Long, Long> consumer) {
+        if (maxLength < 0 || limit <= 0) {
+            return null;
+        }
+
+        LengthKey start = after == null
+                ? new LengthKey(-1, Long.MIN_VALUE)
+                : new LengthKey(after.first().length(), after.first().id() - 1);
+        int emitted = 0;
+        LengthKey lastFirst = null;
+        LengthKey lastSecond = null;
+
+        try (Stream<LengthKey> stream = quoteRepository.streamLengthKeysAfter(
+                start, maxLength - Math.max(start.length(), 0), metric)) {
+            Iterator<LengthKey> keys = stream.iterator();
+            List<LengthKey> window = new ArrayList<>();
+            int firstIndex = 0;
+
+            while (firstIndex < window.size() || keys.hasNext()) {
+                if (firstIndex == window.size()) {
+                    window.add(keys.next());
+                }
+                LengthKey first = window.get(firstIndex);
+                if (first.length() > maxLength / 2) {
+                    break;
+                }
+
+                int bound = maxLength - first.length();
+                int secondIndex = firstIndex + 1;
+                boolean resuming = after != null && first.equals(after.first());
+                while (secondIndex < window.size() || keys.hasNext()) {
+                    if (secondIndex == window.size()) {
+                        window.add(keys.next());
+                    }
+                    LengthKey second = window.get(secondIndex);
+                    if (second.length() > bound) {
+                        break;
+                    }
+                    secondIndex++;
+                    if (resuming && compare(second, after.second()) <= 0) {
+                        continue;
+                    }
+                    if (emitted == limit) {
+                        return new QuotePairCursor(lastFirst, lastSecond);
+                    }
+                    consumer.accept(first.id(), second.id());
+                    emitted++;
+                    lastFirst = first;
+                    lastSecond = second;
+                }
+
+                firstIndex++;
+                // Drop the keys no first quote needs any more once they are most of the window
+                if (firstIndex >= WINDOW_COMPACT_THRESHOLD && firstIndex * 2 >= window.size()) {
+                    window.subList(0, firstIndex).clear();
+                    firstIndex = 0;
+                }
+            }
+        }
+        return null;
     }
 
+    private static int compare(LengthKey a, LengthKey b) {
+        int byLength = Integer.compare(a.length(), b.length());
+        return byLength != 0 ? byLength : Long.compare(a.id(), b.id());
+    }
+
+    private boolean fromDatabase() {
+        return "database".equalsIgnoreCase(source);
+    }
 }
@@ -1,34 +1,62 @@
 package com.gramirez.quotes.service.impl;
 
 
+import com.gramirez.quotes.config.QuoteCacheConfig;
 import com.gramirez.quotes.dto.CreateQuoteDTO;
 import com.gramirez.quotes.dto.QuoteDTO;
+import com.gramirez.quotes.exception.DuplicateQuoteException;
 import com.gramirez.quotes.exception.QuoteNotFoundException;
 import com.gramirez.quotes.mapper.QuoteMapper;
 import com.gramirez.quotes.model.Author;
 import com.gramirez.quotes.model.Quote;
 import com.gramirez.quotes.repository.QuoteRepository;
+import com.gramirez.quotes.repository.QuoteUpsertRepository.StoredQuote;
 import com.gramirez.quotes.service.AuthorService;
 import com.gramirez.quotes.service.QuoteService;
+import com.gramirez.quotes.utils.LengthMetric;
+import com.gramirez.quotes.utils.QuoteContentHash;
+import com.gramirez.quotes.utils.QuoteLengthBuckets;
+import com.gramirez.quotes.utils.QuoteLengthHistogram;
+import com.gramirez.quotes.utils.QuoteVersion;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class QuoteServiceImpl implements QuoteService {
 
+    private static final int BATCH_FLUSH_SIZE = 50;
+    private static final int EXPORT_CLEAR_SIZE = 500;
+
     private final QuoteRepository quoteRepository;
     private final AuthorService authorService;
     private final QuoteMapper quoteMapper;
+    private final QuoteLengthHistogram quoteLengthHistogram;
+    private final QuoteLengthBuckets quoteLengthBuckets;
 
     @PersistenceContext
     private EntityManager entityManager;
@@ -36,10 +64,14 @@ public class QuoteServiceImpl implements QuoteService {
     @Autowired
     public QuoteServiceImpl(QuoteRepository quoteRepository,
                             AuthorService authorService,
-                            QuoteMapper quoteMapper) {
+                            QuoteMapper quoteMapper,
+                            QuoteLengthHistogram quoteLengthHistogram,
+                            QuoteLengthBuckets quoteLengthBuckets) {
         this.quoteRepository = quoteRepository;
         this.authorService = authorService;
         this.quoteMapper = quoteMapper;
+        this.quoteLengthHistogram = quoteLengthHistogram;
+        this.quoteLengthBuckets = quoteLengthBuckets;
     }
 
     @Override
@@ -51,6 +83,28 @@ public class QuoteServiceImpl implements QuoteService {
     }
 
     @Override
+    public List<QuoteDTO> findAllByLength(Integer minLength, Integer maxLength, LengthMetric metric,
+                                          Pageable pageable) {
+        int min = minLength == null ? 0 : minLength;
+        int max = maxLength == null ? Integer.MAX_VALUE : maxLength;
+        Page<Quote> quotesPage = switch (metric) {
+            case CHARACTERS -> quoteRepository.findByTextLengthBetween(min, max, pageable);
+            case WORDS -> quoteRepository.findByTextWordsBetween(min, max, pageable);
+            case UTF8_BYTES -> quoteRepository.findByTextBytesBetween(min, max, pageable);
+        };
+        return quotesPage.stream()
+                .map(quoteMapper::toDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public SeekPage<QuoteDTO> findAllAfter(String sortProperty, Sort.Direction direction, SeekCursor after, int size) {
+        SeekPage<Quote> page = quoteRepository.findQuotesAfter(sortProperty, direction, after, size);
+        return new SeekPage<>(page.items().stream().map(quoteMapper::toDto).toList(), page.next());
+    }
+
+    @Override
+    @Cacheable(cacheNames = QuoteCacheConfig.QUOTES_CACHE, key = "#id", sync = true)
     public QuoteDTO findById(Long id) {
         Quote quote = quoteRepository.findById(id)
                 .orElseThrow(() -> new QuoteNotFoundException("Quote not found with Id:" + id));
@@ -58,11 +112,48 @@ public class QuoteServiceImpl implements QuoteService {
         return quoteMapper.toDto(quote);
     }
 
+    @Override
+    public QuoteVersion findVersionById(Long id) {
+        return quoteRepository.findVersionById(id)
+                .orElseThrow(() -> new QuoteNotFoundException("Quote not found with Id:" + id));
+    }
+
+    @Override
+    public List<QuoteVersion> findVersions(Pageable pageable) {
+        return quoteRepository.findVersionsBy(pageable);
+    }
+
+    @Override
+    public List<QuoteVersion> findVersionsByLength(Integer minLength, Integer maxLength, LengthMetric metric,
+                                                   Pageable pageable) {
+        int min = minLength == null ? 0 : minLength;
+        int max = maxLength == null ? Integer.MAX_VALUE : maxLength;
+        return switch (metric) {
+            case CHARACTERS -> quoteRepository.findVersionsByTextLengthBetween(min, max, pageable);
+            case WORDS -> quoteRepository.findVersionsByTextWordsBetween(min, max, pageable);
+            case UTF8_BYTES -> quoteRepository.findVersionsByTextBytesBetween(min, max, pageable);
+        };
+    }
+
+    @Override
+    public SeekPage<QuoteVersion> findVersionsAfter(String sortProperty, Sort.Direction direction, SeekCursor after,
+                                                    int size) {
+        return quoteRepository.findVersionsAfter(sortProperty, direction, after, size);
+    }
+
     @Override
     @Transactional
     public QuoteDTO create(CreateQuoteDTO createQuoteDTO) {
         Author author  = authorService.findOrCreateByName(createQuoteDTO.getAuthor());
 
+        if (createQuoteDTO.getText() != null) {
+            Optional<Quote> duplicate = quoteRepository.findFirstByAuthorAndContentHash(
+                    author, QuoteContentHash.of(createQuoteDTO.getText()));
+            if (duplicate.isPresent()) {
+                return quoteMapper.toDto(duplicate.get());
+            }
+        }
+
         Quote quote = new Quote();
         quote.setText(createQuoteDTO.getText());
         quote.setAuthor(author);
@@ -70,57 +161,219 @@ public class QuoteServiceImpl implements QuoteService {
         quote.setUpdatedAt(LocalDateTime.now());
 
         Quote savedQuote = quoteRepository.save(quote);
+        quoteLengthHistogram.recordCreated(savedQuote.getText());
+        quoteLengthBuckets.recordCreated(savedQuote);
         return quoteMapper.toDto(savedQuote);
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = QuoteCacheConfig.QUOTES_CACHE, key = "#id")
     public QuoteDTO update(Long id, CreateQuoteDTO createQuoteDTO) {
         Quote existingQuote = quoteRepository.findById(id)
                 .orElseThrow(() -> new QuoteNotFoundException("Quote not found with Id:" + id));
 
         Author author = authorService.findOrCreateByName(createQuoteDTO.getAuthor());
+        String previousText = existingQuote.getText();
+        Long previousAuthorId = existingQuote.getAuthor() == null ? null : existingQuote.getAuthor().getId();
+
+        byte[] contentHash = QuoteContentHash.of(createQuoteDTO.getText());
+        quoteRepository.findFirstByAuthorAndContentHash(author, contentHash)
+                .filter(duplicate -> !duplicate.getId().equals(id))
+                .ifPresent(duplicate -> {
+                    throw new DuplicateQuoteException("Quote already exists with Id:" + duplicate.getId());
+                });
 
         existingQuote.setText(createQuoteDTO.getText());
         existingQuote.setAuthor(author);
         existingQuote.setUpdatedAt(LocalDateTime.now());
 
         Quote savedQuote = quoteRepository.save(existingQuote);
+        quoteLengthHistogram.recordUpdated(previousText, savedQuote.getText());
+        quoteLengthBuckets.recordUpdated(previousAuthorId, previousText, savedQuote);
         return quoteMapper.toDto(savedQuote);
     }
 
     @Override
     @Transactional
+    @CacheEvict(cacheNames = QuoteCacheConfig.QUOTES_CACHE, key = "#id")
     public void delete(Long id) {
+        Quote quote = quoteRepository.findById(id)
+                .orElseThrow(() -> new QuoteNotFoundException("Quote not found with Id:" + id));
 
-        if (!quoteRepository.existsById(id)) {
-            throw new QuoteNotFoundException("Quote not found with Id:" + id);
-        }
-
-        quoteRepository.deleteById(id);
+        quoteRepository.delete(quote);
+        quoteLengthHistogram.recordDeleted(quote.getText());
+        quoteLengthBuckets.recordDeleted(quote);
     }
 
     @Override
     @Transactional
     public List<Quote> createBatch(List<CreateQuoteDTO> quoteDTOs) {
-        List<Quote> savedQuotes = new ArrayList<>(quoteDTOs.size());
+        List<Quote> quotes = new ArrayList<>(quoteDTOs.size());
+        Set<Long> batchKeys = new HashSet<>();
 
-        for (int i = 0; i < quoteDTOs.size(); i++) {
-            CreateQuoteDTO dto = quoteDTOs.get(i);
+        for (CreateQuoteDTO dto : quoteDTOs) {
             Quote quote = new Quote();
             Author author = authorService.findOrCreateByName(dto.getAuthor());
             quote.setText(dto.getText());
             quote.setAuthor(author);
+            quote.setContentHash(QuoteContentHash.of(dto.getText()));
+
+            if (batchKeys.add(QuoteContentHash.fingerprint(author.getId(), quote.getContentHash()))) {
+                quotes.add(quote);
+            }
+        }
+
+        if (!quotes.isEmpty()) {
+            Set<Long> storedKeys = new HashSet<>();
+            for (Object[] key : quoteRepository.findContentKeys(quotes.stream().map(Quote::getContentHash).toList())) {
+                storedKeys.add(QuoteContentHash.fingerprint((Long) key[0], (byte[]) key[1]));
+            }
+            quotes.removeIf(quote -> storedKeys.contains(
+                    QuoteContentHash.fingerprint(quote.getAuthor().getId(), quote.getContentHash())));
+        }
+
+        return persistBatch(quotes);
+    }
+
+    @Override
+    @Transactional
+    public List<Quote> persistBatch(List<Quote> quotes) {
+        LocalDateTime now = LocalDateTime.now();
+
+        for (int i = 0; i < quotes.size(); i++) {
+            Quote quote = quotes.get(i);
+            if (quote.getCreatedAt() == null) {
+                quote.setCreatedAt(now);
+            }
+            quote.setUpdatedAt(now);
 
             entityManager.persist(quote);
-            savedQuotes.add(quote);
+            quoteLengthHistogram.recordCreated(quote.getText());
+            quoteLengthBuckets.recordCreated(quote);
 
-            if (i % 30 == 0 && i > 0) {
+            if (i % BATCH_FLUSH_SIZE == 0 && i > 0) {
                 entityManager.flush();
                 entityManager.clear();
             }
         }
 
-        return savedQuotes;
+        return quotes;
+    }
+
+    // Upserts may rewrite any quote already cached
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = QuoteCacheConfig.QUOTES_CACHE, allEntries = true)
+    public int upsertBatch(List<Quote> quotes) {
+        LocalDateTime now = LocalDateTime.now();
+        quotes = withoutContentConflicts(quotes);
+
+        for (Quote quote : quotes) {
+            if (quote.getCreatedAt() == null) {
+                quote.setCreatedAt(now);
+            }
+            quote.setUpdatedAt(now);
+        }
+
+        Map<Long, StoredQuote> stored = new HashMap<>();
+        List<Long> sourceIds = quotes.stream().map(Quote::getSourceId).filter(Objects::nonNull).distinct().toList();
+        for (StoredQuote quote : quoteRepository.lockBySourceIds(sourceIds)) {
+            stored.put(quote.sourceId(), quote);
+        }
+
+        int written = quoteRepository.upsertBySourceId(quotes);
+        for (Quote quote : quotes) {
+            recordUpserted(quote, quote.getSourceId() == null ? null : stored.get(quote.getSourceId()));
+            if (quote.getSourceId() != null) {
+                stored.put(quote.getSourceId(), new StoredQuote(quote.getSourceId(), authorId(quote),
+                        quote.getCreatedAt(), quote.getText()));
+            }
+        }
+        // Rows the driver didn't count are not reported as written
+        return Math.max(written, 0);
+    }
+
+    // Mirrors the upsert: a quote is inserted unless its source id is stored, and an
+    // update, which keeps the stored creation time, only happens when text or author changed
+    private void recordUpserted(Quote quote, StoredQuote previous) {
+        if (previous == null) {
+            quoteLengthHistogram.recordCreated(quote.getText());
+            quoteLengthBuckets.recordCreated(quote);
+            return;
+        }
+        quote.setCreatedAt(previous.createdAt());
+        if (!Objects.equals(previous.text(), quote.getText())
+                || !Objects.equals(previous.authorId(), authorId(quote))) {
+            quoteLengthHistogram.recordUpdated(previous.text(), quote.getText());
+            quoteLengthBuckets.recordUpdated(previous.authorId(), previous.text(), quote);
+        }
+    }
+
+    private static Long authorId(Quote quote) {
+        return quote.getAuthor() == null ? null : quote.getAuthor().getId();
+    }
+
+    // ON CONFLICT (source_id) doesn't cover ux_quotes_author_content_hash, so drop rows whose
+    // (author, content) is stored under another source id or repeated earlier in the batch.
+    // A key stored under the row's own source id is left to the upsert: the text may differ
+    // in case or whitespace only, which hashes the same but is still an edit.
+    private List<Quote> withoutContentConflicts(List<Quote> quotes) {
+        List<Quote> keyed = new ArrayList<>(quotes.size());
+        for (Quote quote : quotes) {
+            if (quote.getContentHash() == null) {
+                quote.setContentHash(QuoteContentHash.of(quote.getText()));
+            }
+            if (quote.getAuthor() != null) {
+                keyed.add(quote);
+            }
+        }
+        if (keyed.isEmpty()) {
+            return quotes;
+        }
+
+        Map<Long, Long> storedSourceIds = new HashMap<>();
+        for (Object[] key : quoteRepository.findContentKeys(keyed.stream().map(Quote::getContentHash).toList())) {
+            storedSourceIds.put(QuoteContentHash.fingerprint((Long) key[0], (byte[]) key[1]), (Long) key[2]);
+        }
+
+        Set<Long> batchKeys = new HashSet<>();
+        List<Quote> accepted = new ArrayList<>(quotes.size());
+        for (Quote quote : quotes) {
+            // Null authors never collide on the unique index
+            if (quote.getAuthor() == null) {
+                accepted.add(quote);
+                continue;
+            }
+            long key = QuoteContentHash.fingerprint(quote.getAuthor().getId(), quote.getContentHash());
+            boolean storedElsewhere = storedSourceIds.containsKey(key)
+                    && !Objects.equals(storedSourceIds.get(key), quote.getSourceId());
+            if (batchKeys.add(key) && !storedElsewhere) {
+                accepted.add(quote);
+            }
+        }
+        return accepted;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachContentKey(BiConsumer<Long, byte[]> consumer) {
+        quoteRepository.forEachContentKey(consumer);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachQuote(Consumer<QuoteDTO> consumer) {
+        int read = 0;
+        try (Stream<Quote> quotes = quoteRepository.streamAllWithAuthor()) {
+            Iterator<Quote> iterator = quotes.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(quoteMapper.toDto(iterator.next()));
+                // Written quotes aren't needed again; drop them so the persistence context stays small
+                if (++read % EXPORT_CLEAR_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,92 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.model.Author;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Import-scoped, case-insensitive cache of authors. It is preloaded with every
+ * existing author, so resolving a known name never touches the database; names
+ * that are not in the dictionary yet are created together, one call per batch.
+ */
+public class AuthorDictionary {
+
+    private final Map<String, Author> authors = new ConcurrentHashMap<>();
+    private final Function<List<String>, List<Author>> creator;
+    private final Object creationLock = new Object();
+
+    /**
+     * @param existing authors already stored in the database
+     * @param creator  persists new authors and returns them in the same order
+     */
+    public AuthorDictionary(Collection<Author> existing, Function<List<String>, List<Author>> creator) {
+        this.creator = creator;
+        for (Author author : existing) {
+            authors.putIfAbsent(key(author.getName()), author);
+        }
+    }
+
+    public Author get(String name) {
+        return authors.get(key(name));
+    }
+
+    public int size() {
+        return authors.size();
+    }
+
+    /**
+     * Returns the author for every given name, keyed by the normalized name
+     * (see {@link #key(String)}), creating the missing ones in a single call.
+     */
+    public Map<String, Author> resolve(Collection<String> names) {
+        Map<String, Author> resolved = new HashMap<>();
+        Map<String, String> missing = new LinkedHashMap<>();
+
+        for (String name : names) {
+            String key = key(name);
+            Author author = authors.get(key);
+            if (author != null) {
+                resolved.put(key, author);
+            } else {
+                missing.putIfAbsent(key, name.trim());
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            synchronized (creationLock) {
+                // Another thread may have created some of them while we waited
+                missing.keySet().removeIf(key -> {
+                    Author author = authors.get(key);
+                    if (author != null) {
+                        resolved.put(key, author);
+                        return true;
+                    }
+                    return false;
+                });
+
+                if (!missing.isEmpty()) {
+                    List<String> keys = new ArrayList<>(missing.keySet());
+                    List<Author> created = creator.apply(new ArrayList<>(missing.values()));
+                    for (int i = 0; i < keys.size(); i++) {
+                        authors.put(keys.get(i), created.get(i));
+                        resolved.put(keys.get(i), created.get(i));
+                    }
+                }
+            }
+        }
+
+        return resolved;
+    }
+
+    public static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,188 @@
+package com.gramirez.quotes.utils;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process {@link org.springframework.cache.Cache} holding at most {@code maxSize}
+ * entries, each for at most {@code ttl} after it was written. When full, the least
+ * recently read entry is evicted. Hits, misses, puts and evictions (expired entries
+ * included) are counted for {@link BoundedCacheMeterBinder}.
+ * <p>
+ * Like the length histograms, {@link #evict} and {@link #clear} made inside a
+ * transaction take effect once it commits, so a read between the write and the
+ * commit can't put the old row back; {@link #evictIfPresent} and {@link #invalidate}
+ * are immediate. A load that was already running when an eviction landed may have
+ * read the old row, so {@link #get(Object, Callable)} only stores its value when no
+ * eviction happened meanwhile; read through it with {@code @Cacheable(sync = true)}.
+ */
+public class BoundedCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+
+    // Access-ordered, so the eldest entry is the least recently read one; guarded by itself
+    private final LinkedHashMap<Object, Entry> entries;
+    // Bumped by every eviction; guarded by entries
+    private long generation;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(String name, int maxSize, Duration ttl) {
+        this(name, maxSize, ttl, System::nanoTime);
+    }
+
+    BoundedCache(String name, int maxSize, Duration ttl, LongSupplier nanoClock) {
+        super(false);
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Cache TTL must be positive: " + ttl);
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                if (size() > BoundedCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return entries;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = null;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null) {
+                if (nanoClock.getAsLong() - entry.expiresAt() >= 0) {
+                    entries.remove(key);
+                    evictions.increment();
+                } else {
+                    value = entry.value();
+                }
+            }
+        }
+        (value == null ? misses : hits).increment();
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        long loadedGeneration;
+        synchronized (entries) {
+            loadedGeneration = generation;
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        store(key, value, loadedGeneration);
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store(key, value, -1);
+    }
+
+    // A generation of -1 stores unconditionally
+    private void store(Object key, Object value, long loadedGeneration) {
+        Entry entry = new Entry(toStoreValue(value), nanoClock.getAsLong() + ttlNanos);
+        synchronized (entries) {
+            if (loadedGeneration != -1 && loadedGeneration != generation) {
+                return;
+            }
+            entries.put(key, entry);
+        }
+        puts.increment();
+    }
+
+    @Override
+    public void evict(Object key) {
+        QuoteLengthHistogram.afterCommit(() -> evictIfPresent(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        synchronized (entries) {
+            generation++;
+            return entries.remove(key) != null;
+        }
+    }
+
+    @Override
+    public void clear() {
+        QuoteLengthHistogram.afterCommit(this::invalidate);
+    }
+
+    @Override
+    public boolean invalidate() {
+        synchronized (entries) {
+            generation++;
+            boolean hadEntries = !entries.isEmpty();
+            entries.clear();
+            return hadEntries;
+        }
+    }
+
+    public long size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long putCount() {
+        return puts.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    private record Entry(Object value, long expiresAt) {
+    }
+}
@@ -0,0 +1,91 @@
+package com.gramirez.quotes.utils;
+
+import com.github.luben.zstd.ZstdInputStream;
+import org.tukaani.xz.XZInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Compression formats accepted for quote dumps, recognized by their magic bytes
+ * rather than the file extension.
+ */
+public enum Compression {
+
+    NONE(new int[0]),
+    GZIP(new int[]{0x1f, 0x8b}),
+    ZSTD(new int[]{0x28, 0xb5, 0x2f, 0xfd}),
+    XZ(new int[]{0xfd, '7', 'z', 'X', 'Z', 0x00});
+
+    private static final int MAGIC_LENGTH = 6;
+    private static final int DECOMPRESS_BUFFER_SIZE = 1 << 16;
+
+    private final int[] magic;
+
+    Compression(int[] magic) {
+        this.magic = magic;
+    }
+
+    public static Compression detect(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return detect(in.readNBytes(MAGIC_LENGTH));
+        }
+    }
+
+    /**
+     * Peeks at the start of a stream that supports mark/reset without consuming it.
+     */
+    public static Compression detect(InputStream in) throws IOException {
+        if (!in.markSupported()) {
+            throw new IllegalArgumentException("Stream must support mark/reset");
+        }
+        in.mark(MAGIC_LENGTH);
+        try {
+            return detect(in.readNBytes(MAGIC_LENGTH));
+        } finally {
+            in.reset();
+        }
+    }
+
+    static Compression detect(byte[] header) {
+        for (Compression compression : values()) {
+            if (compression != NONE && compression.matches(header)) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+
+    private boolean matches(byte[] header) {
+        if (header.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((header[i] & 0xFF) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public InputStream decompress(InputStream in) throws IOException {
+        return switch (this) {
+            case NONE -> in;
+            case GZIP -> new GZIPInputStream(in, DECOMPRESS_BUFFER_SIZE);
+            case ZSTD -> new BufferedInputStream(new ZstdInputStream(in), DECOMPRESS_BUFFER_SIZE);
+            case XZ -> new BufferedInputStream(new XZInputStream(in), DECOMPRESS_BUFFER_SIZE);
+        };
+    }
+
+    /**
+     * Detects the compression of a buffered stream and returns a stream of the
+     * decompressed bytes.
+     */
+    public static InputStream decompressing(BufferedInputStream in) throws IOException {
+        return detect(in).decompress(in);
+    }
+}
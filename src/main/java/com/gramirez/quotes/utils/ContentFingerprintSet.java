@@ -0,0 +1,84 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.service.QuoteService;
+
+/**
+ * Set of quote fingerprints (see {@link QuoteContentHash#fingerprint}) used to
+ * skip duplicate quotes during bulk loads. Open addressing over a primitive
+ * array keeps it at 16 to 32 bytes per quote, so it can hold every quote
+ * already in the table.
+ */
+public class ContentFingerprintSet {
+
+    private static final long EMPTY = 0;
+
+    private long[] slots;
+    private int size;
+    private boolean containsEmpty;
+
+    public ContentFingerprintSet() {
+        this(1024);
+    }
+
+    public ContentFingerprintSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+        slots = new long[capacity];
+    }
+
+    /**
+     * Builds a set holding every quote already stored.
+     */
+    public static ContentFingerprintSet load(QuoteService quoteService) {
+        ContentFingerprintSet fingerprints = new ContentFingerprintSet();
+        quoteService.forEachContentKey((authorId, hash) -> fingerprints.add(QuoteContentHash.fingerprint(authorId, hash)));
+        return fingerprints;
+    }
+
+    /**
+     * Returns {@code false} if the fingerprint was already present.
+     */
+    public synchronized boolean add(long fingerprint) {
+        if (fingerprint == EMPTY) {
+            if (containsEmpty) {
+                return false;
+            }
+            containsEmpty = true;
+            size++;
+            return true;
+        }
+        if (!insert(slots, fingerprint)) {
+            return false;
+        }
+        if (++size * 2 > slots.length) {
+            grow();
+        }
+        return true;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private static boolean insert(long[] table, long fingerprint) {
+        int mask = table.length - 1;
+        int index = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+        while (table[index] != EMPTY) {
+            if (table[index] == fingerprint) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        table[index] = fingerprint;
+        return true;
+    }
+
+    private void grow() {
+        long[] grown = new long[slots.length * 2];
+        for (long fingerprint : slots) {
+            if (fingerprint != EMPTY) {
+                insert(grown, fingerprint);
+            }
+        }
+        slots = grown;
+    }
+}
@@ -0,0 +1,149 @@
+package com.gramirez.quotes.utils;
+
+import java.util.Arrays;
+
+/**
+ * Exact integer convolution in O(n log n). A number-theoretic transform is run
+ * modulo three NTT-friendly primes and the results are recombined with the
+ * Chinese remainder theorem (Garner's algorithm), so there is none of the
+ * rounding error a floating-point FFT has once products exceed 2^53.
+ */
+public final class Convolution {
+
+    /**
+     * Primes of the form c * 2^k + 1 (k >= 21) with 3 as a primitive root, so
+     * transforms of up to 2^21 points exist modulo each of them. All are below
+     * 2^31.5, so a product of two residues still fits in a long.
+     */
+    static final long[] PRIMES = {998_244_353L, 167_772_161L, 469_762_049L, 1_004_535_809L, 2_281_701_377L};
+    private static final long PRIMITIVE_ROOT = 3;
+
+    private Convolution() {
+    }
+
+    /**
+     * Returns {@code r} with {@code r[s] = sum of values[a] * values[s - a]}.
+     * Values must be non-negative and every result must fit in a {@code long}.
+     */
+    public static long[] selfConvolve(long[] values) {
+        if (values.length == 0) {
+            return new long[0];
+        }
+        int resultLength = 2 * values.length - 1;
+
+        long[][] residues = new long[3][];
+        for (int i = 0; i < residues.length; i++) {
+            long prime = PRIMES[i];
+            long[] reduced = new long[values.length];
+            for (int j = 0; j < values.length; j++) {
+                reduced[j] = values[j] % prime;
+            }
+            residues[i] = convolve(reduced, reduced, prime);
+        }
+
+        long m0 = PRIMES[0];
+        long m1 = PRIMES[1];
+        long m2 = PRIMES[2];
+        long m0InverseMod1 = modPow(m0 % m1, m1 - 2, m1);
+        long m0m1InverseMod2 = modPow(m0 % m2 * (m1 % m2) % m2, m2 - 2, m2);
+
+        long[] result = new long[resultLength];
+        for (int s = 0; s < resultLength; s++) {
+            long r0 = residues[0][s];
+            long r1 = residues[1][s];
+            long r2 = residues[2][s];
+
+            long t1 = Math.floorMod(r1 - r0, m1) * m0InverseMod1 % m1;
+            long partial = (r0 % m2 + m0 % m2 * t1) % m2;
+            long t2 = Math.floorMod(r2 - partial, m2) * m0m1InverseMod2 % m2;
+
+            // The true value fits in a long, so wrapping arithmetic yields it exactly
+            result[s] = r0 + m0 * t1 + m0 * m1 * t2;
+        }
+        return result;
+    }
+
+    /**
+     * Convolution of {@code a} and {@code b} modulo {@code prime}, one of
+     * {@link #PRIMES}. Inputs must already be reduced modulo {@code prime}.
+     */
+    static long[] convolve(long[] a, long[] b, long prime) {
+        if (a.length == 0 || b.length == 0) {
+            return new long[0];
+        }
+        int resultLength = a.length + b.length - 1;
+        int size = Integer.highestOneBit(resultLength);
+        if (size < resultLength) {
+            size <<= 1;
+        }
+
+        long[] fa = Arrays.copyOf(a, size);
+        transform(fa, prime, false);
+        long[] fb;
+        if (a == b) {
+            fb = fa;
+        } else {
+            fb = Arrays.copyOf(b, size);
+            transform(fb, prime, false);
+        }
+        for (int i = 0; i < size; i++) {
+            fa[i] = fa[i] * fb[i] % prime;
+        }
+        transform(fa, prime, true);
+        return Arrays.copyOf(fa, resultLength);
+    }
+
+    private static void transform(long[] a, long prime, boolean inverse) {
+        int n = a.length;
+        for (int i = 1, j = 0; i < n; i++) {
+            int bit = n >> 1;
+            for (; (j & bit) != 0; bit >>= 1) {
+                j ^= bit;
+            }
+            j ^= bit;
+            if (i < j) {
+                long swap = a[i];
+                a[i] = a[j];
+                a[j] = swap;
+            }
+        }
+
+        for (int length = 2; length <= n; length <<= 1) {
+            long root = modPow(PRIMITIVE_ROOT, (prime - 1) / length, prime);
+            if (inverse) {
+                root = modPow(root, prime - 2, prime);
+            }
+            int half = length >> 1;
+            for (int start = 0; start < n; start += length) {
+                long w = 1;
+                for (int k = 0; k < half; k++) {
+                    long u = a[start + k];
+                    long v = a[start + k + half] * w % prime;
+                    a[start + k] = u + v < prime ? u + v : u + v - prime;
+                    a[start + k + half] = u - v >= 0 ? u - v : u - v + prime;
+                    w = w * root % prime;
+                }
+            }
+        }
+
+        if (inverse) {
+            long nInverse = modPow(n, prime - 2, prime);
+            for (int i = 0; i < n; i++) {
+                a[i] = a[i] * nInverse % prime;
+            }
+        }
+    }
+
+    static long modPow(long base, long exponent, long modulus) {
+        long result = 1;
+        base %= modulus;
+        while (exponent > 0) {
+            if ((exponent & 1) == 1) {
+                result = result * base % modulus;
+            }
+            base = base * base % modulus;
+            exponent >>= 1;
+        }
+        return result;
+    }
+}
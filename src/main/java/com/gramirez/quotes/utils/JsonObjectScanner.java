@@ -0,0 +1,189 @@
+package com.gramirez.quotes.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a stream of JSON records (an array of objects, or objects separated by
+ * whitespace/newlines) into the raw UTF-8 bytes of each top-level object without
+ * decoding them, so parsing can happen on other threads.
+ *
+ * <p>A scanner created with {@code lineDelimited} treats NDJSON input strictly:
+ * an object must end on the line it starts on, so a broken line surfaces as a
+ * {@link MalformedObjectException} and {@link #skipLine()} resumes at the next
+ * one. Input that opens with {@code [} is still read as a JSON array.
+ *
+ * <p>Objects larger than {@code maxObjectSize} bytes are treated as malformed,
+ * so one oversized or unterminated object cannot grow the buffer without bound.
+ */
+public class JsonObjectScanner {
+
+    public static final int DEFAULT_MAX_OBJECT_SIZE = 16 << 20;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final InputStream inputStream;
+    private final int maxObjectSize;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPosition;
+    private int bufferLength;
+
+    private byte[] objectBuffer = new byte[1024];
+    private int objectLength;
+
+    private long position;
+    private long objectStart = -1;
+
+    private boolean lineDelimited;
+    private boolean started;
+
+    public JsonObjectScanner(InputStream inputStream) {
+        this(inputStream, 0);
+    }
+
+    public JsonObjectScanner(InputStream inputStream, long startOffset) {
+        this(inputStream, startOffset, false);
+    }
+
+    public JsonObjectScanner(InputStream inputStream, long startOffset, boolean lineDelimited) {
+        this(inputStream, startOffset, lineDelimited, DEFAULT_MAX_OBJECT_SIZE);
+    }
+
+    public JsonObjectScanner(InputStream inputStream, long startOffset, boolean lineDelimited, int maxObjectSize) {
+        this.inputStream = inputStream;
+        this.maxObjectSize = maxObjectSize;
+        this.position = startOffset;
+        this.lineDelimited = lineDelimited;
+    }
+
+    /**
+     * Returns the bytes of the next object, or {@code null} at the end of the input.
+     */
+    public byte[] nextObject() throws IOException {
+        int b;
+        while ((b = read()) != -1 && b != '{') {
+            if (!isSeparator(b)) {
+                throw new MalformedObjectException("Unexpected character '" + (char) b + "' at offset " + (position - 1));
+            }
+            if (b == '[' && !started) {
+                // A JSON array may spread its objects over several lines
+                lineDelimited = false;
+            }
+        }
+        if (b == -1) {
+            return null;
+        }
+        started = true;
+
+        objectStart = position - 1;
+        objectLength = 0;
+        append(b);
+
+        int depth = 1;
+        boolean inString = false;
+        boolean escaped = false;
+
+        while (depth > 0) {
+            b = read();
+            if (b == -1) {
+                throw new EOFException("Unterminated JSON object starting at offset " + objectStart);
+            }
+            if (b == '\n' && lineDelimited) {
+                // Leave the newline for skipLine() so the next line is not swallowed
+                bufferPosition--;
+                position--;
+                throw new MalformedObjectException("Unterminated JSON object starting at offset " + objectStart);
+            }
+            append(b);
+
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (b == '\\') {
+                    escaped = true;
+                } else if (b == '"') {
+                    inString = false;
+                }
+            } else if (b == '"') {
+                inString = true;
+            } else if (b == '{') {
+                depth++;
+            } else if (b == '}') {
+                depth--;
+            }
+        }
+
+        return Arrays.copyOf(objectBuffer, objectLength);
+    }
+
+    /**
+     * Discards input up to and including the next newline, after a
+     * {@link MalformedObjectException} on line-delimited input.
+     */
+    public void skipLine() throws IOException {
+        int b;
+        while ((b = read()) != -1 && b != '\n') {
+            // discard
+        }
+    }
+
+    public boolean isLineDelimited() {
+        return lineDelimited;
+    }
+
+    /**
+     * Absolute offset of the first byte not yet consumed.
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Absolute offset of the opening brace of the last object returned.
+     */
+    public long objectStart() {
+        return objectStart;
+    }
+
+    private static boolean isSeparator(int b) {
+        return b == '[' || b == ']' || b == ',' || b == ' ' || b == '\n' || b == '\r' || b == '\t'
+                // UTF-8 byte order mark
+                || b == 0xEF || b == 0xBB || b == 0xBF;
+    }
+
+    private int read() throws IOException {
+        if (bufferPosition == bufferLength) {
+            bufferLength = inputStream.read(buffer, 0, BUFFER_SIZE);
+            bufferPosition = 0;
+            if (bufferLength <= 0) {
+                bufferLength = 0;
+                return -1;
+            }
+        }
+        position++;
+        return buffer[bufferPosition++] & 0xFF;
+    }
+
+    /**
+     * The input is readable but not well-formed JSON at this point.
+     */
+    public static class MalformedObjectException extends IOException {
+        public MalformedObjectException(String message) {
+            super(message);
+        }
+    }
+
+    // The byte that overflows is consumed, so on line-delimited input skipLine() drops the rest of the line
+    private void append(int b) throws MalformedObjectException {
+        if (objectLength == maxObjectSize) {
+            throw new MalformedObjectException("JSON object starting at offset " + objectStart
+                    + " is larger than " + maxObjectSize + " bytes");
+        }
+        if (objectLength == objectBuffer.length) {
+            objectBuffer = Arrays.copyOf(objectBuffer, (int) Math.min(objectBuffer.length * 2L, maxObjectSize));
+        }
+        objectBuffer[objectLength++] = (byte) b;
+    }
+}
@@ -0,0 +1,138 @@
+package com.gramirez.quotes.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits a JSON quote dump into byte ranges that each start on a top-level
+ * object, so the ranges can be read independently.
+ *
+ * <p>A boundary is a {@code '{'} preceded by a comma (or, for NDJSON, the end
+ * of the previous object) and followed by a quoted field name. Inside a JSON
+ * string that byte sequence can only appear just before the closing quote, so
+ * every candidate is confirmed by parsing the object that starts there.
+ */
+public final class JsonRecordBoundaries {
+
+    private static final int SEARCH_WINDOW = 1 << 16;
+    private static final int WINDOW_OVERLAP = 256;
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private JsonRecordBoundaries() {
+    }
+
+    /**
+     * Returns {@code n + 1} ascending offsets where range {@code i} is
+     * {@code [offsets[i], offsets[i + 1])}. Fewer ranges are returned when the
+     * file has fewer records than requested partitions.
+     */
+    public static long[] split(Path file, int partitions) throws IOException {
+        long size = Files.size(file);
+        List<Long> offsets = new ArrayList<>();
+        offsets.add(0L);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 1; i < partitions; i++) {
+                long previous = offsets.get(offsets.size() - 1);
+                long target = Math.max(size * i / partitions, previous + 1);
+                long boundary = nextObjectStart(channel, target, size);
+                if (boundary >= size) {
+                    break;
+                }
+                offsets.add(boundary);
+            }
+        }
+
+        offsets.add(size);
+        return offsets.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    static long nextObjectStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(SEARCH_WINDOW);
+        long windowStart = Math.max(0, from - WINDOW_OVERLAP);
+
+        while (windowStart < size) {
+            window.clear();
+            int length = readFully(channel, window, windowStart);
+            byte[] bytes = window.array();
+
+            for (int i = 0; i < length; i++) {
+                long candidate = windowStart + i;
+                if (bytes[i] == '{' && candidate >= from
+                        && precededBySeparator(bytes, i) && followedByFieldName(bytes, i, length)
+                        && startsRecord(channel, candidate, size)) {
+                    return candidate;
+                }
+            }
+
+            if (windowStart + length >= size) {
+                break;
+            }
+            windowStart += Math.max(1, length - WINDOW_OVERLAP);
+        }
+
+        return size;
+    }
+
+    private static boolean precededBySeparator(byte[] bytes, int index) {
+        for (int i = index - 1; i >= 0 && index - i <= WINDOW_OVERLAP; i--) {
+            byte b = bytes[i];
+            if (b == ',' || b == '}') {
+                return true;
+            }
+            if (!isWhitespace(b)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean followedByFieldName(byte[] bytes, int index, int length) {
+        for (int i = index + 1; i < length && i - index <= WINDOW_OVERLAP; i++) {
+            byte b = bytes[i];
+            if (b == '"') {
+                return true;
+            }
+            if (!isWhitespace(b)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean startsRecord(FileChannel channel, long offset, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(MAX_RECORD_BYTES, size - offset));
+        int length = readFully(channel, buffer, offset);
+
+        try {
+            byte[] object = new JsonObjectScanner(new ByteArrayInputStream(buffer.array(), 0, length)).nextObject();
+            QuoteRecord quote = QuoteJsonStreamReader.parseObject(object);
+            return quote.getAuthor() != null || quote.getText() != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        int total = 0;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position + total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+}
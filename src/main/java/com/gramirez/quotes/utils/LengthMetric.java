@@ -0,0 +1,109 @@
+package com.gramirez.quotes.utils;
+
+import java.util.Locale;
+
+/**
+ * Ways of measuring a quote's length. Each one has a stored generated column
+ * on quotes and its own rows in quote_length_stats (see migration V10), and
+ * {@link #measure(String)} computes the same value in Java for the in-memory
+ * histograms.
+ */
+public enum LengthMetric {
+
+    /** Unicode code points, like PostgreSQL's {@code char_length(text)}. */
+    CHARACTERS("characters", "text_length"),
+
+    /** Runs of characters between separators (space, \t, \n, \r, \f, U+000B), like the text_words column. */
+    WORDS("words", "text_words"),
+
+    /** Size of the text encoded as UTF-8, like {@code octet_length(text)}. */
+    UTF8_BYTES("utf8_bytes", "text_bytes");
+
+    private final String key;
+    private final String column;
+
+    LengthMetric(String key, String column) {
+        this.key = key;
+        this.column = column;
+    }
+
+    /**
+     * Value stored in quote_length_stats.metric and accepted as a request parameter.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Column of quotes holding this length.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Returns -1 for null text.
+     */
+    public int measure(String text) {
+        if (text == null) {
+            return -1;
+        }
+        return switch (this) {
+            case CHARACTERS -> text.codePointCount(0, text.length());
+            case WORDS -> countWords(text);
+            case UTF8_BYTES -> countUtf8Bytes(text);
+        };
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code value} is not a metric key or name
+     */
+    public static LengthMetric fromParameter(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (LengthMetric metric : values()) {
+            if (metric.key.equals(normalized) || metric.name().toLowerCase(Locale.ROOT).equals(normalized)) {
+                return metric;
+            }
+        }
+        throw new IllegalArgumentException("Unknown length metric: " + value);
+    }
+
+    private static int countWords(String text) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            boolean separator = isWordSeparator(codePoint);
+            if (!separator && !inWord) {
+                words++;
+            }
+            inWord = !separator;
+            i += Character.charCount(codePoint);
+        }
+        return words;
+    }
+
+    // Must match the '[ \t\n\r\f\v]+' split in the text_words column and content_hash
+    static boolean isWordSeparator(int codePoint) {
+        return codePoint == ' ' || codePoint == '\t' || codePoint == '\n' || codePoint == '\r'
+                || codePoint == '\f' || codePoint == '\u000B';
+    }
+
+    private static int countUtf8Bytes(String text) {
+        int bytes = 0;
+        for (int i = 0; i < text.length(); ) {
+            int codePoint = text.codePointAt(i);
+            if (codePoint < 0x80) {
+                bytes += 1;
+            } else if (codePoint < 0x800) {
+                bytes += 2;
+            } else if (codePoint < 0x10000) {
+                bytes += 3;
+            } else {
+                bytes += 4;
+            }
+            i += Character.charCount(codePoint);
+        }
+        return bytes;
+    }
+}
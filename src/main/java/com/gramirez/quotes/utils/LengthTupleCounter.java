@@ -0,0 +1,113 @@
+package com.gramirez.quotes.utils;
+
+import java.math.BigInteger;
+
+/**
+ * Counts sets of k distinct quotes (k up to {@link #MAX_TUPLE_SIZE}) by their
+ * combined text length, from a count-per-length histogram.
+ * <p>
+ * With {@code p_i(x) = sum of counts[len] * x^(i * len)}, the number of k-sets
+ * with combined length s is the coefficient of x^s in the elementary symmetric
+ * polynomial e_k, which Newton's identities give from the p_i:
+ * {@code k * e_k = sum over i = 1..k of (-1)^(i-1) * e_(k-i) * p_i}. The
+ * products are NTT convolutions modulo each of {@link Convolution#PRIMES}; the
+ * counts outgrow a long (C(n, 4) does for a few million quotes), so answers are
+ * rebuilt from their residues as a {@link BigInteger}. The primes multiply to
+ * about 2^147, enough for any realistic number of quotes.
+ * <p>
+ * Instances are immutable: build one per histogram snapshot and reuse it.
+ */
+public final class LengthTupleCounter {
+
+    public static final int MAX_TUPLE_SIZE = 4;
+
+    private static final BigInteger MODULUS;
+    private static final BigInteger[] CRT_BASIS;
+
+    static {
+        long[] primes = Convolution.PRIMES;
+        BigInteger modulus = BigInteger.ONE;
+        for (long prime : primes) {
+            modulus = modulus.multiply(BigInteger.valueOf(prime));
+        }
+        MODULUS = modulus;
+
+        CRT_BASIS = new BigInteger[primes.length];
+        for (int i = 0; i < primes.length; i++) {
+            BigInteger prime = BigInteger.valueOf(primes[i]);
+            BigInteger others = modulus.divide(prime);
+            CRT_BASIS[i] = others.multiply(others.modInverse(prime)).mod(modulus);
+        }
+    }
+
+    /**
+     * {@code prefix[k][p][s]} is the number of k-sets with combined length at
+     * most s, modulo the p-th prime.
+     */
+    private final long[][][] prefix;
+
+    public LengthTupleCounter(long[] counts) {
+        long[] primes = Convolution.PRIMES;
+        prefix = new long[MAX_TUPLE_SIZE + 1][primes.length][];
+        int maxLength = Math.max(0, counts.length - 1);
+
+        for (int p = 0; p < primes.length; p++) {
+            long prime = primes[p];
+
+            long[][] powerSums = new long[MAX_TUPLE_SIZE + 1][];
+            for (int i = 1; i <= MAX_TUPLE_SIZE; i++) {
+                powerSums[i] = new long[maxLength * i + 1];
+                for (int length = 0; length < counts.length; length++) {
+                    powerSums[i][length * i] = counts[length] % prime;
+                }
+            }
+
+            long[][] elementary = new long[MAX_TUPLE_SIZE + 1][];
+            elementary[0] = new long[]{1};
+            for (int k = 1; k <= MAX_TUPLE_SIZE; k++) {
+                long[] sum = new long[maxLength * k + 1];
+                for (int i = 1; i <= k; i++) {
+                    long[] term = i == k ? powerSums[i] : Convolution.convolve(elementary[k - i], powerSums[i], prime);
+                    boolean add = i % 2 == 1;
+                    for (int s = 0; s < term.length; s++) {
+                        sum[s] = add ? (sum[s] + term[s]) % prime : Math.floorMod(sum[s] - term[s], prime);
+                    }
+                }
+                long kInverse = Convolution.modPow(k, prime - 2, prime);
+                long running = 0;
+                long[] cumulative = new long[sum.length];
+                for (int s = 0; s < sum.length; s++) {
+                    sum[s] = sum[s] * kInverse % prime;
+                    running = (running + sum[s]) % prime;
+                    cumulative[s] = running;
+                }
+                elementary[k] = sum;
+                prefix[k][p] = cumulative;
+            }
+        }
+    }
+
+    /**
+     * Number of sets of {@code k} distinct quotes whose combined length is
+     * between {@code minLength} and {@code maxLength}, inclusive.
+     */
+    public BigInteger count(int k, int minLength, int maxLength) {
+        if (k < 1 || k > MAX_TUPLE_SIZE) {
+            throw new IllegalArgumentException("Tuple size must be between 1 and " + MAX_TUPLE_SIZE + ": " + k);
+        }
+        if (maxLength < 0 || maxLength < minLength) {
+            return BigInteger.ZERO;
+        }
+
+        long[] primes = Convolution.PRIMES;
+        BigInteger total = BigInteger.ZERO;
+        for (int p = 0; p < primes.length; p++) {
+            long[] cumulative = prefix[k][p];
+            long upper = cumulative[Math.min(maxLength, cumulative.length - 1)];
+            long lower = minLength <= 0 ? 0 : cumulative[Math.min(minLength - 1, cumulative.length - 1)];
+            long residue = Math.floorMod(upper - lower, primes[p]);
+            total = total.add(CRT_BASIS[p].multiply(BigInteger.valueOf(residue)));
+        }
+        return total.mod(MODULUS);
+    }
+}
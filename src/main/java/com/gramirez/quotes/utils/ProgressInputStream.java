@@ -0,0 +1,43 @@
+package com.gramirez.quotes.utils;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reports the number of bytes read from the wrapped stream to the import metrics.
+ */
+public class ProgressInputStream extends FilterInputStream {
+
+    private final QuoteImportMetrics metrics;
+
+    public ProgressInputStream(InputStream in, QuoteImportMetrics metrics) {
+        super(in);
+        this.metrics = metrics;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            metrics.recordBytes(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int count = super.read(buffer, offset, length);
+        if (count > 0) {
+            metrics.recordBytes(count);
+        }
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        metrics.recordBytes(skipped);
+        return skipped;
+    }
+}
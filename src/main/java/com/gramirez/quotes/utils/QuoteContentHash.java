@@ -0,0 +1,54 @@
+package com.gramirez.quotes.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 of a quote's normalized text: runs of separators (space, \t, \n, \r,
+ * \f, U+000B) collapsed to one space, leading/trailing spaces removed, ASCII
+ * letters lower-cased. Both rules are explicit so that migrations V7 and V14,
+ * which compute the same value in SQL, don't depend on the database locale.
+ */
+public final class QuoteContentHash {
+
+    private QuoteContentHash() {
+    }
+
+    public static String normalize(String text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (LengthMetric.isWordSeparator(c)) {
+                pendingSpace = !normalized.isEmpty();
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                // Like translate(..., 'A..Z', 'a..z') in SQL; lower() would depend on the collation
+                normalized.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+            }
+        }
+        return normalized.toString();
+    }
+
+    public static byte[] of(String text) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(normalize(text).getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Folds an author id and content hash into 64 bits for in-memory duplicate
+     * checks during bulk loads.
+     */
+    public static long fingerprint(Long authorId, byte[] hash) {
+        long author = authorId == null ? 0 : authorId;
+        return ByteBuffer.wrap(hash).getLong() ^ (author * 0x9E3779B97F4A7C15L);
+    }
+}
@@ -0,0 +1,309 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.config.QuoteCacheConfig;
+import com.gramirez.quotes.repository.QuoteLengthGroupRepository.LengthGroup;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Bulk loads quotes by streaming them through PostgreSQL's COPY protocol into a
+ * temporary staging table, then resolving authors and inserting quotes with
+ * set-based SQL in the same transaction. In incremental mode quotes that carry
+ * a source id are upserted, so only new or changed quotes are written. The
+ * rows written are grouped like {@link QuoteLengthBuckets} groups the table, so
+ * the buckets are updated in place instead of being reloaded.
+ */
+@Component
+public class QuoteCopyLoader {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteCopyLoader.class);
+    private static final int COPY_BUFFER_CHARS = 1 << 20;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private static final String CREATE_STAGING_SQL = """
+            CREATE TEMP TABLE quotes_staging (
+                ordinal      bigint GENERATED ALWAYS AS IDENTITY,
+                source_id    bigint,
+                author       text NOT NULL,
+                text         text NOT NULL,
+                author_id    bigint,
+                content_hash bytea
+            ) ON COMMIT DROP
+            """;
+
+    private static final String COPY_SQL =
+            "COPY quotes_staging (source_id, author, text, content_hash) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String INSERT_AUTHORS_SQL = """
+            INSERT INTO authors (name)
+            SELECT DISTINCT ON (upper(s.author)) s.author
+            FROM quotes_staging s
+            WHERE NOT EXISTS (SELECT 1 FROM authors a WHERE upper(a.name) = upper(s.author))
+            ORDER BY upper(s.author), s.author
+            """;
+
+    // content_hash is staged from QuoteContentHash, so every write path hashes the same way
+    private static final String RESOLVE_STAGING_SQL = """
+            UPDATE quotes_staging s
+            SET author_id = a.id
+            FROM (SELECT DISTINCT ON (upper(name)) id, upper(name) AS author_key
+                  FROM authors
+                  ORDER BY upper(name), id) a
+            WHERE a.author_key = upper(s.author)
+            """;
+
+    // Duplicates within the file: the last occurrence wins
+    private static final String DEDUPE_STAGING_SQL = """
+            DELETE FROM quotes_staging s
+            USING quotes_staging later
+            WHERE later.author_id = s.author_id
+              AND later.content_hash = s.content_hash
+              AND later.ordinal > s.ordinal
+            """;
+
+    private static final String INSERT_QUOTES_SQL = """
+            INSERT INTO quotes (id, text, author_id, created_at, updated_ad, source_id, content_hash)
+            SELECT nextval('quote_seq'), s.text, s.author_id, now(), now(), s.source_id, s.content_hash
+            FROM quotes_staging s
+            WHERE s.author_id IS NOT NULL %s
+            ON CONFLICT (author_id, content_hash) DO NOTHING
+            """;
+
+    // The last occurrence of a source id in the file wins; quotes whose content is
+    // already stored under another source id are skipped
+    private static final String UPSERT_KEYED_QUOTES_SQL = """
+            INSERT INTO quotes (id, text, author_id, created_at, updated_ad, source_id, content_hash)
+            SELECT nextval('quote_seq'), s.text, s.author_id, now(), now(), s.source_id, s.content_hash
+            FROM (SELECT DISTINCT ON (source_id) source_id, author_id, text, content_hash
+                  FROM quotes_staging
+                  WHERE source_id IS NOT NULL AND author_id IS NOT NULL
+                  ORDER BY source_id, ordinal DESC) s
+            WHERE NOT EXISTS (SELECT 1 FROM quotes q
+                              WHERE q.author_id = s.author_id
+                                AND q.content_hash = s.content_hash
+                                AND q.source_id IS DISTINCT FROM s.source_id)
+            ON CONFLICT (source_id) DO UPDATE
+            SET text = excluded.text, author_id = excluded.author_id, updated_ad = excluded.updated_ad,
+                content_hash = excluded.content_hash
+            WHERE quotes.text IS DISTINCT FROM excluded.text
+               OR quotes.author_id IS DISTINCT FROM excluded.author_id
+            """;
+
+    // Locks the stored quotes an incremental load may update, so what they held
+    // before can be read without a concurrent write changing it in between
+    private static final String LOCK_KEYED_QUOTES_SQL = """
+            SELECT 1 FROM quotes
+            WHERE source_id IN (SELECT source_id FROM quotes_staging)
+            FOR UPDATE
+            """;
+
+    // Runs an insert or upsert and groups what it changed by author, creation day and
+    // lengths: +1 for each row written, -1 for what each updated row held before. The
+    // last column counts the rows written. xmax is 0 only in rows the statement inserted;
+    // an updated row with no previous version (inserted by a concurrent load) has null lengths.
+    private static final String GROUP_CHANGES_SQL = """
+            WITH previous AS (
+                SELECT q.source_id, q.author_id, q.created_at, q.text_length, q.text_words, q.text_bytes
+                FROM quotes q
+                WHERE q.source_id IN (SELECT source_id FROM quotes_staging)
+            ), written AS (
+                %s
+                RETURNING source_id, author_id, created_at, text_length, text_words, text_bytes,
+                          xmax = 0 AS inserted
+            )
+            SELECT author_id, CAST(created_at AS date), text_length, text_words, text_bytes,
+                   sum(delta), sum(rows_written)
+            FROM (SELECT author_id, created_at, text_length, text_words, text_bytes, 1 AS delta, 1 AS rows_written
+                  FROM written
+                  UNION ALL
+                  SELECT p.author_id, p.created_at, p.text_length, p.text_words, p.text_bytes, -1, 0
+                  FROM written w
+                  LEFT JOIN previous p ON p.source_id = w.source_id
+                  WHERE NOT w.inserted) changes
+            GROUP BY 1, 2, 3, 4, 5
+            """;
+
+    private final DataSource dataSource;
+    private final QuoteLengthHistogram quoteLengthHistogram;
+    private final QuoteLengthBuckets quoteLengthBuckets;
+
+    @Value("${quotes.import.incremental:false}")
+    private boolean incremental = false;
+
+    @Autowired
+    public QuoteCopyLoader(DataSource dataSource, QuoteLengthHistogram quoteLengthHistogram,
+                           QuoteLengthBuckets quoteLengthBuckets) {
+        this.dataSource = dataSource;
+        this.quoteLengthHistogram = quoteLengthHistogram;
+        this.quoteLengthBuckets = quoteLengthBuckets;
+    }
+
+    // Incremental loads may rewrite quotes that are cached
+    @CacheEvict(cacheNames = QuoteCacheConfig.QUOTES_CACHE, allEntries = true)
+    public int load(QuoteJsonStreamReader reader) throws IOException, SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            try {
+                execute(connection, CREATE_STAGING_SQL);
+                long staged = copyIntoStaging(connection, reader);
+                logger.info("Copied {} quotes into staging table", staged);
+
+                execute(connection, "ANALYZE quotes_staging");
+                int authors = execute(connection, INSERT_AUTHORS_SQL);
+                execute(connection, RESOLVE_STAGING_SQL);
+                int duplicates = execute(connection, DEDUPE_STAGING_SQL);
+                if (duplicates > 0) {
+                    logger.info("Dropped {} quotes duplicated within the file", duplicates);
+                }
+
+                Changes changes = new Changes();
+                if (incremental) {
+                    lock(connection, LOCK_KEYED_QUOTES_SQL);
+                    changes.write(connection, UPSERT_KEYED_QUOTES_SQL);
+                    changes.write(connection, INSERT_QUOTES_SQL.formatted("AND s.source_id IS NULL"));
+                } else {
+                    changes.write(connection, INSERT_QUOTES_SQL.formatted(""));
+                }
+                int quotes = changes.written;
+
+                connection.commit();
+                quoteLengthHistogram.invalidate();
+                if (changes.complete) {
+                    quoteLengthBuckets.recordChanges(changes.groups);
+                } else {
+                    quoteLengthBuckets.invalidate();
+                }
+                logger.info("Bulk load committed: {} new authors, {} quotes", authors, quotes);
+                return quotes;
+            } catch (IOException | SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        }
+    }
+
+    private long copyIntoStaging(Connection connection, QuoteJsonStreamReader reader) throws IOException, SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+        StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 2048);
+        int skipped = 0;
+
+        try {
+            QuoteRecord quote;
+            while ((quote = reader.next()) != null) {
+                if (!quote.isValid() || quote.getAuthor().isBlank()) {
+                    skipped++;
+                    continue;
+                }
+
+                if (quote.getSourceId() != null) {
+                    buffer.append(quote.getSourceId().longValue());
+                }
+                // Hash the text as it will be stored
+                String text = quote.getText().indexOf('\0') < 0 ? quote.getText() : quote.getText().replace("\0", "");
+                buffer.append(',');
+                appendCsvField(buffer, quote.getAuthor().trim()).append(',');
+                appendCsvField(buffer, text).append(',');
+                // bytea hex input; backslashes are not special in CSV
+                buffer.append("\\x").append(HEX.formatHex(QuoteContentHash.of(text))).append('\n');
+
+                if (buffer.length() >= COPY_BUFFER_CHARS) {
+                    flush(copyIn, buffer);
+                }
+            }
+
+            flush(copyIn, buffer);
+            if (skipped > 0) {
+                logger.warn("Skipped {} quotes with empty text or author", skipped);
+            }
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private static void flush(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    static StringBuilder appendCsvField(StringBuilder buffer, String value) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                buffer.append("\"\"");
+            } else if (c != '\0') {
+                buffer.append(c);
+            }
+        }
+        return buffer.append('"');
+    }
+
+    private static int execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            return statement.executeUpdate(sql);
+        }
+    }
+
+    private static void lock(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * The length groups changed by a load's writes, and how many rows they wrote.
+     */
+    private static final class Changes {
+
+        private final List<LengthGroup> groups = new ArrayList<>();
+        private boolean complete = true;
+        private int written;
+
+        void write(Connection connection, String sql) throws SQLException {
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(GROUP_CHANGES_SQL.formatted(sql.strip()))) {
+                while (resultSet.next()) {
+                    written += resultSet.getInt(7);
+                    long count = resultSet.getLong(6);
+                    int characters = resultSet.getInt(3);
+                    if (resultSet.wasNull()) {
+                        complete = false;
+                    } else if (count != 0) {
+                        Long authorId = resultSet.getObject(1, Long.class);
+                        groups.add(new LengthGroup(authorId, resultSet.getObject(2, LocalDate.class), characters,
+                                resultSet.getInt(4), resultSet.getInt(5), count));
+                    }
+                }
+            }
+        }
+    }
+}
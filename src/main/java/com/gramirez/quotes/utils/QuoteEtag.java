@@ -0,0 +1,62 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.dto.QuoteDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Weak entity tags for quotes and pages of quotes, derived from each quote's id
+ * and updatedAt instead of the serialized body, so a conditional GET is answered
+ * without serializing anything. The author's id and name are included because
+ * renaming an author changes the quotes' body but not their updatedAt. Tags built
+ * from {@link QuoteVersion}s equal the tags of the same quotes' DTOs.
+ */
+public final class QuoteEtag {
+
+    private QuoteEtag() {
+    }
+
+    public static String of(QuoteDTO quote) {
+        return of(List.of(quote), null);
+    }
+
+    public static String of(QuoteVersion version) {
+        return ofVersions(List.of(version), null);
+    }
+
+    /**
+     * Tag for a page of quotes, in order; {@code extra} (the next page's cursor, say)
+     * is part of it when not null.
+     */
+    public static String of(List<QuoteDTO> quotes, String extra) {
+        return ofVersions(quotes.stream().map(QuoteVersion::of).toList(), extra);
+    }
+
+    public static String ofVersions(List<QuoteVersion> quotes, String extra) {
+        MessageDigest digest = sha256();
+        StringBuilder versions = new StringBuilder();
+        for (QuoteVersion quote : quotes) {
+            versions.append(quote.id()).append('|')
+                    .append(quote.updatedAt()).append('|')
+                    .append(quote.authorId()).append('|')
+                    .append(quote.authorName()).append('\n');
+        }
+        if (extra != null) {
+            versions.append(extra);
+        }
+        byte[] hash = digest.digest(versions.toString().getBytes(StandardCharsets.UTF_8));
+        return "W/\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.gramirez.quotes.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.gramirez.quotes.dto.AuthorDTO;
+import com.gramirez.quotes.dto.QuoteDTO;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * Formats of GET /api/quotes/export. Quotes are written one at a time as they
+ * are read, so an export never holds more than the row being written.
+ */
+public enum QuoteExportFormat {
+
+    /** One JSON object per line, shaped like {@link QuoteDTO}. */
+    NDJSON("ndjson", "application/x-ndjson"),
+
+    /** A header row, then id, author_id, author and text, with text fields always quoted. */
+    CSV("csv", "text/csv");
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String key;
+    private final String mediaType;
+
+    QuoteExportFormat(String key, String mediaType) {
+        this.key = key;
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Value accepted as the format request parameter, and the export file's extension.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code value} is not a format key or name
+     */
+    public static QuoteExportFormat fromParameter(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        for (QuoteExportFormat format : values()) {
+            if (format.key.equals(normalized) || format.name().toLowerCase(Locale.ROOT).equals(normalized)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + value);
+    }
+
+    public RowWriter open(OutputStream outputStream) throws IOException {
+        return switch (this) {
+            case NDJSON -> new NdjsonWriter(outputStream);
+            case CSV -> new CsvWriter(outputStream);
+        };
+    }
+
+    public interface RowWriter extends Closeable {
+
+        void write(QuoteDTO quote) throws IOException;
+    }
+
+    private static final class NdjsonWriter implements RowWriter {
+
+        private final JsonGenerator json;
+
+        NdjsonWriter(OutputStream outputStream) throws IOException {
+            json = JSON_FACTORY.createGenerator(outputStream);
+            // Lines are ended explicitly, instead of separating root values with a space
+            json.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void write(QuoteDTO quote) throws IOException {
+            json.writeStartObject();
+            json.writeObjectField("id", quote.getId());
+            json.writeStringField("text", quote.getText());
+            AuthorDTO author = quote.getAuthor();
+            if (author == null) {
+                json.writeNullField("author");
+            } else {
+                json.writeObjectFieldStart("author");
+                json.writeObjectField("id", author.getId());
+                json.writeStringField("name", author.getName());
+                json.writeEndObject();
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            json.close();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+
+        private final Writer writer;
+        private final StringBuilder row = new StringBuilder();
+
+        CsvWriter(OutputStream outputStream) throws IOException {
+            writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write("id,author_id,author,text\n");
+        }
+
+        @Override
+        public void write(QuoteDTO quote) throws IOException {
+            AuthorDTO author = quote.getAuthor();
+            row.setLength(0);
+            row.append(quote.getId()).append(',');
+            if (author != null) {
+                row.append(author.getId()).append(',');
+                QuoteCopyLoader.appendCsvField(row, author.getName());
+            } else {
+                row.append(',');
+            }
+            row.append(',');
+            if (quote.getText() != null) {
+                QuoteCopyLoader.appendCsvField(row, quote.getText());
+            }
+            writer.append(row).append('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+}
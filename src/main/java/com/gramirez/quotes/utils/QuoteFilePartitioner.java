@@ -0,0 +1,44 @@
+package com.gramirez.quotes.utils;
+
+import org.springframework.batch.core.partition.support.Partitioner;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Partitions a quote dump into byte ranges aligned on record boundaries.
+ */
+public class QuoteFilePartitioner implements Partitioner {
+
+    static final String START_OFFSET_KEY = "startOffset";
+    static final String END_OFFSET_KEY = "endOffset";
+
+    private final Path file;
+
+    public QuoteFilePartitioner(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public Map<String, ExecutionContext> partition(int gridSize) {
+        long[] offsets;
+        try {
+            offsets = JsonRecordBoundaries.split(file, Math.max(1, gridSize));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to partition " + file, e);
+        }
+
+        Map<String, ExecutionContext> partitions = new HashMap<>();
+        for (int i = 0; i < offsets.length - 1; i++) {
+            ExecutionContext context = new ExecutionContext();
+            context.putLong(START_OFFSET_KEY, offsets[i]);
+            context.putLong(END_OFFSET_KEY, offsets[i + 1]);
+            partitions.put("partition" + i, context);
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,103 @@
+package com.gramirez.quotes.utils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamReader;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the quotes whose objects start inside {@code [startOffset, endOffset)}.
+ * The byte offset after the last record read is saved at every chunk commit,
+ * so a restarted step resumes from there instead of from the range start.
+ */
+public class QuoteFileRangeItemReader implements ItemStreamReader<QuoteRecord> {
+
+    static final String OFFSET_KEY = "quoteFileRange.offset";
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteFileRangeItemReader.class);
+
+    private final Path file;
+    private final long startOffset;
+    private final long endOffset;
+    private final QuoteImportMetrics metrics;
+
+    private FileChannel channel;
+    private JsonObjectScanner scanner;
+    private long offset;
+
+    public QuoteFileRangeItemReader(Path file, long startOffset, long endOffset, QuoteImportMetrics metrics) {
+        this.file = file;
+        this.startOffset = startOffset;
+        this.endOffset = endOffset;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void open(ExecutionContext executionContext) {
+        offset = executionContext.containsKey(OFFSET_KEY) ? executionContext.getLong(OFFSET_KEY) : startOffset;
+
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            channel.position(offset);
+            scanner = new JsonObjectScanner(Channels.newInputStream(channel), offset);
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to open " + file + " at offset " + offset, e);
+        }
+
+        // Bytes committed by an earlier execution count as already read
+        metrics.recordBytes(offset - startOffset);
+        if (offset != startOffset) {
+            logger.info("Resuming {} at offset {} (range {}-{})", file, offset, startOffset, endOffset);
+        }
+    }
+
+    @Override
+    public QuoteRecord read() throws IOException {
+        if (offset >= endOffset) {
+            return null;
+        }
+
+        byte[] object = scanner.nextObject();
+        if (object == null || scanner.objectStart() >= endOffset) {
+            metrics.recordBytes(endOffset - offset);
+            offset = endOffset;
+            return null;
+        }
+        metrics.recordBytes(scanner.position() - offset);
+        offset = scanner.position();
+
+        try {
+            return QuoteJsonStreamReader.parseObject(object);
+        } catch (JsonProcessingException e) {
+            logger.warn("Malformed quote at offset {}", scanner.objectStart(), e);
+            return new QuoteRecord(null, null, null);
+        }
+    }
+
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(OFFSET_KEY, offset);
+    }
+
+    @Override
+    public void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new ItemStreamException("Failed to close " + file, e);
+        } finally {
+            channel = null;
+        }
+    }
+}
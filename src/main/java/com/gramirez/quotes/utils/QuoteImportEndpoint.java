@@ -0,0 +1,28 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.dto.ImportStatusDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint ({@code /actuator/quoteimport}) reporting the progress of
+ * the current or last quote import.
+ */
+@Component
+@Endpoint(id = "quoteimport")
+public class QuoteImportEndpoint {
+
+    private final QuoteImportMetrics metrics;
+
+    @Autowired
+    public QuoteImportEndpoint(QuoteImportMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @ReadOperation
+    public ImportStatusDTO status() {
+        return metrics.snapshot();
+    }
+}
@@ -0,0 +1,105 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.config.QuoteImportJobConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.explore.JobExplorer;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+/**
+ * Launches the partitioned import job. Runs for the same file (path, size and
+ * modification time) share a job instance, so a failed or interrupted run is
+ * restarted from its last committed chunk instead of from the beginning.
+ */
+@Component
+public class QuoteImportJobLauncher {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteImportJobLauncher.class);
+
+    private final JobLauncher jobLauncher;
+    private final Job quoteImportJob;
+    private final JobExplorer jobExplorer;
+    private final JobRepository jobRepository;
+
+    @Autowired
+    public QuoteImportJobLauncher(JobLauncher jobLauncher, Job quoteImportJob,
+                                  JobExplorer jobExplorer, JobRepository jobRepository) {
+        this.jobLauncher = jobLauncher;
+        this.quoteImportJob = quoteImportJob;
+        this.jobExplorer = jobExplorer;
+        this.jobRepository = jobRepository;
+    }
+
+    public int run(String filePath) throws Exception {
+        Path file = Path.of(filePath).toAbsolutePath();
+        JobParameters parameters = parametersFor(file);
+
+        abandonStaleExecutions();
+
+        try {
+            JobExecution execution = jobLauncher.run(quoteImportJob, parameters);
+            int written = execution.getStepExecutions().stream()
+                    .filter(step -> step.getStepName().startsWith(QuoteImportJobConfig.WORKER_STEP_NAME))
+                    .mapToInt(step -> (int) step.getWriteCount())
+                    .sum();
+
+            if (execution.getStatus() != BatchStatus.COMPLETED) {
+                logger.error("Import job for {} ended with status {}; relaunch to resume it", file, execution.getStatus());
+            }
+            return written;
+        } catch (JobInstanceAlreadyCompleteException e) {
+            logger.info("{} has already been imported", file);
+            return 0;
+        }
+    }
+
+    private static JobParameters parametersFor(Path file) throws IOException {
+        return new JobParametersBuilder()
+                .addString("filePath", file.toString())
+                .addLong("fileSize", Files.size(file))
+                .addLong("fileLastModified", Files.getLastModifiedTime(file).toMillis())
+                .toJobParameters();
+    }
+
+    /**
+     * Executions left in STARTED state by a process that died cannot be restarted
+     * as-is. The import only runs from one instance at startup, so any execution
+     * still marked as running belongs to a previous, dead process.
+     */
+    private void abandonStaleExecutions() {
+        for (JobExecution execution : jobExplorer.findRunningJobExecutions(QuoteImportJobConfig.JOB_NAME)) {
+            LocalDateTime now = LocalDateTime.now();
+
+            for (StepExecution step : execution.getStepExecutions()) {
+                if (step.getStatus().isRunning()) {
+                    step.setStatus(BatchStatus.FAILED);
+                    step.setExitStatus(ExitStatus.FAILED);
+                    step.setEndTime(now);
+                    jobRepository.update(step);
+                }
+            }
+
+            execution.setStatus(BatchStatus.FAILED);
+            execution.setExitStatus(ExitStatus.FAILED.addExitDescription("Interrupted before completion"));
+            execution.setEndTime(now);
+            jobRepository.update(execution);
+            logger.warn("Marked interrupted import execution {} as failed so it can be restarted", execution.getId());
+        }
+    }
+}
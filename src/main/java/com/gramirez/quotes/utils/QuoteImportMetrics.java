@@ -0,0 +1,236 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.dto.ImportStageStatusDTO;
+import com.gramirez.quotes.dto.ImportStatusDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of the current (or last) quote import, published as Micrometer
+ * meters under {@code quotes.import.*} and through the {@code quoteimport}
+ * actuator endpoint. Only one file import runs at a time, so a single set of
+ * run counters is kept and reset by {@link #startRun}.
+ */
+@Component
+public class QuoteImportMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter parsedCounter;
+    private final Counter insertedCounter;
+    private final Counter rejectedCounter;
+    private final Counter duplicateCounter;
+    private final Map<String, Stage> stages = new ConcurrentHashMap<>();
+
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong parsed = new AtomicLong();
+    private final AtomicLong inserted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong duplicates = new AtomicLong();
+
+    private volatile String mode;
+    private volatile String file;
+    private volatile long bytesTotal;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    @Autowired
+    public QuoteImportMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.parsedCounter = recordsCounter("parsed");
+        this.insertedCounter = recordsCounter("inserted");
+        this.rejectedCounter = recordsCounter("rejected");
+        this.duplicateCounter = recordsCounter("duplicate");
+
+        Gauge.builder("quotes.import.progress", this, QuoteImportMetrics::progress)
+                .description("Fraction of the input file consumed by the running import")
+                .register(registry);
+        Gauge.builder("quotes.import.eta", this, metrics -> {
+                    Double eta = metrics.etaSeconds();
+                    return eta == null ? Double.NaN : eta;
+                })
+                .description("Estimated seconds until the running import has read its whole input")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    private Counter recordsCounter(String outcome) {
+        return Counter.builder("quotes.import.records")
+                .description("Quote records handled by imports")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    public synchronized void startRun(String mode, String file, long bytesTotal) {
+        this.mode = mode;
+        this.file = file;
+        this.bytesTotal = bytesTotal;
+        bytesRead.set(0);
+        parsed.set(0);
+        inserted.set(0);
+        rejected.set(0);
+        duplicates.set(0);
+        stages.values().forEach(Stage::reset);
+        startedAt = LocalDateTime.now();
+        finishedAt = null;
+        finishNanos = 0;
+        startNanos = System.nanoTime();
+    }
+
+    public synchronized void finishRun() {
+        finishNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+    }
+
+    public void recordBytes(long count) {
+        bytesRead.addAndGet(count);
+    }
+
+    public void recordParsed(long count) {
+        parsed.addAndGet(count);
+        parsedCounter.increment(count);
+    }
+
+    public void recordInserted(long count) {
+        inserted.addAndGet(count);
+        insertedCounter.increment(count);
+    }
+
+    public void recordRejected(long count) {
+        rejected.addAndGet(count);
+        rejectedCounter.increment(count);
+    }
+
+    public void recordDuplicate(long count) {
+        duplicates.addAndGet(count);
+        duplicateCounter.increment(count);
+    }
+
+    /**
+     * Records one batch handled by a pipeline stage (parse, author, write...).
+     */
+    public void recordBatch(String stage, int rows, long nanos) {
+        stages.computeIfAbsent(stage, this::registerStage).record(rows, nanos);
+    }
+
+    public ImportStatusDTO snapshot() {
+        ImportStatusDTO status = new ImportStatusDTO();
+        double elapsed = elapsedSeconds();
+
+        status.setState(startedAt == null ? "IDLE" : finishedAt == null ? "RUNNING" : "FINISHED");
+        status.setMode(mode);
+        status.setFile(file);
+        status.setStartedAt(startedAt);
+        status.setFinishedAt(finishedAt);
+        status.setElapsedSeconds(elapsed);
+        status.setBytesTotal(bytesTotal);
+        status.setBytesRead(bytesRead.get());
+        status.setParsed(parsed.get());
+        status.setInserted(inserted.get());
+        status.setRejected(rejected.get());
+        status.setDuplicates(duplicates.get());
+        status.setEtaSeconds(etaSeconds());
+
+        Map<String, ImportStageStatusDTO> stageStatus = new LinkedHashMap<>();
+        stages.forEach((name, stage) -> {
+            ImportStageStatusDTO dto = new ImportStageStatusDTO();
+            dto.setRows(stage.rows.get());
+            dto.setBatches(stage.batches.get());
+            dto.setRowsPerSecond(stage.rowsPerSecond());
+            dto.setLastBatchMillis(stage.lastBatchNanos / 1_000_000.0);
+            stageStatus.put(name, dto);
+        });
+        status.setStages(stageStatus);
+        return status;
+    }
+
+    private double elapsedSeconds() {
+        if (startedAt == null) {
+            return 0;
+        }
+        long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+        return (end - startNanos) / 1e9;
+    }
+
+    private double progress() {
+        return bytesTotal > 0 ? Math.min(1.0, (double) bytesRead.get() / bytesTotal) : 0;
+    }
+
+    /**
+     * Extrapolates from the bytes read so far; unknown until some input has
+     * been consumed, and zero once the run has finished.
+     */
+    private Double etaSeconds() {
+        if (startedAt == null || bytesTotal <= 0) {
+            return null;
+        }
+        if (finishedAt != null) {
+            return 0.0;
+        }
+        long read = bytesRead.get();
+        if (read == 0) {
+            return null;
+        }
+        return elapsedSeconds() * Math.max(0, bytesTotal - read) / read;
+    }
+
+    private Stage registerStage(String name) {
+        Stage stage = new Stage(Timer.builder("quotes.import.batch")
+                .description("Time spent by an import stage on one batch")
+                .tag("stage", name)
+                .register(registry));
+
+        Gauge.builder("quotes.import.stage.rate", stage, Stage::rowsPerSecond)
+                .description("Rows per second handled by an import stage during the current run")
+                .tag("stage", name)
+                .register(registry);
+        Gauge.builder("quotes.import.stage.batch.latency", stage, s -> s.lastBatchNanos / 1e9)
+                .description("Duration of the most recent batch of an import stage")
+                .tag("stage", name)
+                .baseUnit("seconds")
+                .register(registry);
+        return stage;
+    }
+
+    private final class Stage {
+
+        private final Timer timer;
+        private final AtomicLong rows = new AtomicLong();
+        private final AtomicLong batches = new AtomicLong();
+        private volatile long lastBatchNanos;
+
+        private Stage(Timer timer) {
+            this.timer = timer;
+        }
+
+        private void record(int count, long nanos) {
+            rows.addAndGet(count);
+            batches.incrementAndGet();
+            lastBatchNanos = nanos;
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void reset() {
+            rows.set(0);
+            batches.set(0);
+            lastBatchNanos = 0;
+        }
+
+        private double rowsPerSecond() {
+            double elapsed = elapsedSeconds();
+            return elapsed > 0 ? rows.get() / elapsed : 0;
+        }
+    }
+}
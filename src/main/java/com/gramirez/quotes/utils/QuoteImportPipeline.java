@@ -0,0 +1,397 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.model.Author;
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.service.AuthorService;
+import com.gramirez.quotes.service.QuoteService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Imports quotes through four stages connected by bounded queues:
+ * reader (splits raw JSON objects) -> parser -> author resolution -> writer.
+ * A full queue blocks the stage feeding it, so the import runs as fast as the
+ * slowest stage (normally the database) without buffering the whole file.
+ *
+ * <p>When importing from a file, the reader and parser stages can instead be
+ * replaced by one thread per byte range of the memory-mapped file (see
+ * {@link #run(Path)}).
+ */
+@Component
+public class QuoteImportPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteImportPipeline.class);
+    private static final Pattern QUOTE_PATTERN = Pattern.compile("\\{\"Id\":(\\d+),\"Author\":\"([^\"]*)\",\"Text\":\"([^\"]*)\"\\}");
+    private static final List<Object> END_OF_STREAM = Collections.unmodifiableList(new ArrayList<>());
+    private static final int PROGRESS_LOG_INTERVAL = 10000;
+
+    private final AuthorService authorService;
+    private final QuoteService quoteService;
+    private final QuoteImportMetrics metrics;
+
+    @Value("${quotes.import.parser:streaming}")
+    private String parserType = "streaming";
+
+    @Value("${quotes.import.incremental:false}")
+    private boolean incremental = false;
+
+    @Value("${quotes.import.pipeline.batch-size:1000}")
+    private int batchSize = 1000;
+
+    @Value("${quotes.import.pipeline.queue-capacity:16}")
+    private int queueCapacity = 16;
+
+    @Value("${quotes.import.pipeline.parser-threads:2}")
+    private int parserThreads = 2;
+
+    @Value("${quotes.import.pipeline.range-threads:0}")
+    private int rangeThreads = 0;
+
+    @Value("${quotes.import.pipeline.author-threads:1}")
+    private int authorThreads = 1;
+
+    @Value("${quotes.import.pipeline.writer-threads:4}")
+    private int writerThreads = 4;
+
+    @Autowired
+    public QuoteImportPipeline(AuthorService authorService, QuoteService quoteService, QuoteImportMetrics metrics) {
+        this.authorService = authorService;
+        this.quoteService = quoteService;
+        this.metrics = metrics;
+    }
+
+    public int run(InputStream inputStream) throws IOException {
+        AtomicLong parsed = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong duplicates = new AtomicLong();
+        AtomicLong inserted = new AtomicLong();
+
+        BlockingQueue<List<byte[]>> rawQueue = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<List<QuoteRecord>> recordQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        List<Thread> workers = new ArrayList<>();
+        workers.addAll(startStage("parser", parserThreads, rawQueue, recordQueue, authorThreads,
+                batch -> parse(batch, parsed, rejected), rejected));
+        workers.addAll(startResolveAndWrite(recordQueue, inserted, rejected, duplicates));
+
+        try {
+            read(inputStream, rawQueue);
+        } finally {
+            signalEnd(rawQueue, parserThreads);
+            awaitWorkers(workers);
+            logger.info("Pipeline finished: {} parsed, {} inserted, {} rejected, {} duplicates skipped",
+                    parsed.get(), inserted.get(), rejected.get(), duplicates.get());
+        }
+
+        return (int) inserted.get();
+    }
+
+    /**
+     * Imports a file by memory-mapping it and splitting it into byte ranges
+     * aligned on record boundaries. Each range is scanned and parsed on its own
+     * thread straight from the mapped pages, feeding the author and writer stages.
+     */
+    public int run(Path file) throws IOException {
+        int ranges = rangeThreads > 0 ? rangeThreads : Runtime.getRuntime().availableProcessors();
+        long[] offsets = JsonRecordBoundaries.split(file, ranges);
+
+        AtomicLong parsed = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong duplicates = new AtomicLong();
+        AtomicLong inserted = new AtomicLong();
+        AtomicReference<IOException> failure = new AtomicReference<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            BlockingQueue<List<QuoteRecord>> recordQueue = new ArrayBlockingQueue<>(queueCapacity);
+            List<Thread> workers = startResolveAndWrite(recordQueue, inserted, rejected, duplicates);
+            AtomicInteger running = new AtomicInteger(offsets.length - 1);
+            List<Thread> rangeReaders = new ArrayList<>(offsets.length - 1);
+
+            for (int i = 0; i < offsets.length - 1; i++) {
+                long start = offsets[i];
+                long end = offsets[i + 1];
+                Thread thread = new Thread(() -> {
+                    try {
+                        readRange(channel, start, end, recordQueue, parsed, rejected);
+                    } catch (IOException e) {
+                        logger.error("Failed to read {} between offsets {} and {}", file, start, end, e);
+                        failure.compareAndSet(null, e);
+                    } catch (RuntimeException e) {
+                        logger.error("Failed to import {} between offsets {} and {}", file, start, end, e);
+                        failure.compareAndSet(null, new IOException(e));
+                    } finally {
+                        if (running.decrementAndGet() == 0) {
+                            signalEnd(recordQueue, authorThreads);
+                        }
+                    }
+                }, "quote-import-range-" + i);
+                thread.start();
+                rangeReaders.add(thread);
+            }
+
+            awaitWorkers(rangeReaders);
+            awaitWorkers(workers);
+            logger.info("Pipeline finished: {} parsed, {} inserted, {} rejected, {} duplicates skipped from {} ranges",
+                    parsed.get(), inserted.get(), rejected.get(), duplicates.get(), offsets.length - 1);
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return (int) inserted.get();
+    }
+
+    private List<Thread> startResolveAndWrite(BlockingQueue<List<QuoteRecord>> recordQueue,
+                                              AtomicLong inserted, AtomicLong rejected, AtomicLong duplicates) {
+        AuthorDictionary authors = new AuthorDictionary(authorService.findAllAuthors(), authorService::createAll);
+        logger.info("Author dictionary preloaded with {} authors", authors.size());
+        ContentFingerprintSet fingerprints = ContentFingerprintSet.load(quoteService);
+        logger.info("Duplicate check preloaded with {} quotes", fingerprints.size());
+        BlockingQueue<List<Quote>> quoteQueue = new ArrayBlockingQueue<>(queueCapacity);
+
+        List<Thread> workers = new ArrayList<>();
+        workers.addAll(startStage("author", authorThreads, recordQueue, quoteQueue, writerThreads,
+                batch -> resolveAuthors(batch, authors, fingerprints, rejected, duplicates), rejected));
+        workers.addAll(startStage("writer", writerThreads, quoteQueue, null, 0,
+                batch -> write(batch, inserted), rejected));
+        return workers;
+    }
+
+    private void read(InputStream inputStream, BlockingQueue<List<byte[]>> rawQueue) throws IOException {
+        JsonObjectScanner scanner = new JsonObjectScanner(inputStream);
+        List<byte[]> batch = new ArrayList<>(batchSize);
+        byte[] object;
+
+        while ((object = scanner.nextObject()) != null) {
+            batch.add(object);
+            if (batch.size() >= batchSize) {
+                put(rawQueue, batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            put(rawQueue, batch);
+        }
+    }
+
+    private void readRange(FileChannel channel, long start, long end,
+                           BlockingQueue<List<QuoteRecord>> recordQueue,
+                           AtomicLong parsed, AtomicLong rejected) throws IOException {
+        JsonObjectScanner scanner = new JsonObjectScanner(
+                new ProgressInputStream(new MappedFileInputStream(channel, start, end), metrics), start);
+        List<byte[]> batch = new ArrayList<>(batchSize);
+        byte[] object;
+
+        while ((object = scanner.nextObject()) != null) {
+            batch.add(object);
+            if (batch.size() >= batchSize) {
+                put(recordQueue, timedParse(batch, parsed, rejected));
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            put(recordQueue, timedParse(batch, parsed, rejected));
+        }
+    }
+
+    private List<QuoteRecord> timedParse(List<byte[]> objects, AtomicLong parsed, AtomicLong rejected) {
+        long started = System.nanoTime();
+        List<QuoteRecord> records = parse(objects, parsed, rejected);
+        metrics.recordBatch("parser", objects.size(), System.nanoTime() - started);
+        return records;
+    }
+
+    private List<QuoteRecord> parse(List<byte[]> objects, AtomicLong parsed, AtomicLong rejected) {
+        List<QuoteRecord> records = new ArrayList<>(objects.size());
+        for (byte[] object : objects) {
+            QuoteRecord quote = parseObject(object);
+            if (quote == null || !quote.isValid()) {
+                logger.warn("Empty text or author in quote");
+                rejected.incrementAndGet();
+                metrics.recordRejected(1);
+                continue;
+            }
+            records.add(quote);
+        }
+        parsed.addAndGet(objects.size());
+        metrics.recordParsed(objects.size());
+        return records;
+    }
+
+    QuoteRecord parseObject(byte[] object) {
+        if ("regex".equalsIgnoreCase(parserType)) {
+            List<QuoteRecord> matches = new ArrayList<>(1);
+            parseWithRegex(new String(object, StandardCharsets.UTF_8), matches::add);
+            return matches.isEmpty() ? null : matches.get(0);
+        }
+
+        try {
+            return QuoteJsonStreamReader.parseObject(object);
+        } catch (IOException e) {
+            logger.warn("Malformed quote: {}", new String(object, StandardCharsets.UTF_8), e);
+            return null;
+        }
+    }
+
+    private List<Quote> resolveAuthors(List<QuoteRecord> records, AuthorDictionary authors,
+                                       ContentFingerprintSet fingerprints, AtomicLong rejected, AtomicLong duplicates) {
+        List<QuoteRecord> named = new ArrayList<>(records.size());
+        for (QuoteRecord record : records) {
+            if (record.getAuthor().isBlank()) {
+                logger.warn("Blank author in quote: {}", record.getText());
+                rejected.incrementAndGet();
+                metrics.recordRejected(1);
+            } else {
+                named.add(record);
+            }
+        }
+
+        Map<String, Author> resolved;
+        try {
+            resolved = authors.resolve(named.stream().map(QuoteRecord::getAuthor).toList());
+        } catch (RuntimeException e) {
+            logger.error("Error creating authors for a batch of {} quotes", named.size(), e);
+            rejected.addAndGet(named.size());
+            metrics.recordRejected(named.size());
+            return List.of();
+        }
+
+        List<Quote> quotes = new ArrayList<>(named.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (QuoteRecord record : named) {
+            Quote quote = new Quote();
+            quote.setSourceId(record.getSourceId());
+            quote.setText(record.getText());
+            quote.setAuthor(resolved.get(AuthorDictionary.key(record.getAuthor())));
+            quote.setContentHash(QuoteContentHash.of(record.getText()));
+            if (!fingerprints.add(QuoteContentHash.fingerprint(quote.getAuthor().getId(), quote.getContentHash()))) {
+                duplicates.incrementAndGet();
+                metrics.recordDuplicate(1);
+                continue;
+            }
+            quote.setCreatedAt(now);
+            quote.setUpdatedAt(now);
+            quotes.add(quote);
+        }
+
+        return quotes;
+    }
+
+    private List<Object> write(List<Quote> quotes, AtomicLong inserted) {
+        int written;
+        if (incremental) {
+            written = quoteService.upsertBatch(quotes);
+        } else {
+            quoteService.persistBatch(quotes);
+            written = quotes.size();
+        }
+
+        long total = inserted.addAndGet(written);
+        metrics.recordInserted(written);
+        if (total / PROGRESS_LOG_INTERVAL != (total - written) / PROGRESS_LOG_INTERVAL) {
+            logger.info("Imported {} quotes so far", total);
+        }
+        return null;
+    }
+
+    private <I, O> List<Thread> startStage(String name, int threads,
+                                           BlockingQueue<List<I>> input,
+                                           BlockingQueue<List<O>> output, int downstreamThreads,
+                                           Function<List<I>, List<O>> work,
+                                           AtomicLong rejected) {
+        AtomicInteger running = new AtomicInteger(threads);
+        List<Thread> stageThreads = new ArrayList<>(threads);
+
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    List<I> batch;
+                    while ((Object) (batch = input.take()) != END_OF_STREAM) {
+                        try {
+                            long started = System.nanoTime();
+                            List<O> result = work.apply(batch);
+                            metrics.recordBatch(name, batch.size(), System.nanoTime() - started);
+                            if (output != null && result != null && !result.isEmpty()) {
+                                put(output, result);
+                            }
+                        } catch (RuntimeException e) {
+                            logger.error("Import stage {} failed on a batch of {} items", name, batch.size(), e);
+                            rejected.addAndGet(batch.size());
+                            metrics.recordRejected(batch.size());
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    if (running.decrementAndGet() == 0 && output != null) {
+                        signalEnd(output, downstreamThreads);
+                    }
+                }
+            }, "quote-import-" + name + "-" + i);
+            thread.start();
+            stageThreads.add(thread);
+        }
+
+        return stageThreads;
+    }
+
+    static void parseWithRegex(CharSequence content, Consumer<QuoteRecord> sink) {
+        Matcher matcher = QUOTE_PATTERN.matcher(content);
+
+        while (matcher.find()) {
+            sink.accept(new QuoteRecord(Long.parseLong(matcher.group(1)), matcher.group(2), matcher.group(3)));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void signalEnd(BlockingQueue<List<T>> queue, int consumers) {
+        for (int i = 0; i < consumers; i++) {
+            put(queue, (List<T>) (List<?>) END_OF_STREAM);
+        }
+    }
+
+    private static <T> void put(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        }
+    }
+
+    private static void awaitWorkers(List<Thread> workers) {
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                workers.forEach(Thread::interrupt);
+                return;
+            }
+        }
+    }
+}
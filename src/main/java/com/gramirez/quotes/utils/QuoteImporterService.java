@@ -1,123 +1,144 @@
 package com.gramirez.quotes.utils;
 
-import com.gramirez.quotes.dto.CreateQuoteDTO;
-import com.gramirez.quotes.service.QuoteService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.Locale;
 
 @Service
 public class QuoteImporterService {
 
     private static final Logger logger = LoggerFactory.getLogger(QuoteImporterService.class);
-    private static final Pattern QUOTE_PATTERN = Pattern.compile("\\{\"Id\":\\d+,\"Author\":\"([^\"]*)\",\"Text\":\"([^\"]*)\"\\}");
-    private static final int CHUNK_SIZE = 10000;
 
-    private final QuoteService quoteService;
+    private final QuoteImportPipeline quoteImportPipeline;
+    private final QuoteCopyLoader quoteCopyLoader;
+    private final QuoteImportJobLauncher quoteImportJobLauncher;
+    private final QuoteImportMetrics metrics;
+
+    @Value("${quotes.import.mode:jpa}")
+    private String importMode = "jpa";
+
+    @Value("${quotes.import.reader:stream}")
+    private String readerType = "stream";
 
     @Autowired
-    public QuoteImporterService(QuoteService quoteService) {
-        this.quoteService = quoteService;
+    public QuoteImporterService(QuoteImportPipeline quoteImportPipeline, QuoteCopyLoader quoteCopyLoader,
+                                QuoteImportJobLauncher quoteImportJobLauncher, QuoteImportMetrics metrics) {
+        this.quoteImportPipeline = quoteImportPipeline;
+        this.quoteCopyLoader = quoteCopyLoader;
+        this.quoteImportJobLauncher = quoteImportJobLauncher;
+        this.metrics = metrics;
     }
 
     public int importQuotesFromFile(String filePath) {
-        AtomicInteger successCount = new AtomicInteger(0);
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            StringBuilder fileContent = new StringBuilder();
-            String line;
-
-            while ((line = reader.readLine()) != null) {
-                fileContent.append(line);
-            }
-
-            String jsonArray = fileContent.toString();
-            Matcher matcher = QUOTE_PATTERN.matcher(jsonArray);
-
-            List<QuoteData> quoteBuffer = new ArrayList<>(CHUNK_SIZE);
-
-            while (matcher.find()) {
-                String author = matcher.group(1);
-                String text = matcher.group(2);
-
-                if (text == null || text.isEmpty() || author == null || author.isEmpty()) {
-                    logger.warn("Empty text or author in quote");
-                    continue;
-                }
-
-                quoteBuffer.add(new QuoteData(author, text));
-
-                if (quoteBuffer.size() >= CHUNK_SIZE) {
-                    int processed = processQuoteBatch(quoteBuffer);
-                    successCount.addAndGet(processed);
-                    quoteBuffer.clear();
+        Compression compression;
+        try {
+            compression = Compression.detect(Path.of(filePath));
+        } catch (IOException e) {
+            logger.error("Failed to read file: {}", filePath, e);
+            return 0;
+        }
 
-                    logger.info("Processed chunk of {} quotes. Total so far: {}",
-                            CHUNK_SIZE, successCount.get());
+        boolean compressed = compression != Compression.NONE;
+        if (compressed) {
+            logger.info("{} is {}-compressed, it will be decompressed while importing", filePath, compression);
+        }
 
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                    }
-                }
-            }
+        // Compressed input cannot be split into byte ranges, so only streaming modes apply
+        boolean streamOnly = compressed && !"copy".equalsIgnoreCase(importMode);
+        if (streamOnly && ("batch".equalsIgnoreCase(importMode) || "mmap".equalsIgnoreCase(readerType))) {
+            logger.warn("Importing compressed {} through the streaming pipeline instead of {} mode", filePath,
+                    "batch".equalsIgnoreCase(importMode) ? "batch" : "mmap");
+        }
 
-            if (!quoteBuffer.isEmpty()) {
-                int processed = processQuoteBatch(quoteBuffer);
-                successCount.addAndGet(processed);
-                logger.info("Processed final chunk of {} quotes", quoteBuffer.size());
-            }
+        String mode = streamOnly ? "jpa-stream"
+                : "jpa".equalsIgnoreCase(importMode) ? "jpa-" + readerType : importMode;
+        metrics.startRun(mode.toLowerCase(Locale.ROOT), filePath, new File(filePath).length());
+        try {
+            return streamOnly ? importStream(filePath) : importFile(filePath);
+        } finally {
+            metrics.finishRun();
+        }
+    }
 
-            logger.info("Import completed successfully. Total quotes imported: {}", successCount.get());
-            return successCount.get();
+    private int importFile(String filePath) {
+        if ("copy".equalsIgnoreCase(importMode)) {
+            return bulkLoadFromFile(filePath);
+        }
+        if ("batch".equalsIgnoreCase(importMode)) {
+            return runImportJob(filePath);
+        }
+        if ("mmap".equalsIgnoreCase(readerType)) {
+            return importMappedFile(filePath);
+        }
+        return importStream(filePath);
+    }
 
+    public int importStream(String filePath) {
+        try (InputStream inputStream = openTracked(filePath)) {
+            int imported = quoteImportPipeline.run(inputStream);
+            logger.info("Import completed successfully. Total quotes imported: {}", imported);
+            return imported;
         } catch (IOException e) {
             logger.error("Failed to read file: {}", filePath, e);
             return 0;
         }
     }
 
-    @Transactional
-    public int processQuoteBatch(List<QuoteData> quotes) {
-        int successCount = 0;
-
-        for (QuoteData quote : quotes) {
-            try {
-                CreateQuoteDTO quoteDTO = new CreateQuoteDTO();
-                quoteDTO.setText(quote.text);
-                quoteDTO.setAuthor(quote.author);
-
-                quoteService.create(quoteDTO);
-                successCount++;
-
-            } catch (Exception e) {
-                logger.error("Error processing quote. Author: {}, Text: {}",
-                        quote.author, quote.text, e);
-            }
+    public int importMappedFile(String filePath) {
+        try {
+            int imported = quoteImportPipeline.run(Path.of(filePath));
+            logger.info("Import completed successfully. Total quotes imported: {}", imported);
+            return imported;
+        } catch (IOException e) {
+            logger.error("Failed to read file: {}", filePath, e);
+            return 0;
         }
-
-        return successCount;
     }
 
-    private static class QuoteData {
-        private final String author;
-        private final String text;
+    public int bulkLoadFromFile(String filePath) {
+        try (InputStream inputStream = openTracked(filePath);
+             QuoteJsonStreamReader reader = new QuoteJsonStreamReader(inputStream)) {
+            int imported = quoteCopyLoader.load(reader);
+            metrics.recordInserted(imported);
+            logger.info("Bulk load completed successfully. Total quotes imported: {}", imported);
+            return imported;
+        } catch (IOException e) {
+            logger.error("Failed to read file: {}", filePath, e);
+            return 0;
+        } catch (SQLException e) {
+            logger.error("Bulk load of {} failed and was rolled back", filePath, e);
+            return 0;
+        }
+    }
 
-        public QuoteData(String author, String text) {
-            this.author = author;
-            this.text = text;
+    public int runImportJob(String filePath) {
+        try {
+            int imported = quoteImportJobLauncher.run(filePath);
+            logger.info("Import job finished. Total quotes imported in this run: {}", imported);
+            return imported;
+        } catch (Exception e) {
+            logger.error("Import job for {} failed", filePath, e);
+            return 0;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Opens the file for streaming, decompressing it if needed. Progress is
+     * tracked on the bytes read from disk, so it matches the file size.
+     */
+    private InputStream openTracked(String filePath) throws IOException {
+        return Compression.decompressing(
+                new BufferedInputStream(new ProgressInputStream(new FileInputStream(filePath), metrics)));
+    }
+}
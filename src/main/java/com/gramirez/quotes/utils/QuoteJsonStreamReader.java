@@ -0,0 +1,107 @@
+package com.gramirez.quotes.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Reads quote records one at a time from a JSON array, a sequence of root-level
+ * objects or NDJSON, using Jackson's token stream so memory stays constant
+ * regardless of the input size.
+ */
+public class QuoteJsonStreamReader implements Closeable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final JsonParser parser;
+
+    public QuoteJsonStreamReader(InputStream inputStream) throws IOException {
+        this.parser = JSON_FACTORY.createParser(inputStream);
+    }
+
+    /**
+     * Returns the next record, or {@code null} once the input is exhausted.
+     */
+    public QuoteRecord next() throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null) {
+            if (token == JsonToken.START_OBJECT) {
+                return readRecord(parser);
+            }
+            if (token != JsonToken.START_ARRAY && token != JsonToken.END_ARRAY) {
+                throw new JsonParseException(parser, "Unexpected token " + token + " while looking for a quote");
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Parses a single JSON object, such as one returned by {@link JsonObjectScanner}.
+     */
+    public static QuoteRecord parseObject(byte[] json) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object");
+            }
+            return readRecord(parser);
+        }
+    }
+
+    /**
+     * Reads the fields of the object the parser is positioned on. Field names are
+     * matched case-insensitively and in any order; unknown fields are skipped.
+     */
+    public static QuoteRecord readRecord(JsonParser parser) throws IOException {
+        Long sourceId = null;
+        String author = null;
+        String text = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName().toLowerCase(Locale.ROOT);
+            JsonToken value = parser.nextToken();
+
+            switch (field) {
+                case "id" -> sourceId = readLong(parser, value);
+                case "author" -> author = readString(parser, value);
+                case "text" -> text = readString(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new QuoteRecord(sourceId, author, text);
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+
+    private static String readString(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static Long readLong(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getLongValue();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Long.parseLong(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        parser.skipChildren();
+        return null;
+    }
+}
@@ -0,0 +1,298 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.repository.QuoteLengthGroupRepository.LengthGroup;
+import com.gramirez.quotes.repository.QuoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Quote length counts, for each {@link LengthMetric}, split by author, by
+ * creation day, and by both, so pair counts over a subset of quotes can be
+ * answered by merging the matching buckets instead of scanning the table.
+ * Buckets are sparse, since most authors and days only have a few distinct
+ * lengths.
+ * <p>
+ * Like {@link QuoteLengthHistogram} it is kept in step with committed writes;
+ * bulk writes report the groups they changed rather than marking it stale.
+ * Unlike it, it is loaded lazily on the first filtered query, since loading it
+ * groups the whole quotes table.
+ */
+@Component
+public class QuoteLengthBuckets {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteLengthBuckets.class);
+
+    private final QuoteRepository quoteRepository;
+
+    // Replaced whole by a reload; guarded by this
+    private Map<LengthMetric, Buckets> buckets = emptyBuckets();
+    private volatile boolean stale = true;
+
+    // Bumped by every change applied or signalled; guarded by this
+    private long generation;
+
+    // Held for a whole reload, so concurrent readers of stale buckets wait for one query
+    private final Object reloadLock = new Object();
+
+    @Autowired
+    public QuoteLengthBuckets(QuoteRepository quoteRepository) {
+        this.quoteRepository = quoteRepository;
+    }
+
+    /**
+     * Same protocol as {@link QuoteLengthHistogram#reload()}: the query is run again
+     * when anything changed while it ran, and after too many racing attempts the
+     * buckets are kept stale. Groups are streamed into new buckets, which replace
+     * the current ones once the query is done.
+     */
+    public void reload() {
+        synchronized (reloadLock) {
+            for (int attempt = 1; ; attempt++) {
+                long started;
+                synchronized (this) {
+                    started = generation;
+                }
+
+                Map<LengthMetric, Buckets> loaded = emptyBuckets();
+                quoteRepository.forEachLengthGroup(group -> add(loaded, group));
+
+                synchronized (this) {
+                    boolean changed = generation != started;
+                    if (!changed || attempt == QuoteLengthHistogram.MAX_RELOAD_ATTEMPTS) {
+                        buckets = loaded;
+                        stale = changed;
+                        Buckets characters = buckets.get(LengthMetric.CHARACTERS);
+                        logger.info("Loaded quote length buckets: {} authors, {} days",
+                                characters.byAuthor.size(), characters.byDay.size());
+                        return;
+                    }
+                }
+                logger.debug("Quote lengths changed during bucket reload attempt {}, retrying", attempt);
+            }
+        }
+    }
+
+    private static Map<LengthMetric, Buckets> emptyBuckets() {
+        Map<LengthMetric, Buckets> buckets = new EnumMap<>(LengthMetric.class);
+        for (LengthMetric metric : LengthMetric.values()) {
+            buckets.put(metric, new Buckets());
+        }
+        return buckets;
+    }
+
+    private static void add(Map<LengthMetric, Buckets> buckets, LengthGroup group) {
+        for (LengthMetric metric : LengthMetric.values()) {
+            buckets.get(metric).add(group.authorId(), group.day(), group.length(metric), group.count());
+        }
+    }
+
+    public void recordCreated(Quote quote) {
+        Long authorId = authorId(quote);
+        LocalDate day = day(quote.getCreatedAt());
+        String text = quote.getText();
+        QuoteLengthHistogram.afterCommit(() -> adjust(authorId, day, text, 1));
+    }
+
+    public void recordDeleted(Quote quote) {
+        Long authorId = authorId(quote);
+        LocalDate day = day(quote.getCreatedAt());
+        String text = quote.getText();
+        QuoteLengthHistogram.afterCommit(() -> adjust(authorId, day, text, -1));
+    }
+
+    public void recordUpdated(Long previousAuthorId, String previousText, Quote quote) {
+        Long authorId = authorId(quote);
+        LocalDate day = day(quote.getCreatedAt());
+        String text = quote.getText();
+        if (!Objects.equals(previousText, text) || !Objects.equals(previousAuthorId, authorId)) {
+            QuoteLengthHistogram.afterCommit(() -> {
+                adjust(previousAuthorId, day, previousText, -1);
+                adjust(authorId, day, text, 1);
+            });
+        }
+    }
+
+    /**
+     * Applies the groups a bulk write added (positive counts) and removed
+     * (negative counts), once the current transaction commits.
+     */
+    public void recordChanges(Collection<LengthGroup> changes) {
+        if (!changes.isEmpty()) {
+            QuoteLengthHistogram.afterCommit(() -> apply(changes));
+        }
+    }
+
+    /**
+     * Forces a reload on the next query, once the current transaction commits.
+     */
+    public void invalidate() {
+        QuoteLengthHistogram.afterCommit(this::markStale);
+    }
+
+    /**
+     * Pairs with combined length, measured by {@code metric}, at most
+     * {@code maxLength} among the quotes of the given authors (any author if null
+     * or empty) created between {@code from} and {@code to}, inclusive (unbounded
+     * if null). Quotes with no creation time only match when no date bound is given.
+     */
+    public long countPairs(LengthMetric metric, int maxLength, Collection<Long> authorIds,
+                           LocalDate from, LocalDate to) {
+        if (stale) {
+            reloadIfStale();
+        }
+
+        long[] merged = new long[QuoteLengthHistogram.MAX_LENGTH + 1];
+        boolean byDate = from != null || to != null;
+
+        synchronized (this) {
+            Buckets metricBuckets = buckets.get(metric);
+            if (authorIds != null && !authorIds.isEmpty()) {
+                for (Long authorId : authorIds.stream().distinct().toList()) {
+                    if (byDate) {
+                        TreeMap<LocalDate, LengthCounts> days = metricBuckets.byAuthorDay.get(authorId);
+                        if (days != null) {
+                            for (LengthCounts counts : range(days, from, to).values()) {
+                                merged = counts.addTo(merged);
+                            }
+                        }
+                    } else if (metricBuckets.byAuthor.containsKey(authorId)) {
+                        merged = metricBuckets.byAuthor.get(authorId).addTo(merged);
+                    }
+                }
+            } else if (byDate) {
+                for (LengthCounts counts : range(metricBuckets.byDay, from, to).values()) {
+                    merged = counts.addTo(merged);
+                }
+            } else {
+                for (LengthCounts counts : metricBuckets.byAuthor.values()) {
+                    merged = counts.addTo(merged);
+                }
+            }
+        }
+
+        return QuoteLengthHistogram.countPairs(merged, maxLength);
+    }
+
+    private synchronized void adjust(Long authorId, LocalDate day, String text, long delta) {
+        if (text == null) {
+            return;
+        }
+        generation++;
+        for (LengthMetric metric : LengthMetric.values()) {
+            buckets.get(metric).add(authorId, day, metric.measure(text), delta);
+        }
+    }
+
+    private synchronized void apply(Collection<LengthGroup> changes) {
+        generation++;
+        for (LengthGroup change : changes) {
+            add(buckets, change);
+        }
+    }
+
+    private synchronized void markStale() {
+        generation++;
+        stale = true;
+    }
+
+    private void reloadIfStale() {
+        synchronized (reloadLock) {
+            if (stale) {
+                reload();
+            }
+        }
+    }
+
+    private static <V> NavigableMap<LocalDate, V> range(NavigableMap<LocalDate, V> map, LocalDate from, LocalDate to) {
+        NavigableMap<LocalDate, V> range = map;
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, true);
+        }
+        return range;
+    }
+
+    private static Long authorId(Quote quote) {
+        return quote.getAuthor() == null ? null : quote.getAuthor().getId();
+    }
+
+    private static LocalDate day(LocalDateTime createdAt) {
+        return createdAt == null ? null : createdAt.toLocalDate();
+    }
+
+    /**
+     * One metric's counts by author, by day, and by both.
+     */
+    private static final class Buckets {
+
+        private final Map<Long, LengthCounts> byAuthor = new HashMap<>();
+        private final TreeMap<LocalDate, LengthCounts> byDay = new TreeMap<>();
+        private final Map<Long, TreeMap<LocalDate, LengthCounts>> byAuthorDay = new HashMap<>();
+
+        void add(Long authorId, LocalDate day, int length, long delta) {
+            byAuthor.computeIfAbsent(authorId, key -> new LengthCounts()).add(length, delta);
+            if (day != null) {
+                byDay.computeIfAbsent(day, key -> new LengthCounts()).add(length, delta);
+                byAuthorDay.computeIfAbsent(authorId, key -> new TreeMap<>())
+                        .computeIfAbsent(day, key -> new LengthCounts()).add(length, delta);
+            }
+        }
+    }
+
+    /**
+     * Sparse count per length, as parallel arrays sorted by length.
+     */
+    static final class LengthCounts {
+
+        private int[] lengths = new int[4];
+        private long[] counts = new long[4];
+        private int size;
+
+        void add(int length, long delta) {
+            int index = Arrays.binarySearch(lengths, 0, size, length);
+            if (index >= 0) {
+                counts[index] += delta;
+                return;
+            }
+            index = -index - 1;
+            if (size == lengths.length) {
+                lengths = Arrays.copyOf(lengths, size * 2);
+                counts = Arrays.copyOf(counts, size * 2);
+            }
+            System.arraycopy(lengths, index, lengths, index + 1, size - index);
+            System.arraycopy(counts, index, counts, index + 1, size - index);
+            lengths[index] = length;
+            counts[index] = delta;
+            size++;
+        }
+
+        /**
+         * Adds these counts into {@code dense}, growing it if needed, and returns it.
+         */
+        long[] addTo(long[] dense) {
+            if (size > 0 && lengths[size - 1] >= dense.length) {
+                dense = Arrays.copyOf(dense, lengths[size - 1] + 1);
+            }
+            for (int i = 0; i < size; i++) {
+                dense[lengths[i]] += counts[i];
+            }
+            return dense;
+        }
+    }
+}
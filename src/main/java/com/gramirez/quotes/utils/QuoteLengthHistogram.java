@@ -0,0 +1,382 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.repository.QuoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory count of quotes per text length, one histogram per {@link LengthMetric},
+ * used to answer pair counts without scanning the table. It is loaded once at startup
+ * from quote_length_stats and then kept in step with every committed create, update
+ * and delete. Bulk writes that cannot report the lengths they changed (upserts, COPY
+ * loads) mark it stale instead, and it is reloaded on the next query.
+ * <p>
+ * Batch queries are answered from a table of pair counts for every threshold,
+ * built by self-convolving the histogram and kept until the data changes.
+ */
+@Component
+public class QuoteLengthHistogram {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteLengthHistogram.class);
+
+    static final int MAX_LENGTH = 1000;
+    static final int MAX_RELOAD_ATTEMPTS = 5;
+
+    private final QuoteRepository quoteRepository;
+
+    private final Map<LengthMetric, Lengths> histograms = new EnumMap<>(LengthMetric.class);
+    private volatile boolean stale = true;
+
+    // Bumped by every change applied or signalled; guarded by this
+    private long generation;
+
+    // Held for a whole reload, so concurrent readers of a stale histogram wait for one query
+    private final Object reloadLock = new Object();
+
+    @Autowired
+    public QuoteLengthHistogram(QuoteRepository quoteRepository) {
+        this.quoteRepository = quoteRepository;
+        for (LengthMetric metric : LengthMetric.values()) {
+            histograms.put(metric, new Lengths());
+        }
+    }
+
+    /**
+     * Replaces the counts with the stats table's. A write that commits while the
+     * query runs may or may not be in its snapshot, and its adjustment lands on the
+     * counts being replaced, so when anything changed meanwhile the query is run
+     * again. If writes keep racing it, the last attempt's counts are used and the
+     * histogram stays stale, to be reloaded by the next query.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void reload() {
+        synchronized (reloadLock) {
+            for (int attempt = 1; ; attempt++) {
+                long started;
+                synchronized (this) {
+                    started = generation;
+                }
+
+                Map<LengthMetric, long[]> loaded = new EnumMap<>(LengthMetric.class);
+                for (LengthMetric metric : LengthMetric.values()) {
+                    loaded.put(metric, countsOf(quoteRepository.countByLength(metric.getKey())));
+                }
+
+                synchronized (this) {
+                    boolean changed = generation != started;
+                    if (!changed || attempt == MAX_RELOAD_ATTEMPTS) {
+                        loaded.forEach((metric, counts) -> histograms.get(metric).reset(counts));
+                        stale = changed;
+                        logger.info("Loaded quote length histograms for {} metrics", loaded.size());
+                        return;
+                    }
+                }
+                logger.debug("Quote lengths changed during reload attempt {}, retrying", attempt);
+            }
+        }
+    }
+
+    public void recordCreated(String text) {
+        int[] lengths = lengths(text);
+        afterCommit(() -> adjust(lengths, 1));
+    }
+
+    public void recordDeleted(String text) {
+        int[] lengths = lengths(text);
+        afterCommit(() -> adjust(lengths, -1));
+    }
+
+    public void recordUpdated(String previousText, String text) {
+        int[] previousLengths = lengths(previousText);
+        int[] lengths = lengths(text);
+        if (!Arrays.equals(previousLengths, lengths)) {
+            afterCommit(() -> {
+                adjust(previousLengths, -1);
+                adjust(lengths, 1);
+            });
+        }
+    }
+
+    /**
+     * Forces a reload on the next query, once the current transaction commits.
+     */
+    public void invalidate() {
+        afterCommit(this::markStale);
+    }
+
+    /**
+     * Number of unordered pairs of distinct quotes whose lengths, measured by
+     * {@code metric}, add up to at most {@code maxLength}.
+     */
+    public long countPairs(LengthMetric metric, int maxLength) {
+        if (stale) {
+            reloadIfStale();
+        }
+
+        synchronized (this) {
+            Lengths lengths = histograms.get(metric);
+            return countPairs(lengths.counts, lengths.prefixSums(), maxLength);
+        }
+    }
+
+    /**
+     * Number of unordered pairs whose combined length is between
+     * {@code minLength} and {@code maxLength}, inclusive.
+     */
+    public long countPairs(LengthMetric metric, int minLength, int maxLength) {
+        if (maxLength < minLength) {
+            return 0;
+        }
+        if (stale) {
+            reloadIfStale();
+        }
+
+        synchronized (this) {
+            Lengths lengths = histograms.get(metric);
+            long[] sums = lengths.prefixSums();
+            return countPairs(lengths.counts, sums, maxLength) - countPairs(lengths.counts, sums, minLength - 1);
+        }
+    }
+
+    /**
+     * Pair count for an arbitrary count-per-length array, in O(length).
+     */
+    public static long countPairs(long[] counts, int maxLength) {
+        long[] sums = new long[counts.length];
+        long running = 0;
+        for (int length = 0; length < counts.length; length++) {
+            running += counts[length];
+            sums[length] = running;
+        }
+        return countPairs(counts, sums, maxLength);
+    }
+
+    private static long countPairs(long[] counts, long[] sums, int maxLength) {
+        if (maxLength < 0) {
+            return 0;
+        }
+        int top = sums.length - 1;
+        long orderedPairs = 0;
+        long selfPairs = 0;
+
+        for (int length = 0; length <= Math.min(maxLength, top); length++) {
+            if (counts[length] == 0) {
+                continue;
+            }
+            orderedPairs += counts[length] * sums[Math.min(maxLength - length, top)];
+            if (2L * length <= maxLength) {
+                selfPairs += counts[length];
+            }
+        }
+        return (orderedPairs - selfPairs) / 2;
+    }
+
+    /**
+     * Same as {@link #countPairs(LengthMetric, int)} for each of the given thresholds.
+     */
+    public long[] countPairs(LengthMetric metric, int[] maxLengths) {
+        if (stale) {
+            reloadIfStale();
+        }
+
+        synchronized (this) {
+            Lengths lengths = histograms.get(metric);
+            if (lengths.pairCountTable == null) {
+                lengths.pairCountTable = buildPairCountTable(lengths.counts);
+            }
+            return lookup(lengths.pairCountTable, maxLengths);
+        }
+    }
+
+    /**
+     * Number of sets of {@code k} distinct quotes whose combined length is
+     * between {@code minLength} and {@code maxLength}; see {@link LengthTupleCounter}.
+     */
+    public BigInteger countTuples(LengthMetric metric, int k, int minLength, int maxLength) {
+        if (stale) {
+            reloadIfStale();
+        }
+
+        Lengths lengths = histograms.get(metric);
+        LengthTupleCounter counter;
+        long[] snapshot;
+        long snapshotVersion;
+        synchronized (this) {
+            counter = lengths.tupleCounter;
+            snapshot = counter == null ? lengths.counts.clone() : null;
+            snapshotVersion = lengths.version;
+        }
+
+        if (counter == null) {
+            // Built outside the lock: it takes a few dozen transforms, and writers shouldn't wait on it
+            counter = new LengthTupleCounter(snapshot);
+            synchronized (this) {
+                if (lengths.version == snapshotVersion) {
+                    lengths.tupleCounter = counter;
+                }
+            }
+        }
+        return counter.count(k, minLength, maxLength);
+    }
+
+    /**
+     * Turns (length, frequency) rows into a count per length.
+     */
+    public static long[] countsOf(List<Object[]> lengthFrequencies) {
+        long[] counts = new long[MAX_LENGTH + 1];
+        for (Object[] row : lengthFrequencies) {
+            int length = ((Number) row[0]).intValue();
+            if (length >= counts.length) {
+                counts = Arrays.copyOf(counts, length + 1);
+            }
+            counts[length] += ((Number) row[1]).longValue();
+        }
+        return counts;
+    }
+
+    public static long[] lookup(long[] pairCountTable, int[] maxLengths) {
+        long[] pairs = new long[maxLengths.length];
+        for (int i = 0; i < maxLengths.length; i++) {
+            int maxLength = maxLengths[i];
+            pairs[i] = maxLength < 0 ? 0 : pairCountTable[Math.min(maxLength, pairCountTable.length - 1)];
+        }
+        return pairs;
+    }
+
+    /**
+     * {@code table[m]} is the number of pairs with combined length at most
+     * {@code m}. The self-convolution gives the ordered pairs for each exact
+     * combined length; removing each quote paired with itself and halving
+     * leaves the unordered pairs of distinct quotes.
+     */
+    public static long[] buildPairCountTable(long[] counts) {
+        long[] ordered = Convolution.selfConvolve(counts);
+        long[] table = new long[ordered.length];
+        long running = 0;
+        for (int sum = 0; sum < ordered.length; sum++) {
+            long sameQuote = sum % 2 == 0 ? counts[sum / 2] : 0;
+            running += (ordered[sum] - sameQuote) / 2;
+            table[sum] = running;
+        }
+        return table;
+    }
+
+    public synchronized long total() {
+        long total = 0;
+        for (long count : histograms.get(LengthMetric.CHARACTERS).counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    private synchronized void adjust(int[] lengths, int delta) {
+        if (lengths == null) {
+            return;
+        }
+        generation++;
+        for (LengthMetric metric : LengthMetric.values()) {
+            histograms.get(metric).add(lengths[metric.ordinal()], delta);
+        }
+    }
+
+    private synchronized void markStale() {
+        generation++;
+        stale = true;
+    }
+
+    private void reloadIfStale() {
+        synchronized (reloadLock) {
+            if (stale) {
+                reload();
+            }
+        }
+    }
+
+    /**
+     * The text's length under each metric, in {@link LengthMetric} order, or null for null text.
+     */
+    private static int[] lengths(String text) {
+        if (text == null) {
+            return null;
+        }
+        LengthMetric[] metrics = LengthMetric.values();
+        int[] lengths = new int[metrics.length];
+        for (LengthMetric metric : metrics) {
+            lengths[metric.ordinal()] = metric.measure(text);
+        }
+        return lengths;
+    }
+
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * One metric's histogram and the tables derived from it. Guarded by the
+     * enclosing histogram's lock.
+     */
+    private static final class Lengths {
+
+        private long[] counts = new long[MAX_LENGTH + 1];
+        private long[] prefix = new long[MAX_LENGTH + 1];
+        private boolean prefixStale;
+        private long[] pairCountTable;
+        private LengthTupleCounter tupleCounter;
+        private long version;
+
+        void reset(long[] loaded) {
+            counts = loaded;
+            prefix = new long[loaded.length];
+            changed();
+        }
+
+        void add(int length, int delta) {
+            if (length >= counts.length) {
+                counts = Arrays.copyOf(counts, length + 1);
+                prefix = new long[counts.length];
+            }
+            counts[length] += delta;
+            changed();
+        }
+
+        long[] prefixSums() {
+            if (prefixStale) {
+                long running = 0;
+                for (int length = 0; length < counts.length; length++) {
+                    running += counts[length];
+                    prefix[length] = running;
+                }
+                prefixStale = false;
+            }
+            return prefix;
+        }
+
+        private void changed() {
+            prefixStale = true;
+            pairCountTable = null;
+            tupleCounter = null;
+            version++;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.repository.QuoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Folds the deltas the stats triggers append to quote_length_stats_delta into
+ * quote_length_stats, so readers only have a few recent deltas to add up: on a
+ * timer, and as soon as a bulk write leaves more than the threshold pending.
+ */
+@Component
+public class QuoteLengthStatsFolder {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteLengthStatsFolder.class);
+
+    private final QuoteRepository quoteRepository;
+
+    @Value("${quotes.pairs.stats-fold-threshold:1000}")
+    private int threshold = 1000;
+
+    @Autowired
+    public QuoteLengthStatsFolder(QuoteRepository quoteRepository) {
+        this.quoteRepository = quoteRepository;
+    }
+
+    @Scheduled(fixedDelayString = "${quotes.pairs.stats-fold-delay-ms:60000}",
+            initialDelayString = "${quotes.pairs.stats-fold-delay-ms:60000}")
+    public void fold() {
+        int folded = quoteRepository.foldLengthStatsDeltas();
+        if (folded > 0) {
+            logger.debug("Folded quote length deltas into {} stats rows", folded);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${quotes.pairs.stats-fold-check-ms:1000}")
+    public void foldIfBacklogged() {
+        if (quoteRepository.countLengthStatsDeltas(threshold) >= threshold) {
+            fold();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.repository.QuoteLengthKeyRepository.LengthKey;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last pair returned by a pair enumeration: the pair's
+ * shorter quote and its partner, both as (length, id) keys. Clients get
+ * it as an opaque string and send it back to resume after that pair.
+ */
+public record QuotePairCursor(LengthKey first, LengthKey second) {
+
+    public String encode() {
+        String raw = first.length() + ":" + first.id() + ":" + second.length() + ":" + second.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code encoded} was not produced by {@link #encode()}
+     */
+    public static QuotePairCursor decode(String encoded) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.US_ASCII).split(":");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed pair cursor: " + encoded);
+        }
+        try {
+            return new QuotePairCursor(
+                    new LengthKey(Integer.parseInt(parts[0]), Long.parseLong(parts[1])),
+                    new LengthKey(Integer.parseInt(parts[2]), Long.parseLong(parts[3])));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed pair cursor: " + encoded, e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.gramirez.quotes.utils;
+
+public class QuoteRecord {
+    private final Long sourceId;
+    private final String author;
+    private final String text;
+
+    public QuoteRecord(Long sourceId, String author, String text) {
+        this.sourceId = sourceId;
+        this.author = author;
+        this.text = text;
+    }
+
+    public Long getSourceId() {
+        return sourceId;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public boolean isValid() {
+        return text != null && !text.isEmpty() && author != null && !author.isEmpty();
+    }
+}
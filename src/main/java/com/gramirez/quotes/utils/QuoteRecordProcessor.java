@@ -0,0 +1,67 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.model.Author;
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.service.AuthorService;
+import com.gramirez.quotes.service.QuoteService;
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Turns parsed records into quotes, filtering out invalid and duplicate ones.
+ * One instance is shared by all partitions of a job; authors and the content
+ * fingerprints of stored quotes are preloaded when the job starts. New authors
+ * are committed in their own transaction so other partitions can reference
+ * them right away.
+ */
+public class QuoteRecordProcessor implements ItemProcessor<QuoteRecord, Quote> {
+
+    private final AuthorDictionary authors;
+    private final ContentFingerprintSet fingerprints;
+    private final QuoteImportMetrics metrics;
+
+    public QuoteRecordProcessor(AuthorService authorService, QuoteService quoteService,
+                                PlatformTransactionManager transactionManager, QuoteImportMetrics metrics) {
+        this.metrics = metrics;
+        this.fingerprints = ContentFingerprintSet.load(quoteService);
+        TransactionTemplate authorTransaction = new TransactionTemplate(transactionManager);
+        authorTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.authors = new AuthorDictionary(authorService.findAllAuthors(),
+                names -> authorTransaction.execute(status -> authorService.createAll(names)));
+    }
+
+    @Override
+    public Quote process(QuoteRecord record) {
+        metrics.recordParsed(1);
+        if (!record.isValid() || record.getAuthor().isBlank()) {
+            metrics.recordRejected(1);
+            return null;
+        }
+
+        Author author = authors.get(record.getAuthor());
+        if (author == null) {
+            author = authors.resolve(List.of(record.getAuthor())).get(AuthorDictionary.key(record.getAuthor()));
+        }
+
+        byte[] contentHash = QuoteContentHash.of(record.getText());
+        if (!fingerprints.add(QuoteContentHash.fingerprint(author.getId(), contentHash))) {
+            metrics.recordDuplicate(1);
+            return null;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        Quote quote = new Quote();
+        quote.setSourceId(record.getSourceId());
+        quote.setText(record.getText());
+        quote.setAuthor(author);
+        quote.setContentHash(contentHash);
+        quote.setCreatedAt(now);
+        quote.setUpdatedAt(now);
+        return quote;
+    }
+}
@@ -0,0 +1,20 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.dto.QuoteDTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields a quote's {@link QuoteEtag} is derived from, read by a projection so a
+ * conditional GET can be answered without loading or mapping the quote. textLength
+ * is only carried so keyset pages of versions get the same next cursor as pages of quotes.
+ */
+public record QuoteVersion(Long id, LocalDateTime updatedAt, Long authorId, String authorName, Integer textLength) {
+
+    public static QuoteVersion of(QuoteDTO quote) {
+        return new QuoteVersion(quote.getId(), quote.getUpdatedAt(),
+                quote.getAuthor() == null ? null : quote.getAuthor().getId(),
+                quote.getAuthor() == null ? null : quote.getAuthor().getName(),
+                null);
+    }
+}
@@ -0,0 +1,37 @@
+package com.gramirez.quotes.utils;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a keyset page: the sort the page was read
+ * in, and that row's sort key and id. Clients get it as an opaque string in
+ * the {@value #HEADER} header and send it back as the cursor parameter.
+ */
+public record SeekCursor(String property, Sort.Direction direction, String key, long id) {
+
+    public static final String HEADER = "X-Next-Cursor";
+
+    public String encode() {
+        // The key goes last so it may contain the separator
+        String raw = property + ":" + direction.name() + ":" + id + ":" + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code encoded} was not produced by {@link #encode()}
+     */
+    public static SeekCursor decode(String encoded) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8).split(":", 4);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("Malformed cursor: " + encoded);
+        }
+        try {
+            return new SeekCursor(parts[0], Sort.Direction.valueOf(parts[1]), parts[3], Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor: " + encoded, e);
+        }
+    }
+}
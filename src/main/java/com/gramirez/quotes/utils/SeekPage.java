@@ -0,0 +1,9 @@
+package com.gramirez.quotes.utils;
+
+import java.util.List;
+
+/**
+ * One keyset page, and the cursor for the next one (null on the last page).
+ */
+public record SeekPage<T>(List<T> items, SeekCursor next) {
+}
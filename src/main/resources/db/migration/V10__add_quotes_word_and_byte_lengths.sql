@@ -0,0 +1,67 @@
+alter table if exists quotes
+    add column if not exists text_words integer
+        generated always as (coalesce(array_length(array_remove(regexp_split_to_array(text, '\s+'), ''), 1), 0)) stored;
+
+alter table if exists quotes
+    add column if not exists text_bytes integer generated always as (octet_length(text)) stored;
+
+create index if not exists ix_quotes_text_words_id
+    on quotes (text_words, id);
+
+create index if not exists ix_quotes_text_bytes_id
+    on quotes (text_bytes, id);
+
+-- One histogram per metric; existing rows are the character lengths
+alter table quote_length_stats
+    add column if not exists metric varchar(16) not null default 'characters';
+
+alter table quote_length_stats drop constraint if exists quote_length_stats_pkey;
+alter table quote_length_stats add primary key (metric, length);
+alter table quote_length_stats alter column metric drop default;
+
+insert into quote_length_stats (metric, length, frequency)
+select 'words', text_words, count(*) from quotes group by text_words
+union all
+select 'utf8_bytes', text_bytes, count(*) from quotes group by text_bytes
+on conflict (metric, length) do update set frequency = excluded.frequency;
+
+create or replace function quote_length_stats_apply() returns trigger
+language plpgsql as $$
+begin
+    if tg_op = 'INSERT' then
+        insert into quote_length_stats as s (metric, length, frequency)
+        select m.metric, m.len, count(*)
+        from new_rows r
+        cross join lateral (values ('characters', r.text_length),
+                                   ('words', r.text_words),
+                                   ('utf8_bytes', r.text_bytes)) as m (metric, len)
+        group by m.metric, m.len
+        order by 1, 2
+        on conflict (metric, length) do update set frequency = s.frequency + excluded.frequency;
+    elsif tg_op = 'DELETE' then
+        insert into quote_length_stats as s (metric, length, frequency)
+        select m.metric, m.len, -count(*)
+        from old_rows r
+        cross join lateral (values ('characters', r.text_length),
+                                   ('words', r.text_words),
+                                   ('utf8_bytes', r.text_bytes)) as m (metric, len)
+        group by m.metric, m.len
+        order by 1, 2
+        on conflict (metric, length) do update set frequency = s.frequency + excluded.frequency;
+    else
+        insert into quote_length_stats as s (metric, length, frequency)
+        select m.metric, m.len, sum(c.delta)
+        from (select text_length, text_words, text_bytes, 1 as delta from new_rows
+              union all
+              select text_length, text_words, text_bytes, -1 from old_rows) c
+        cross join lateral (values ('characters', c.text_length),
+                                   ('words', c.text_words),
+                                   ('utf8_bytes', c.text_bytes)) as m (metric, len)
+        group by m.metric, m.len
+        having sum(c.delta) <> 0
+        order by 1, 2
+        on conflict (metric, length) do update set frequency = s.frequency + excluded.frequency;
+    end if;
+    return null;
+end;
+$$;
@@ -0,0 +1,3 @@
+-- Keyset pagination over authors sorted by name seeks on (name, id)
+create index if not exists ix_authors_name_id
+    on authors (name, id);
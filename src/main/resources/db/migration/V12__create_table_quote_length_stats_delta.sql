@@ -0,0 +1,47 @@
+-- The stats triggers used to upsert quote_length_stats directly. Writers send one statement per
+-- row (Hibernate and JDBC batches), so each writer transaction locked stats rows in whatever
+-- length order its rows came in and held them until commit: concurrent writers serialized on
+-- the common lengths and could deadlock. (V8's "order by" only orders rows within one statement,
+-- so it never prevented that.) Now the triggers only append deltas, which take no
+-- shared row locks. Readers add the pending deltas to the folded counts, and
+-- QuoteLengthStatsFolder periodically moves them into quote_length_stats with one ordered statement.
+create table if not exists quote_length_stats_delta (
+    metric varchar(16) not null,
+    length integer     not null,
+    delta  bigint      not null
+);
+
+create or replace function quote_length_stats_apply() returns trigger
+language plpgsql as $$
+begin
+    if tg_op = 'INSERT' then
+        insert into quote_length_stats_delta (metric, length, delta)
+        select m.metric, m.len, count(*)
+        from new_rows r
+        cross join lateral (values ('characters', r.text_length),
+                                   ('words', r.text_words),
+                                   ('utf8_bytes', r.text_bytes)) as m (metric, len)
+        group by m.metric, m.len;
+    elsif tg_op = 'DELETE' then
+        insert into quote_length_stats_delta (metric, length, delta)
+        select m.metric, m.len, -count(*)
+        from old_rows r
+        cross join lateral (values ('characters', r.text_length),
+                                   ('words', r.text_words),
+                                   ('utf8_bytes', r.text_bytes)) as m (metric, len)
+        group by m.metric, m.len;
+    else
+        insert into quote_length_stats_delta (metric, length, delta)
+        select m.metric, m.len, sum(c.delta)
+        from (select text_length, text_words, text_bytes, 1 as delta from new_rows
+              union all
+              select text_length, text_words, text_bytes, -1 from old_rows) c
+        cross join lateral (values ('characters', c.text_length),
+                                   ('words', c.text_words),
+                                   ('utf8_bytes', c.text_bytes)) as m (metric, len)
+        group by m.metric, m.len
+        having sum(c.delta) <> 0;
+    end if;
+    return null;
+end;
+$$;
@@ -0,0 +1,20 @@
+-- V10 split words on \s, whose meaning depends on the database locale, while LengthMetric.WORDS
+-- splits on Character.isWhitespace; the two disagreed on characters like U+2003 and U+3000.
+-- Both now split on the same explicit set: space, \t, \n, \r, \f and \v (U+000B).
+drop index if exists ix_quotes_text_words_id;
+
+alter table if exists quotes drop column if exists text_words;
+
+alter table if exists quotes
+    add column text_words integer
+        generated always as (coalesce(array_length(array_remove(regexp_split_to_array(text, '[ \t\n\r\f\v]+'), ''), 1), 0)) stored;
+
+create index if not exists ix_quotes_text_words_id
+    on quotes (text_words, id);
+
+-- Re-adding the column fires no triggers, so rebuild the word histogram from scratch
+delete from quote_length_stats_delta where metric = 'words';
+delete from quote_length_stats where metric = 'words';
+
+insert into quote_length_stats (metric, length, frequency)
+select 'words', text_words, count(*) from quotes group by text_words;
@@ -0,0 +1,9 @@
+-- content_hash used to collapse \s and fold with lower(), both locale dependent in PostgreSQL,
+-- while QuoteContentHash used Unicode whitespace and Locale.ROOT case folding; the two could
+-- hash the same text differently. Both now collapse the separators space, \t, \n, \r, \f and
+-- \v (U+000B) and fold ASCII letters only. The new normalization never merges texts the old
+-- one kept apart, so recomputing cannot violate ux_quotes_author_content_hash.
+update quotes
+set content_hash = sha256(convert_to(translate(btrim(regexp_replace(text, '[ \t\n\r\f\v]+', ' ', 'g'), ' '),
+                                               'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz'), 'UTF8'))
+where text is not null;
@@ -0,0 +1,60 @@
+-- V12 appended one delta row per metric and length for every statement, and writers send one
+-- statement per row, so a bulk import could leave tens of thousands of rows for readers to scan
+-- between folds. Deltas are now summed per transaction: each writer upserts rows keyed by its
+-- own transaction id, which no other writer touches, so this takes no shared locks either.
+-- Readers find a metric's deltas through the (metric, length) index.
+
+-- Fold what is pending so the new key can be added to an empty table
+with folded as (
+    delete from quote_length_stats_delta returning metric, length, delta
+)
+insert into quote_length_stats as s (metric, length, frequency)
+select metric, length, sum(delta) from folded
+group by metric, length
+having sum(delta) <> 0
+order by metric, length
+on conflict (metric, length) do update set frequency = s.frequency + excluded.frequency;
+
+alter table quote_length_stats_delta add column if not exists txid bigint not null;
+alter table quote_length_stats_delta add primary key (txid, metric, length);
+
+create index if not exists ix_quote_length_stats_delta_metric_length
+    on quote_length_stats_delta (metric, length);
+
+create or replace function quote_length_stats_apply() returns trigger
+language plpgsql as $$
+begin
+    if tg_op = 'INSERT' then
+        insert into quote_length_stats_delta as d (txid, metric, length, delta)
+        select txid_current(), m.metric, m.len, count(*)
+        from new_rows r
+        cross join lateral (values ('characters', r.text_length),
+                                   ('words', r.text_words),
+                                   ('utf8_bytes', r.text_bytes)) as m (metric, len)
+        group by m.metric, m.len
+        on conflict (txid, metric, length) do update set delta = d.delta + excluded.delta;
+    elsif tg_op = 'DELETE' then
+        insert into quote_length_stats_delta as d (txid, metric, length, delta)
+        select txid_current(), m.metric, m.len, -count(*)
+        from old_rows r
+        cross join lateral (values ('characters', r.text_length),
+                                   ('words', r.text_words),
+                                   ('utf8_bytes', r.text_bytes)) as m (metric, len)
+        group by m.metric, m.len
+        on conflict (txid, metric, length) do update set delta = d.delta + excluded.delta;
+    else
+        insert into quote_length_stats_delta as d (txid, metric, length, delta)
+        select txid_current(), m.metric, m.len, sum(c.delta)
+        from (select text_length, text_words, text_bytes, 1 as delta from new_rows
+              union all
+              select text_length, text_words, text_bytes, -1 from old_rows) c
+        cross join lateral (values ('characters', c.text_length),
+                                   ('words', c.text_words),
+                                   ('utf8_bytes', c.text_bytes)) as m (metric, len)
+        group by m.metric, m.len
+        having sum(c.delta) <> 0
+        on conflict (txid, metric, length) do update set delta = d.delta + excluded.delta;
+    end if;
+    return null;
+end;
+$$;
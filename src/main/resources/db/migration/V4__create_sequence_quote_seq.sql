@@ -0,0 +1 @@
+create sequence if not exists quote_seq start with 1 increment by 50
@@ -0,0 +1,5 @@
+alter table if exists quotes
+    add column if not exists source_id bigint;
+
+create unique index if not exists ux_quotes_source_id
+    on quotes (source_id);
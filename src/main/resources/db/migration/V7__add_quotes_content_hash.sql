@@ -0,0 +1,43 @@
+alter table if exists quotes
+    add column if not exists content_hash bytea;
+
+-- Same normalization as QuoteContentHash: collapse separators, trim, fold ASCII case
+update quotes
+set content_hash = sha256(convert_to(translate(btrim(regexp_replace(text, '[ \t\n\r\f\v]+', ' ', 'g'), ' '),
+                                               'ABCDEFGHIJKLMNOPQRSTUVWXYZ', 'abcdefghijklmnopqrstuvwxyz'), 'UTF8'))
+where content_hash is null;
+
+-- Stored duplicates are not deleted here: which copy to keep is for an operator to decide.
+-- List them and stop, so they can be merged or removed before the migration is retried.
+do $$
+declare
+    total     bigint;
+    conflicts text;
+begin
+    select count(*) into total
+    from (select 1
+          from quotes
+          where author_id is not null
+          group by author_id, content_hash
+          having count(*) > 1) g;
+
+    if total > 0 then
+        select string_agg(format('author %s: quotes %s', author_id, ids), '; ')
+        into conflicts
+        from (select author_id, string_agg(id::text, ', ' order by id) as ids
+              from quotes
+              where author_id is not null
+              group by author_id, content_hash
+              having count(*) > 1
+              order by author_id
+              limit 50) d;
+
+        raise exception 'Cannot create ux_quotes_author_content_hash: % groups of quotes share an author and content', total
+            using detail = 'Duplicated (first 50 groups): ' || conflicts,
+                  hint = 'Delete or edit all but one quote of each group, then rerun the migration.';
+    end if;
+end;
+$$;
+
+create unique index if not exists ux_quotes_author_content_hash
+    on quotes (author_id, content_hash);
@@ -0,0 +1,58 @@
+create table if not exists quote_length_stats (
+    length    integer primary key,
+    frequency bigint  not null default 0
+);
+
+insert into quote_length_stats (length, frequency)
+select length(text), count(*)
+from quotes
+group by length(text)
+on conflict (length) do update set frequency = excluded.frequency;
+
+-- Statement-level triggers fold a whole INSERT/UPDATE/DELETE (including the COPY loader's
+-- INSERT ... SELECT from staging) into one delta per length, so bulk loads touch each stats
+-- row once instead of once per quote. Rows are locked in length order to keep
+-- concurrent writers from deadlocking on them.
+create or replace function quote_length_stats_apply() returns trigger
+language plpgsql as $$
+begin
+    if tg_op = 'INSERT' then
+        insert into quote_length_stats as s (length, frequency)
+        select length(text), count(*) from new_rows group by length(text) order by 1
+        on conflict (length) do update set frequency = s.frequency + excluded.frequency;
+    elsif tg_op = 'DELETE' then
+        insert into quote_length_stats as s (length, frequency)
+        select length(text), -count(*) from old_rows group by length(text) order by 1
+        on conflict (length) do update set frequency = s.frequency + excluded.frequency;
+    else
+        insert into quote_length_stats as s (length, frequency)
+        select len, sum(delta)
+        from (select length(text) as len, 1 as delta from new_rows
+              union all
+              select length(text), -1 from old_rows) changes
+        group by len
+        having sum(delta) <> 0
+        order by 1
+        on conflict (length) do update set frequency = s.frequency + excluded.frequency;
+    end if;
+    return null;
+end;
+$$;
+
+drop trigger if exists quotes_length_stats_insert on quotes;
+create trigger quotes_length_stats_insert
+    after insert on quotes
+    referencing new table as new_rows
+    for each statement execute function quote_length_stats_apply();
+
+drop trigger if exists quotes_length_stats_update on quotes;
+create trigger quotes_length_stats_update
+    after update on quotes
+    referencing old table as old_rows new table as new_rows
+    for each statement execute function quote_length_stats_apply();
+
+drop trigger if exists quotes_length_stats_delete on quotes;
+create trigger quotes_length_stats_delete
+    after delete on quotes
+    referencing old table as old_rows
+    for each statement execute function quote_length_stats_apply();
@@ -0,0 +1,33 @@
+alter table if exists quotes
+    add column if not exists text_length integer generated always as (char_length(text)) stored;
+
+-- (text_length, id) serves length-range listings in id order and index-only length scans
+create index if not exists ix_quotes_text_length_id
+    on quotes (text_length, id);
+
+-- The stats triggers can read the stored length instead of recomputing it
+create or replace function quote_length_stats_apply() returns trigger
+language plpgsql as $$
+begin
+    if tg_op = 'INSERT' then
+        insert into quote_length_stats as s (length, frequency)
+        select text_length, count(*) from new_rows group by text_length order by 1
+        on conflict (length) do update set frequency = s.frequency + excluded.frequency;
+    elsif tg_op = 'DELETE' then
+        insert into quote_length_stats as s (length, frequency)
+        select text_length, -count(*) from old_rows group by text_length order by 1
+        on conflict (length) do update set frequency = s.frequency + excluded.frequency;
+    else
+        insert into quote_length_stats as s (length, frequency)
+        select len, sum(delta)
+        from (select text_length as len, 1 as delta from new_rows
+              union all
+              select text_length, -1 from old_rows) changes
+        group by len
+        having sum(delta) <> 0
+        order by 1
+        on conflict (length) do update set frequency = s.frequency + excluded.frequency;
+    end if;
+    return null;
+end;
+$$;
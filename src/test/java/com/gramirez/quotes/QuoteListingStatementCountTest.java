@@ -0,0 +1,111 @@
+package com.gramirez.quotes;
+
+import com.gramirez.quotes.model.Author;
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.repository.AuthorRepository;
+import com.gramirez.quotes.repository.QuoteRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Guards the quote listings against N+1 author loading: a page costs the same
+ * few statements however many quotes and authors are on it.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureMockMvc
+@Import(TestcontainersConfiguration.class)
+@Testcontainers(disabledWithoutDocker = true)
+class QuoteListingStatementCountTest {
+
+    // The page select and, for offset pages, its count query
+    private static final int MAX_STATEMENTS = 2;
+
+    private static final int AUTHORS = 20;
+    private static final int QUOTES = 100;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private QuoteRepository quoteRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (quoteRepository.count() > 0) {
+            return;
+        }
+
+        List<Author> authors = new ArrayList<>();
+        for (int i = 0; i < AUTHORS; i++) {
+            Author author = new Author();
+            author.setName("Author " + i);
+            authors.add(author);
+        }
+        authors = authorRepository.saveAll(authors);
+
+        List<Quote> quotes = new ArrayList<>();
+        for (int i = 0; i < QUOTES; i++) {
+            Quote quote = new Quote();
+            quote.setText("Quote number " + i + " of the listing test");
+            quote.setAuthor(authors.get(i % AUTHORS));
+            quotes.add(quote);
+        }
+        quoteRepository.saveAll(quotes);
+    }
+
+    @Test
+    void getAllQuotes_ShouldNotLoadAuthorsOneByOne() throws Exception {
+        assertStatementsAtMost(get("/api/quotes").param("size", String.valueOf(QUOTES)));
+    }
+
+    @Test
+    void getAllQuotes_WithLengthRange_ShouldNotLoadAuthorsOneByOne() throws Exception {
+        assertStatementsAtMost(get("/api/quotes").param("size", String.valueOf(QUOTES))
+                .param("minLength", "0").param("maxLength", "1000"));
+    }
+
+    @Test
+    void getAllQuotes_WithCursor_ShouldNotLoadAuthorsOneByOne() throws Exception {
+        assertStatementsAtMost(get("/api/quotes").param("size", String.valueOf(QUOTES)).param("cursor", ""));
+    }
+
+    private void assertStatementsAtMost(RequestBuilder request) throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(QUOTES)));
+
+        long statements = statistics.getPrepareStatementCount();
+        assertTrue(statements <= MAX_STATEMENTS,
+                "Listing " + QUOTES + " quotes issued " + statements + " statements, expected at most " + MAX_STATEMENTS);
+    }
+}
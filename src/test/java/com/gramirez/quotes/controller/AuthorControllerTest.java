@@ -5,6 +5,8 @@ import com.gramirez.quotes.dto.AuthorDTO;
 import com.gramirez.quotes.exception.AuthorNotFoundException;
 import com.gramirez.quotes.exception.GlobalExceptionHandler;
 import com.gramirez.quotes.service.AuthorService;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -21,6 +23,7 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.openMocks;
@@ -103,6 +106,35 @@ public class AuthorControllerTest {
         verify(authorService, times(1)).findAll(any(Pageable.class));
     }
 
+    @Test
+    void getAllAuthors_WithCursor_ShouldReturnKeysetPageAndNextCursor() throws Exception {
+        // Given
+        SeekCursor after = new SeekCursor("name", Sort.Direction.ASC, "Ada Lovelace", 9L);
+        SeekCursor next = new SeekCursor("name", Sort.Direction.ASC, "Marie Curie", 2L);
+        when(authorService.findAllAfter("name", Sort.Direction.ASC, after, 2))
+                .thenReturn(new SeekPage<>(authorList, next));
+
+        // When & Then
+        mockMvc.perform(get("/api/authors")
+                        .param("cursor", after.encode())
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SeekCursor.HEADER, next.encode()))
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].name", is("Marie Curie")));
+
+        verify(authorService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getAllAuthors_WithMalformedCursor_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/authors").param("cursor", "bm9wZQ"))
+                .andExpect(status().isBadRequest());
+
+        verify(authorService, never()).findAllAfter(any(), any(), any(), anyInt());
+    }
+
     @Test
     void getAuthorById_WhenAuthorExists_ShouldReturnAuthor() throws Exception {
         // Given
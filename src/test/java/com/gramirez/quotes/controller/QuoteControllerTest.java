@@ -3,12 +3,21 @@ package com.gramirez.quotes.controller;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gramirez.quotes.dto.AuthorDTO;
 import com.gramirez.quotes.dto.CreateQuoteDTO;
+import com.gramirez.quotes.dto.IngestResultDTO;
 import com.gramirez.quotes.dto.PairsCountDTO;
 import com.gramirez.quotes.dto.QuoteDTO;
+import com.gramirez.quotes.dto.TupleCountDTO;
 import com.gramirez.quotes.exception.GlobalExceptionHandler;
 import com.gramirez.quotes.exception.QuoteNotFoundException;
+import com.gramirez.quotes.repository.QuoteLengthKeyRepository.LengthKey;
+import com.gramirez.quotes.service.QuoteIngestService;
 import com.gramirez.quotes.service.impl.QuotePairServiceImpl;
 import com.gramirez.quotes.service.impl.QuoteServiceImpl;
+import com.gramirez.quotes.utils.LengthMetric;
+import com.gramirez.quotes.utils.QuotePairCursor;
+import com.gramirez.quotes.utils.QuoteVersion;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -17,16 +26,28 @@ import org.mockito.MockitoAnnotations;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import java.io.InputStream;
+import java.math.BigInteger;
 import java.util.Arrays;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -41,6 +62,9 @@ class QuoteControllerTest {
     @Mock
     private QuotePairServiceImpl quotePairService;
 
+    @Mock
+    private QuoteIngestService quoteIngestService;
+
     @InjectMocks
     private QuoteController quoteController;
 
@@ -122,6 +146,166 @@ class QuoteControllerTest {
         verify(quoteService, times(1)).findAll(any(Pageable.class));
     }
 
+    @Test
+    void getAllQuotes_WithLengthRange_ShouldFilterByTextLength() throws Exception {
+        // Given
+        when(quoteService.findAllByLength(eq(10), eq(50), eq(LengthMetric.CHARACTERS), any(Pageable.class))).thenReturn(quoteList);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes")
+                        .param("minLength", "10")
+                        .param("maxLength", "50")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        verify(quoteService, times(1)).findAllByLength(eq(10), eq(50), eq(LengthMetric.CHARACTERS), any(Pageable.class));
+        verify(quoteService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getAllQuotes_WithByteLengthRange_ShouldFilterByUtf8Length() throws Exception {
+        // Given
+        when(quoteService.findAllByLength(isNull(), eq(280), eq(LengthMetric.UTF8_BYTES), any(Pageable.class)))
+                .thenReturn(quoteList);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes")
+                        .param("maxLength", "280")
+                        .param("metric", "UTF8_BYTES"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void getAllQuotes_WithEmptyCursor_ShouldReturnFirstKeysetPageAndNextCursor() throws Exception {
+        // Given
+        SeekCursor next = new SeekCursor("textLength", Sort.Direction.ASC, "47", 2L);
+        when(quoteService.findAllAfter("textLength", Sort.Direction.ASC, null, 2))
+                .thenReturn(new SeekPage<>(quoteList, next));
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes")
+                        .param("cursor", "")
+                        .param("size", "2")
+                        .param("sort", "textLength,asc"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SeekCursor.HEADER, next.encode()))
+                .andExpect(jsonPath("$", hasSize(2)));
+
+        verify(quoteService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void getAllQuotes_WithCursorAndMatchingEtag_ShouldAnswerFromVersionsAlone() throws Exception {
+        // Given
+        SeekCursor next = new SeekCursor("id", Sort.Direction.DESC, "1", 1L);
+        when(quoteService.findAllAfter("id", Sort.Direction.DESC, null, 2))
+                .thenReturn(new SeekPage<>(quoteList, next));
+        when(quoteService.findVersionsAfter("id", Sort.Direction.DESC, null, 2))
+                .thenReturn(new SeekPage<>(quoteList.stream().map(QuoteVersion::of).toList(), next));
+        String etag = mockMvc.perform(get("/api/quotes").param("cursor", "").param("size", "2"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes").param("cursor", "").param("size", "2")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        verify(quoteService, times(1)).findAllAfter("id", Sort.Direction.DESC, null, 2);
+    }
+
+    @Test
+    void getAllQuotes_WithCursor_ShouldUseCursorSortAndOmitHeaderOnLastPage() throws Exception {
+        // Given
+        SeekCursor after = new SeekCursor("id", Sort.Direction.DESC, "3", 3L);
+        when(quoteService.findAllAfter("id", Sort.Direction.DESC, after, 10))
+                .thenReturn(new SeekPage<>(quoteList, null));
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes")
+                        .param("cursor", after.encode())
+                        .param("sort", "text,asc"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(SeekCursor.HEADER))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    void getAllQuotes_WithInvalidCursorRequest_ShouldReturnBadRequest() throws Exception {
+        // Given
+        when(quoteService.findAllAfter(eq("text"), any(), isNull(), anyInt()))
+                .thenThrow(new IllegalArgumentException("Unsupported keyset sort: text"));
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes").param("cursor", "%%%"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/quotes").param("cursor", "").param("maxLength", "50"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/quotes").param("cursor", "").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/quotes").param("cursor", "").param("sort", "text,asc"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportQuotes_ShouldStreamOneJsonObjectPerLine() throws Exception {
+        // Given
+        doAnswer(invocation -> {
+            Consumer<QuoteDTO> consumer = invocation.getArgument(0);
+            quoteList.forEach(consumer);
+            return null;
+        }).when(quoteService).forEachQuote(any());
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/api/quotes/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("quotes.ndjson")))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(objectMapper.writeValueAsString(quoteDTO1), lines[0]);
+        assertEquals(objectMapper.writeValueAsString(quoteDTO2), lines[1]);
+    }
+
+    @Test
+    void exportQuotes_AsCsv_ShouldQuoteTextFields() throws Exception {
+        // Given
+        quoteDTO2.setText("He said \"no\", twice");
+        doAnswer(invocation -> {
+            Consumer<QuoteDTO> consumer = invocation.getArgument(0);
+            quoteList.forEach(consumer);
+            return null;
+        }).when(quoteService).forEachQuote(any());
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/api/quotes/export").param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andExpect(content().string("""
+                        id,author_id,author,text
+                        1,1,"Albert Einstein","Imagination is more important than knowledge."
+                        2,1,"Albert Einstein","He said ""no"", twice"
+                        """));
+    }
+
+    @Test
+    void exportQuotes_WithUnknownFormat_ShouldReturnBadRequest() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/quotes/export").param("format", "xml"))
+                .andExpect(status().isBadRequest());
+
+        verify(quoteService, never()).forEachQuote(any());
+    }
+
     @Test
     void getQuoteById_WhenQuoteExists_ShouldReturnQuote() throws Exception {
         // Given
@@ -139,6 +323,57 @@ class QuoteControllerTest {
         verify(quoteService, times(1)).findById(1L);
     }
 
+    @Test
+    void getQuoteById_ShouldReturnEtagAndAnswerMatchesFromTheVersionAlone() throws Exception {
+        // Given
+        quoteDTO1.setUpdatedAt(LocalDateTime.of(2024, 5, 1, 12, 30));
+        when(quoteService.findById(1L)).thenReturn(quoteDTO1);
+        when(quoteService.findVersionById(1L)).thenAnswer(invocation -> QuoteVersion.of(quoteDTO1));
+
+        MvcResult result = mockMvc.perform(get("/api/quotes/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andExpect(jsonPath("$.updatedAt").doesNotExist())
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        verify(quoteService, times(1)).findById(1L);
+
+        quoteDTO1.setUpdatedAt(LocalDateTime.of(2024, 5, 2, 8, 0));
+        mockMvc.perform(get("/api/quotes/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+    }
+
+    @Test
+    void getAllQuotes_WithMatchingEtag_ShouldReturnNotModifiedUntilPageChanges() throws Exception {
+        // Given
+        when(quoteService.findAll(any(Pageable.class))).thenReturn(quoteList);
+        when(quoteService.findVersions(any(Pageable.class)))
+                .thenAnswer(invocation -> quoteList.stream().map(QuoteVersion::of).toList());
+        String etag = mockMvc.perform(get("/api/quotes"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        verify(quoteService, times(1)).findAll(any(Pageable.class));
+
+        authorDTO.setName("A. Einstein");
+        mockMvc.perform(get("/api/quotes").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
     @Test
     void getQuoteById_WhenQuoteDoesNotExist_ShouldReturnNotFound() throws Exception {
         // Given
@@ -231,7 +466,7 @@ class QuoteControllerTest {
         pairsCountDTO.setCount(pairsCount);
         pairsCountDTO.setMaxLength(maxLength);
 
-        when(quotePairService.countPairsWithMaxLength(maxLength)).thenReturn(pairsCount);
+        when(quotePairService.countPairsWithMaxLength(maxLength, LengthMetric.CHARACTERS)).thenReturn(pairsCount);
 
         // When & Then
         mockMvc.perform(get("/api/quotes/pairs/count/{maxLength}", maxLength)
@@ -240,7 +475,7 @@ class QuoteControllerTest {
                 .andExpect(jsonPath("$.count", is(5)))
                 .andExpect(jsonPath("$.maxLength", is(100)));
 
-        verify(quotePairService, times(1)).countPairsWithMaxLength(maxLength);
+        verify(quotePairService, times(1)).countPairsWithMaxLength(maxLength, LengthMetric.CHARACTERS);
     }
 
     @Test
@@ -248,7 +483,7 @@ class QuoteControllerTest {
         // Given
         int invalidMaxLength = -10;
 
-        when(quotePairService.countPairsWithMaxLength(invalidMaxLength))
+        when(quotePairService.countPairsWithMaxLength(invalidMaxLength, LengthMetric.CHARACTERS))
                 .thenThrow(new IllegalArgumentException("Maximum length must be positive"));
 
         // When & Then
@@ -256,6 +491,196 @@ class QuoteControllerTest {
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isInternalServerError());
 
-        verify(quotePairService, times(1)).countPairsWithMaxLength(invalidMaxLength);
+        verify(quotePairService, times(1)).countPairsWithMaxLength(invalidMaxLength, LengthMetric.CHARACTERS);
+    }
+
+    @Test
+    void countPairsWithMaxLength_WithFilters_ShouldCountSubset() throws Exception {
+        // Given
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        LocalDate to = LocalDate.of(2024, 1, 31);
+        when(quotePairService.countPairsWithMaxLength(100, LengthMetric.CHARACTERS, List.of(1L, 2L), from, to)).thenReturn(3L);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes/pairs/count/{maxLength}", 100)
+                        .param("authorId", "1", "2")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(3)));
+
+        verify(quotePairService, never()).countPairsWithMaxLength(anyInt(), any());
+    }
+
+    @Test
+    void countPairsWithMaxLength_WithMinLength_ShouldCountBand() throws Exception {
+        // Given
+        when(quotePairService.countPairsWithLengthBetween(50, 100, LengthMetric.CHARACTERS, null, null, null)).thenReturn(8L);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes/pairs/count/{maxLength}", 100).param("minLength", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(8)))
+                .andExpect(jsonPath("$.minLength", is(50)));
+    }
+
+    @Test
+    void countPairsWithMaxLength_WithMetric_ShouldCountByThatMetric() throws Exception {
+        // Given
+        when(quotePairService.countPairsWithMaxLength(20, LengthMetric.WORDS)).thenReturn(12L);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes/pairs/count/{maxLength}", 20).param("metric", "words"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.count", is(12)));
+
+        verify(quotePairService, never()).countPairsWithMaxLength(anyInt(), eq(LengthMetric.CHARACTERS));
+    }
+
+    @Test
+    void countPairsWithMaxLength_WithUnknownMetric_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/quotes/pairs/count/{maxLength}", 20).param("metric", "syllables"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(quotePairService);
+    }
+
+    @Test
+    void countTuples_ShouldReturnTupleCount() throws Exception {
+        // Given
+        TupleCountDTO tupleCountDTO = new TupleCountDTO();
+        tupleCountDTO.setCount(new BigInteger("123456789012345678901234"));
+        tupleCountDTO.setSize(4);
+        tupleCountDTO.setMaxLength(300);
+        when(quotePairService.countTuplesWithLengthBetween(4, 0, 300, LengthMetric.CHARACTERS)).thenReturn(tupleCountDTO);
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes/tuples/count").param("size", "4").param("maxLength", "300"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"count\":123456789012345678901234")))
+                .andExpect(jsonPath("$.size", is(4)));
+    }
+
+    @Test
+    void countTuples_WithUnsupportedSize_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/quotes/tuples/count").param("size", "5").param("maxLength", "300"))
+                .andExpect(status().isBadRequest());
+
+        verify(quotePairService, never()).countTuplesWithLengthBetween(anyInt(), anyInt(), anyInt(), any());
+    }
+
+    @Test
+    void countPairsWithMaxLengths_WithRange_ShouldReturnCountForEveryValue() throws Exception {
+        // Given
+        PairsCountDTO first = new PairsCountDTO();
+        first.setMaxLength(1);
+        first.setCount(0L);
+        PairsCountDTO second = new PairsCountDTO();
+        second.setMaxLength(2);
+        second.setCount(3L);
+        when(quotePairService.countPairsWithMaxLengths(List.of(1, 2), LengthMetric.CHARACTERS)).thenReturn(List.of(first, second));
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes/pairs/count")
+                        .param("from", "1")
+                        .param("to", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].maxLength", is(2)))
+                .andExpect(jsonPath("$[1].count", is(3)));
+
+        verify(quotePairService, times(1)).countPairsWithMaxLengths(List.of(1, 2), LengthMetric.CHARACTERS);
+    }
+
+    @Test
+    void countPairsWithMaxLengths_WithList_ShouldKeepRequestedOrder() throws Exception {
+        // Given
+        when(quotePairService.countPairsWithMaxLengths(List.of(50, 10), LengthMetric.CHARACTERS)).thenReturn(List.of());
+
+        // When & Then
+        mockMvc.perform(get("/api/quotes/pairs/count")
+                        .param("maxLength", "50", "10"))
+                .andExpect(status().isOk());
+
+        verify(quotePairService, times(1)).countPairsWithMaxLengths(List.of(50, 10), LengthMetric.CHARACTERS);
+    }
+
+    @Test
+    void countPairsWithMaxLengths_WithInvalidParameters_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/quotes/pairs/count"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/quotes/pairs/count").param("from", "10").param("to", "5"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/quotes/pairs/count").param("from", "0").param("to", "10000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/quotes/pairs/count").param("maxLength", "5").param("from", "1"))
+                .andExpect(status().isBadRequest());
+
+        verify(quotePairService, never()).countPairsWithMaxLengths(any(), any());
+    }
+
+    @Test
+    void listPairsWithMaxLength_ShouldStreamPairsAndNextCursor() throws Exception {
+        // Given
+        QuotePairCursor next = new QuotePairCursor(new LengthKey(3, 1L), new LengthKey(4, 2L));
+        when(quotePairService.forEachPair(eq(10), eq(LengthMetric.CHARACTERS), isNull(), eq(2), any())).thenAnswer(invocation -> {
+            BiConsumer<Long, Long> consumer = invocation.getArgument(4);
+            consumer.accept(1L, 5L);
+            consumer.accept(1L, 2L);
+            return next;
+        });
+
+        // When & Then
+        MvcResult result = mockMvc.perform(get("/api/quotes/pairs/{maxLength}", 10).param("limit", "2"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxLength", is(10)))
+                .andExpect(jsonPath("$.pairs", hasSize(2)))
+                .andExpect(jsonPath("$.pairs[0][1]", is(5)))
+                .andExpect(jsonPath("$.nextCursor", is(next.encode())));
+    }
+
+    @Test
+    void listPairsWithMaxLength_WithMalformedCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/quotes/pairs/{maxLength}", 10).param("cursor", "bm90LWEtY3Vyc29y"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/quotes/pairs/{maxLength}", 10).param("limit", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(quotePairService, never()).forEachPair(anyInt(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    void ingestQuotes_ShouldReturnAcceptedAndRejectedCounts() throws Exception {
+        // Given
+        IngestResultDTO result = new IngestResultDTO();
+        result.setAccepted(2);
+        result.setRejected(1);
+        when(quoteIngestService.ingest(any(InputStream.class), eq(true))).thenReturn(result);
+
+        // When & Then
+        mockMvc.perform(post("/api/quotes/ingest")
+                        .contentType("application/x-ndjson")
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .content(new byte[]{1, 2, 3}))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accepted", is(2)))
+                .andExpect(jsonPath("$.rejected", is(1)));
+
+        verify(quoteIngestService, times(1)).ingest(any(InputStream.class), eq(true));
+    }
+
+    @Test
+    void ingestQuotes_WhenEncodingIsUnsupported_ShouldReturnUnsupportedMediaType() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/quotes/ingest")
+                        .contentType("application/x-ndjson")
+                        .header(HttpHeaders.CONTENT_ENCODING, "br")
+                        .content("{}"))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(quoteIngestService, never()).ingest(any(InputStream.class), anyBoolean());
     }
-}
\ No newline at end of file
+}
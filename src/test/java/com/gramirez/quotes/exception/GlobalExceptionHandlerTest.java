@@ -49,6 +49,21 @@ class GlobalExceptionHandlerTest {
         assertNotNull(errorResponse.getTimestamp());
     }
 
+    @Test
+    void handleDuplicateQuoteException_ShouldReturnConflictStatus() {
+        String errorMessage = "Quote already exists with Id:2";
+        DuplicateQuoteException exception = new DuplicateQuoteException(errorMessage);
+
+        ResponseEntity<ErrorResponse> responseEntity = exceptionHandler.handleDuplicateQuoteException(exception);
+        ErrorResponse errorResponse = responseEntity.getBody();
+
+        assertEquals(HttpStatus.CONFLICT, responseEntity.getStatusCode());
+        assertNotNull(errorResponse);
+        assertEquals(HttpStatus.CONFLICT.value(), errorResponse.getStatus());
+        assertEquals(errorMessage, errorResponse.getMessage());
+        assertNotNull(errorResponse.getTimestamp());
+    }
+
     @Test
     void handleAuthorNotFoundException_ShouldReturnNotFoundStatus() {
         String errorMessage = "Author not found with id: 1";
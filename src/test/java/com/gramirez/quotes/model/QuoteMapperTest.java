@@ -71,6 +71,7 @@ class QuoteMapperTest {
         assertEquals(quote.getId(), result.getId());
         assertEquals(quote.getText(), result.getText());
         assertEquals(authorDTO, result.getAuthor());
+        assertEquals(now, result.getUpdatedAt());
 
 
         verify(authorMapper, times(1)).toDTO(author);
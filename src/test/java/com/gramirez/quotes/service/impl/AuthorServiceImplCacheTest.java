@@ -0,0 +1,89 @@
+package com.gramirez.quotes.service.impl;
+
+import com.gramirez.quotes.config.QuoteCacheConfig;
+import com.gramirez.quotes.dto.AuthorDTO;
+import com.gramirez.quotes.mapper.AuthorMapper;
+import com.gramirez.quotes.model.Author;
+import com.gramirez.quotes.repository.AuthorRepository;
+import com.gramirez.quotes.service.AuthorService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig({QuoteCacheConfig.class, AuthorServiceImpl.class, AuthorMapper.class})
+class AuthorServiceImplCacheTest {
+
+    @MockitoBean
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private AuthorService authorService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Author author;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        author = new Author();
+        author.setId(1L);
+        author.setName("Gabriel García Márquez");
+        when(authorRepository.findById(1L)).thenReturn(Optional.of(author));
+        when(authorRepository.existsById(1L)).thenReturn(true);
+        when(authorRepository.save(any(Author.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void findById_shouldReadThroughCache() {
+        // Act
+        AuthorDTO first = authorService.findById(1L);
+        AuthorDTO second = authorService.findById(1L);
+
+        // Assert
+        assertEquals(first, second);
+        verify(authorRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void update_shouldEvictAuthorAndCachedQuotes() {
+        // Arrange
+        authorService.findById(1L);
+        cacheManager.getCache(QuoteCacheConfig.QUOTES_CACHE).put(7L, "quote by the author");
+        AuthorDTO renamed = new AuthorDTO();
+        renamed.setName("Gabo");
+
+        // Act
+        authorService.update(1L, renamed);
+        AuthorDTO result = authorService.findById(1L);
+
+        // Assert
+        assertEquals("Gabo", result.getName());
+        assertNull(cacheManager.getCache(QuoteCacheConfig.QUOTES_CACHE).get(7L));
+        verify(authorRepository, times(3)).findById(1L);
+    }
+
+    @Test
+    void delete_shouldEvictAuthor() {
+        // Arrange
+        authorService.findById(1L);
+
+        // Act
+        authorService.delete(1L);
+        authorService.findById(1L);
+
+        // Assert
+        verify(authorRepository, times(2)).findById(1L);
+    }
+}
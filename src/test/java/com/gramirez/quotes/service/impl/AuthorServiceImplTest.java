@@ -5,6 +5,8 @@ import com.gramirez.quotes.exception.AuthorNotFoundException;
 import com.gramirez.quotes.mapper.AuthorMapper;
 import com.gramirez.quotes.model.Author;
 import com.gramirez.quotes.repository.AuthorRepository;
+import com.gramirez.quotes.utils.SeekCursor;
+import com.gramirez.quotes.utils.SeekPage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,6 +17,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.Arrays;
 import java.util.List;
@@ -22,6 +25,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -86,6 +90,24 @@ class AuthorServiceImplTest {
         verify(authorMapper, times(2)).toDTO(any(Author.class));
     }
 
+    @Test
+    void findAllAfter_shouldMapPageAndKeepNextCursor() {
+        // Arrange
+        SeekCursor after = new SeekCursor("name", Sort.Direction.ASC, "Borges", 2L);
+        SeekCursor next = new SeekCursor("name", Sort.Direction.ASC, "Jorge Luis Borges", 2L);
+        when(authorRepository.findAuthorsAfter("name", Sort.Direction.ASC, after, 2))
+                .thenReturn(new SeekPage<>(Arrays.asList(author1, author2), next));
+        when(authorMapper.toDTO(author1)).thenReturn(authorDTO1);
+        when(authorMapper.toDTO(author2)).thenReturn(authorDTO2);
+
+        // Act
+        SeekPage<AuthorDTO> result = authorService.findAllAfter("name", Sort.Direction.ASC, after, 2);
+
+        // Assert
+        assertEquals(List.of(authorDTO1, authorDTO2), result.items());
+        assertEquals(next, result.next());
+    }
+
     @Test
     void findById_whenAuthorExists_shouldReturnAuthor() {
         // Arrange
@@ -266,4 +288,27 @@ class AuthorServiceImplTest {
         verify(authorRepository, never()).save(any(Author.class));
     }
 
-}
\ No newline at end of file
+    @Test
+    void createAll_shouldSaveTrimmedNamesInOneCall() {
+        // Arrange
+        when(authorRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        List<Author> result = authorService.createAll(List.of(" Isabel Allende ", "Julio Cortázar"));
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Isabel Allende", result.get(0).getName());
+        assertEquals("Julio Cortázar", result.get(1).getName());
+        verify(authorRepository).saveAll(anyList());
+    }
+
+    @Test
+    void createAll_whenNameIsBlank_shouldThrowException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> {
+            authorService.createAll(List.of("Isabel Allende", " "));
+        });
+        verify(authorRepository, never()).saveAll(anyList());
+    }
+}
@@ -0,0 +1,160 @@
+package com.gramirez.quotes.service.impl;
+
+import com.gramirez.quotes.dto.CreateQuoteDTO;
+import com.gramirez.quotes.dto.IngestResultDTO;
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.service.QuoteService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteIngestServiceImplTest {
+
+    @Mock
+    private QuoteService quoteService;
+
+    private QuoteIngestServiceImpl ingestService;
+    private final List<List<CreateQuoteDTO>> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ingestService = new QuoteIngestServiceImpl(quoteService);
+        ReflectionTestUtils.setField(ingestService, "batchSize", 2);
+
+        lenient().when(quoteService.createBatch(anyList())).thenAnswer(invocation -> {
+            List<CreateQuoteDTO> batch = invocation.getArgument(0);
+            batches.add(new ArrayList<>(batch));
+            return batch.stream().map(dto -> new Quote()).toList();
+        });
+    }
+
+    private static ByteArrayInputStream body(String ndjson) {
+        return new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void ingest_shouldWriteValidLinesInBatchesAndCountRejected() {
+        String ndjson = """
+                {"Author": "Yoda", "Text": "Do, or do not."}
+                {"Author": "", "Text": "No author"}
+                {"Author": "Seneca", "Text": "Luck is what happens when preparation meets opportunity."}
+                {"Author": "Yoda", "Text": 42 ]}
+                {"Author": "Mark Twain", "Text": "The secret of getting ahead is getting started."}
+                """;
+
+        IngestResultDTO result = ingestService.ingest(body(ndjson), false);
+
+        assertEquals(3, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertNull(result.getError());
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).toList());
+        assertEquals("Mark Twain", batches.get(1).get(0).getAuthor());
+    }
+
+    @Test
+    void ingest_whenNdjsonLineIsBroken_shouldRejectItAndContinue() {
+        String ndjson = """
+                {"Author": "Yoda", "Text": "Do, or do not."}
+                oops {"Author": "Nobody", "Text": "Garbage before the object"}
+                {"Author": "Yoda", "Text": "Never closed
+                {"Author": "Mark Twain", "Text": "The secret of getting ahead is getting started."}
+                """;
+
+        IngestResultDTO result = ingestService.ingest(body(ndjson), false);
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(2, result.getRejected());
+        assertNull(result.getError());
+        assertEquals("Mark Twain", batches.get(0).get(1).getAuthor());
+    }
+
+    @Test
+    void ingest_shouldLimitTextByCodePointsNotChars() {
+        String emoji = "\uD83D\uDE00";
+        String ndjson = "{\"Author\": \"Yoda\", \"Text\": \"" + emoji.repeat(1000) + "\"}\n"
+                + "{\"Author\": \"Yoda\", \"Text\": \"" + emoji.repeat(1001) + "\"}\n";
+
+        IngestResultDTO result = ingestService.ingest(body(ndjson), false);
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(1, result.getRejected());
+    }
+
+    @Test
+    void ingest_whenObjectExceedsMaxSize_shouldRejectItAndContinue() {
+        ReflectionTestUtils.setField(ingestService, "maxObjectBytes", 256);
+        String ndjson = "{\"Author\": \"Yoda\", \"Text\": \"Do, or do not.\"}\n"
+                + "{\"Author\": \"Yoda\", \"Text\": \"" + "a".repeat(10_000) + "\n"
+                + "{\"Author\": \"Mark Twain\", \"Text\": \"The secret of getting ahead is getting started.\"}\n";
+
+        IngestResultDTO result = ingestService.ingest(body(ndjson), false);
+
+        assertEquals(2, result.getAccepted());
+        assertEquals(1, result.getRejected());
+        assertNull(result.getError());
+    }
+
+    @Test
+    void ingest_shouldDecompressGzipBodies() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write("{\"Author\": \"Yoda\", \"Text\": \"Do, or do not.\"}\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        IngestResultDTO result = ingestService.ingest(new ByteArrayInputStream(compressed.toByteArray()), true);
+
+        assertEquals(1, result.getAccepted());
+        assertNull(result.getError());
+    }
+
+    @Test
+    void ingest_whenStreamIsTruncated_shouldKeepEarlierRecordsAndReportError() {
+        IngestResultDTO result = ingestService.ingest(
+                body("{\"Author\": \"Yoda\", \"Text\": \"Do, or do not.\"}\n{\"Author\": \"Yo"), false);
+
+        assertEquals(1, result.getAccepted());
+        assertNotNull(result.getError());
+        verify(quoteService).createBatch(anyList());
+    }
+
+    @Test
+    void ingest_whenBatchFails_shouldCountItAsRejected() {
+        when(quoteService.createBatch(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        IngestResultDTO result = ingestService.ingest(
+                body("{\"Author\": \"Yoda\", \"Text\": \"Do, or do not.\"}\n"), false);
+
+        assertEquals(0, result.getAccepted());
+        assertEquals(1, result.getRejected());
+    }
+
+    @Test
+    void ingest_shouldReportQuotesSkippedAsDuplicates() {
+        when(quoteService.createBatch(anyList())).thenReturn(List.of(new Quote()));
+
+        IngestResultDTO result = ingestService.ingest(body("""
+                {"Author": "Yoda", "Text": "Do, or do not."}
+                {"Author": "Yoda", "Text": "do,  or do NOT."}
+                """), false);
+
+        assertEquals(1, result.getAccepted());
+        assertEquals(1, result.getDuplicates());
+        assertEquals(0, result.getRejected());
+    }
+}
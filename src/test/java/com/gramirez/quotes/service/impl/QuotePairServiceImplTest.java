@@ -1,19 +1,42 @@
 package com.gramirez.quotes.service.impl;
 
+import com.gramirez.quotes.dto.PairsCountDTO;
+import com.gramirez.quotes.dto.TupleCountDTO;
+import com.gramirez.quotes.repository.QuoteLengthKeyRepository.LengthKey;
 import com.gramirez.quotes.repository.QuoteRepository;
 import com.gramirez.quotes.service.QuotePairService;
+import com.gramirez.quotes.utils.LengthMetric;
+import com.gramirez.quotes.utils.QuoteLengthBuckets;
+import com.gramirez.quotes.utils.QuoteLengthHistogram;
+import com.gramirez.quotes.utils.QuotePairCursor;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 public class QuotePairServiceImplTest {
 
+    @Mock
+    private QuoteLengthHistogram quoteLengthHistogram;
+
+    @Mock
+    private QuoteLengthBuckets quoteLengthBuckets;
+
     @Mock
     private QuoteRepository quoteRepository;
 
@@ -22,42 +45,203 @@ public class QuotePairServiceImplTest {
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
-        quotePairService = new QuotePairServiceImpl(quoteRepository);
+        quotePairService = new QuotePairServiceImpl(quoteLengthHistogram, quoteLengthBuckets, quoteRepository);
     }
 
     @Test
     public void testCountPairsWithMaxLength_ReturnsCorrectCount() {
         int maxLength = 10;
         Long expectedCount =5L;
-        when(quoteRepository.countPossiblePairs(maxLength)).thenReturn(Optional.of(expectedCount));
+        when(quoteLengthHistogram.countPairs(LengthMetric.CHARACTERS, maxLength)).thenReturn(expectedCount);
 
-        Long actualCount = quotePairService.countPairsWithMaxLength(maxLength);
+        Long actualCount = quotePairService.countPairsWithMaxLength(maxLength, LengthMetric.CHARACTERS);
 
-        assertEquals(expectedCount, actualCount, "The count should match the value returned by the repository");
-        verify(quoteRepository, times(1)).countPossiblePairs(maxLength);
+        assertEquals(expectedCount, actualCount, "The count should match the value returned by the histogram");
+        verify(quoteLengthHistogram, times(1)).countPairs(LengthMetric.CHARACTERS, maxLength);
     }
 
     @Test
     public void testCountPairsWithMaxLength_WithZeroLength() {
         int maxLength = 0;
         Long expectedCount = 0L;
-        when(quoteRepository.countPossiblePairs(maxLength)).thenReturn(Optional.of(expectedCount));
+        when(quoteLengthHistogram.countPairs(LengthMetric.CHARACTERS, maxLength)).thenReturn(expectedCount);
 
-        Long actualCount = quotePairService.countPairsWithMaxLength(maxLength);
+        Long actualCount = quotePairService.countPairsWithMaxLength(maxLength, LengthMetric.CHARACTERS);
 
         assertEquals(expectedCount, actualCount, "Should return 0 for maxLength of 0");
-        verify(quoteRepository, times(1)).countPossiblePairs(maxLength);
+        verify(quoteLengthHistogram, times(1)).countPairs(LengthMetric.CHARACTERS, maxLength);
     }
 
     @Test
     public void testCountPairsWithMaxLength_WithNegativeLength() {
         int maxLength = -5;
         Long expectedCount = 0L;
-        when(quoteRepository.countPossiblePairs(maxLength)).thenReturn(Optional.of(expectedCount));
+        when(quoteLengthHistogram.countPairs(LengthMetric.CHARACTERS, maxLength)).thenReturn(expectedCount);
 
-        Long actualCount = quotePairService.countPairsWithMaxLength(maxLength);
+        Long actualCount = quotePairService.countPairsWithMaxLength(maxLength, LengthMetric.CHARACTERS);
 
         assertEquals(expectedCount, actualCount, "Should handle negative maxLength properly");
-        verify(quoteRepository, times(1)).countPossiblePairs(maxLength);
+        verify(quoteLengthHistogram, times(1)).countPairs(LengthMetric.CHARACTERS, maxLength);
+    }
+
+    @Test
+    public void testCountPairsWithMaxLength_WithFilters_UsesLengthBuckets() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        when(quoteLengthBuckets.countPairs(LengthMetric.CHARACTERS, 10, List.of(3L), from, null)).thenReturn(4L);
+
+        Long actualCount = quotePairService.countPairsWithMaxLength(10, LengthMetric.CHARACTERS, List.of(3L), from, null);
+
+        assertEquals(4L, actualCount);
+        verifyNoInteractions(quoteLengthHistogram);
+    }
+
+    @Test
+    public void testCountPairsWithMaxLength_WithoutFilters_UsesHistogram() {
+        when(quoteLengthHistogram.countPairs(LengthMetric.CHARACTERS, 10)).thenReturn(6L);
+
+        Long actualCount = quotePairService.countPairsWithMaxLength(10, LengthMetric.CHARACTERS, List.of(), null, null);
+
+        assertEquals(6L, actualCount);
+        verifyNoInteractions(quoteLengthBuckets);
+    }
+
+    @Test
+    public void testCountPairsWithMaxLength_FromDatabase_UsesLengthStats() {
+        ReflectionTestUtils.setField(quotePairService, "source", "database");
+        when(quoteRepository.countPossiblePairs(10, "characters")).thenReturn(Optional.of(7L));
+
+        Long actualCount = quotePairService.countPairsWithMaxLength(10, LengthMetric.CHARACTERS);
+
+        assertEquals(7L, actualCount);
+        verifyNoInteractions(quoteLengthHistogram);
+    }
+
+    @Test
+    public void testCountPairsWithMaxLength_FromDatabase_ReadsMetricStats() {
+        ReflectionTestUtils.setField(quotePairService, "source", "database");
+        when(quoteRepository.countPossiblePairs(200, "utf8_bytes")).thenReturn(Optional.of(2L));
+
+        Long actualCount = quotePairService.countPairsWithMaxLength(200, LengthMetric.UTF8_BYTES);
+
+        assertEquals(2L, actualCount);
+        verify(quoteRepository, never()).countPossiblePairs(200, "characters");
+    }
+
+    @Test
+    public void testCountPairsWithMaxLengths_FromDatabase_BuildsTableFromLengthStats() {
+        ReflectionTestUtils.setField(quotePairService, "source", "database");
+        when(quoteRepository.countByLength("characters")).thenReturn(List.of(new Object[]{2, 3L}, new Object[]{5, 1L}));
+
+        List<PairsCountDTO> counts = quotePairService.countPairsWithMaxLengths(List.of(3, 4, 7, 10), LengthMetric.CHARACTERS);
+
+        assertEquals(List.of(0L, 3L, 6L, 6L), counts.stream().map(PairsCountDTO::getCount).toList());
+        assertEquals(List.of(3, 4, 7, 10), counts.stream().map(PairsCountDTO::getMaxLength).toList());
+        verifyNoInteractions(quoteLengthHistogram);
+    }
+
+    private List<LengthKey> stubQuotes(int count, long seed) {
+        Random random = new Random(seed);
+        List<LengthKey> keys = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            keys.add(new LengthKey(random.nextInt(60), id));
+        }
+        keys.sort(Comparator.comparingInt(LengthKey::length).thenComparingLong(LengthKey::id));
+
+        when(quoteRepository.streamLengthKeysAfter(any(LengthKey.class), anyInt(), eq(LengthMetric.CHARACTERS))).thenAnswer(invocation -> {
+            LengthKey after = invocation.getArgument(0);
+            int maxLength = invocation.getArgument(1);
+            return keys.stream().filter(key -> key.length() <= maxLength
+                    && (key.length() > after.length()
+                    || key.length() == after.length() && key.id() > after.id()));
+        });
+        return keys;
+    }
+
+    private static List<String> bruteForcePairs(List<LengthKey> keys, int maxLength) {
+        List<String> pairs = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            for (int j = i + 1; j < keys.size(); j++) {
+                if (keys.get(i).length() + keys.get(j).length() <= maxLength) {
+                    pairs.add(Math.min(keys.get(i).id(), keys.get(j).id()) + "-" + Math.max(keys.get(i).id(), keys.get(j).id()));
+                }
+            }
+        }
+        pairs.sort(null);
+        return pairs;
+    }
+
+    @Test
+    public void testForEachPair_AcrossPages_ReturnsEveryPairOnce() {
+        List<LengthKey> keys = stubQuotes(80, 5);
+        List<String> pairs = new ArrayList<>();
+        QuotePairCursor cursor = null;
+        int pages = 0;
+
+        do {
+            List<String> page = new ArrayList<>();
+            cursor = quotePairService.forEachPair(50, LengthMetric.CHARACTERS, cursor, 37,
+                    (first, second) -> page.add(Math.min(first, second) + "-" + Math.max(first, second)));
+            assertTrue(page.size() <= 37);
+            pairs.addAll(page);
+            pages++;
+        } while (cursor != null);
+
+        pairs.sort(null);
+        assertEquals(bruteForcePairs(keys, 50), pairs);
+        assertEquals((pairs.size() + 36) / 37, pages);
+        // One range scan per page, not one per first quote
+        verify(quoteRepository, times(pages)).streamLengthKeysAfter(any(LengthKey.class), anyInt(), eq(LengthMetric.CHARACTERS));
+    }
+
+    @Test
+    public void testForEachPair_WithCursorRoundTrip_ResumesAfterLastPair() {
+        stubQuotes(30, 9);
+        List<Long> firstPage = new ArrayList<>();
+        QuotePairCursor cursor = quotePairService.forEachPair(40, LengthMetric.CHARACTERS, null, 5, (first, second) -> firstPage.add(second));
+
+        QuotePairCursor decoded = QuotePairCursor.decode(cursor.encode());
+        List<Long> secondPage = new ArrayList<>();
+        quotePairService.forEachPair(40, LengthMetric.CHARACTERS, decoded, 5, (first, second) -> secondPage.add(second));
+
+        assertEquals(cursor, decoded);
+        assertEquals(5, secondPage.size());
+        assertNotEquals(firstPage, secondPage);
+    }
+
+    @Test
+    public void testForEachPair_WithNegativeMaxLength_ReturnsNothing() {
+        QuotePairCursor cursor = quotePairService.forEachPair(-1, LengthMetric.CHARACTERS, null, 10, (first, second) -> fail());
+
+        assertNull(cursor);
+        verifyNoInteractions(quoteRepository);
+    }
+
+    @Test
+    public void testCountPairsWithLengthBetween_WithFilters_SubtractsLowerBound() {
+        when(quoteLengthBuckets.countPairs(LengthMetric.WORDS, 50, List.of(1L), null, null)).thenReturn(10L);
+        when(quoteLengthBuckets.countPairs(LengthMetric.WORDS, 19, List.of(1L), null, null)).thenReturn(4L);
+
+        Long actualCount = quotePairService.countPairsWithLengthBetween(20, 50, LengthMetric.WORDS, List.of(1L), null, null);
+
+        assertEquals(6L, actualCount);
+    }
+
+    @Test
+    public void testCountPairsWithLengthBetween_WithEmptyBand_ReturnsZero() {
+        assertEquals(0L, quotePairService.countPairsWithLengthBetween(60, 50, LengthMetric.CHARACTERS, null, null, null));
+        verifyNoInteractions(quoteLengthHistogram, quoteLengthBuckets);
+    }
+
+    @Test
+    public void testCountTuplesWithLengthBetween_FromDatabase_UsesLengthStats() {
+        ReflectionTestUtils.setField(quotePairService, "source", "database");
+        when(quoteRepository.countByLength("characters")).thenReturn(List.<Object[]>of(new Object[]{10, 5L}));
+
+        TupleCountDTO result = quotePairService.countTuplesWithLengthBetween(3, 0, 30, LengthMetric.CHARACTERS);
+
+        assertEquals(BigInteger.TEN, result.getCount());
+        assertEquals(3, result.getSize());
+        assertEquals(30, result.getMaxLength());
+        verifyNoInteractions(quoteLengthHistogram);
     }
-}
\ No newline at end of file
+}
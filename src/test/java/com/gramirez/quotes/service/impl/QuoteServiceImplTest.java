@@ -2,12 +2,19 @@ package com.gramirez.quotes.service.impl;
 
 import com.gramirez.quotes.dto.CreateQuoteDTO;
 import com.gramirez.quotes.dto.QuoteDTO;
+import com.gramirez.quotes.exception.DuplicateQuoteException;
 import com.gramirez.quotes.exception.QuoteNotFoundException;
 import com.gramirez.quotes.mapper.QuoteMapper;
 import com.gramirez.quotes.model.Author;
 import com.gramirez.quotes.model.Quote;
 import com.gramirez.quotes.repository.QuoteRepository;
+import com.gramirez.quotes.repository.QuoteUpsertRepository.StoredQuote;
 import com.gramirez.quotes.service.AuthorService;
+import com.gramirez.quotes.utils.QuoteContentHash;
+import com.gramirez.quotes.utils.LengthMetric;
+import com.gramirez.quotes.utils.QuoteLengthBuckets;
+import com.gramirez.quotes.utils.QuoteLengthHistogram;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -18,15 +25,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -42,6 +54,15 @@ public class QuoteServiceImplTest {
     @Mock
     private QuoteMapper quoteMapper;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private QuoteLengthHistogram quoteLengthHistogram;
+
+    @Mock
+    private QuoteLengthBuckets quoteLengthBuckets;
+
     @InjectMocks
     private QuoteServiceImpl quoteService;
 
@@ -113,6 +134,23 @@ public class QuoteServiceImplTest {
         verify(quoteMapper, times(2)).toDto(any(Quote.class));
     }
 
+    @Test
+    void findAllByLength_WithOpenUpperBound_ShouldQueryUpToMaxValue() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10);
+        Page<Quote> quotePage = new PageImpl<>(List.of(quote2), pageable, 1);
+
+        when(quoteRepository.findByTextLengthBetween(60, Integer.MAX_VALUE, pageable)).thenReturn(quotePage);
+        when(quoteMapper.toDto(quote2)).thenReturn(quoteDTO2);
+
+        // Act
+        List<QuoteDTO> result = quoteService.findAllByLength(60, null, LengthMetric.CHARACTERS, pageable);
+
+        // Assert
+        assertEquals(List.of(quoteDTO2), result);
+        verify(quoteRepository).findByTextLengthBetween(60, Integer.MAX_VALUE, pageable);
+    }
+
     @Test
     void findById_WithExistingId_ShouldReturnQuoteDTO() {
         // Arrange
@@ -182,6 +220,8 @@ public class QuoteServiceImplTest {
         verify(authorService).findOrCreateByName("Albert Einstein");
         verify(quoteRepository).save(quote1);
         verify(quoteMapper).toDto(quote1);
+        verify(quoteLengthHistogram).recordUpdated(
+                "La imaginación es más importante que el conocimiento.", "Texto actualizado");
     }
 
     @Test
@@ -205,27 +245,240 @@ public class QuoteServiceImplTest {
     @Test
     void delete_WithExistingId_ShouldDeleteQuote() {
         // Arrange
-        when(quoteRepository.existsById(1L)).thenReturn(true);
-        doNothing().when(quoteRepository).deleteById(1L);
+        when(quoteRepository.findById(1L)).thenReturn(Optional.of(quote1));
+        doNothing().when(quoteRepository).delete(quote1);
 
         // Act
         quoteService.delete(1L);
 
         // Assert
-        verify(quoteRepository).existsById(1L);
-        verify(quoteRepository).deleteById(1L);
+        verify(quoteRepository).findById(1L);
+        verify(quoteRepository).delete(quote1);
+        verify(quoteLengthHistogram).recordDeleted(quote1.getText());
+        verify(quoteLengthBuckets).recordDeleted(quote1);
     }
 
     @Test
     void delete_WithNonExistingId_ShouldThrowException() {
         // Arrange
-        when(quoteRepository.existsById(999L)).thenReturn(false);
+        when(quoteRepository.findById(999L)).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(QuoteNotFoundException.class, () -> {
             quoteService.delete(999L);
         });
-        verify(quoteRepository).existsById(999L);
-        verify(quoteRepository, never()).deleteById(anyLong());
+        verify(quoteRepository).findById(999L);
+        verify(quoteRepository, never()).delete(any(Quote.class));
+        verify(quoteLengthHistogram, never()).recordDeleted(any());
+    }
+
+    @Test
+    void forEachQuote_ShouldMapQuotesInOrderAndCloseStream() {
+        // Arrange
+        AtomicBoolean closed = new AtomicBoolean();
+        when(quoteRepository.streamAllWithAuthor())
+                .thenReturn(Stream.of(quote1, quote2).onClose(() -> closed.set(true)));
+        when(quoteMapper.toDto(quote1)).thenReturn(quoteDTO1);
+        when(quoteMapper.toDto(quote2)).thenReturn(quoteDTO2);
+        List<QuoteDTO> exported = new ArrayList<>();
+
+        // Act
+        quoteService.forEachQuote(exported::add);
+
+        // Assert
+        assertEquals(List.of(quoteDTO1, quoteDTO2), exported);
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void forEachQuote_ShouldClearPersistenceContextAsItGoes() {
+        // Arrange
+        when(quoteRepository.streamAllWithAuthor())
+                .thenReturn(Stream.generate(() -> quote1).limit(1200));
+        when(quoteMapper.toDto(quote1)).thenReturn(quoteDTO1);
+        ReflectionTestUtils.setField(quoteService, "entityManager", entityManager);
+
+        // Act
+        quoteService.forEachQuote(quote -> { });
+
+        // Assert
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void upsertBatch_ShouldStampQuotesAndReturnWrittenRows() {
+        // Arrange
+        Quote imported = new Quote();
+        imported.setSourceId(42L);
+        imported.setText("Imagination is more important than knowledge.");
+        imported.setAuthor(author);
+        when(quoteRepository.upsertBySourceId(anyList())).thenReturn(0);
+
+        // Act
+        int written = quoteService.upsertBatch(List.of(imported));
+
+        // Assert
+        assertEquals(0, written);
+        assertNotNull(imported.getCreatedAt());
+        assertNotNull(imported.getUpdatedAt());
+        verify(quoteRepository).upsertBySourceId(List.of(imported));
+        verify(quoteRepository, never()).save(any(Quote.class));
+    }
+
+    @Test
+    void upsertBatch_WhenRowsWrittenAreUnknown_ShouldRecordWithoutCountingThem() {
+        // Arrange
+        Quote imported = new Quote();
+        imported.setSourceId(42L);
+        imported.setText("Imagination is more important than knowledge.");
+        imported.setAuthor(author);
+        when(quoteRepository.upsertBySourceId(anyList())).thenReturn(QuoteRepository.UNKNOWN_ROWS_WRITTEN);
+
+        // Act
+        int written = quoteService.upsertBatch(List.of(imported));
+
+        // Assert
+        assertEquals(0, written);
+        verify(quoteLengthHistogram).recordCreated(imported.getText());
+        verify(quoteLengthBuckets).recordCreated(imported);
+        verify(quoteLengthBuckets, never()).invalidate();
+    }
+
+    @Test
+    void upsertBatch_ShouldRecordWhatEachUpdatedQuoteReplaced() {
+        // Arrange
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 10, 0);
+        Quote edited = new Quote();
+        edited.setSourceId(1L);
+        edited.setText("Imagination is more important than knowledge.");
+        edited.setAuthor(author);
+        Quote unchanged = new Quote();
+        unchanged.setSourceId(2L);
+        unchanged.setText(quote2.getText());
+        unchanged.setAuthor(author);
+        when(quoteRepository.lockBySourceIds(List.of(1L, 2L))).thenReturn(List.of(
+                new StoredQuote(1L, author.getId(), createdAt, "Imagination is more important."),
+                new StoredQuote(2L, author.getId(), createdAt, quote2.getText())));
+        when(quoteRepository.upsertBySourceId(anyList())).thenReturn(1);
+
+        // Act
+        int written = quoteService.upsertBatch(List.of(edited, unchanged));
+
+        // Assert
+        assertEquals(1, written);
+        assertEquals(createdAt, edited.getCreatedAt());
+        verify(quoteLengthHistogram).recordUpdated("Imagination is more important.", edited.getText());
+        verify(quoteLengthBuckets).recordUpdated(author.getId(), "Imagination is more important.", edited);
+        verify(quoteLengthBuckets, never()).recordUpdated(any(), any(), eq(unchanged));
+        verify(quoteLengthBuckets, never()).recordCreated(any());
+        verify(quoteLengthBuckets, never()).invalidate();
+    }
+
+    @Test
+    void upsertBatch_ShouldSkipContentAlreadyStoredOrRepeatedInBatch() {
+        // Arrange
+        Quote stored = new Quote();
+        stored.setSourceId(1L);
+        stored.setText(quote2.getText());
+        stored.setAuthor(author);
+        Quote fresh = new Quote();
+        fresh.setSourceId(2L);
+        fresh.setText("Imagination is more important than knowledge.");
+        fresh.setAuthor(author);
+        Quote repeated = new Quote();
+        repeated.setSourceId(3L);
+        repeated.setText(" imagination is more important than KNOWLEDGE. ");
+        repeated.setAuthor(author);
+        when(quoteRepository.findContentKeys(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{author.getId(), QuoteContentHash.of(quote2.getText()), 99L}));
+        when(quoteRepository.upsertBySourceId(anyList())).thenReturn(1);
+
+        // Act
+        int written = quoteService.upsertBatch(List.of(stored, fresh, repeated));
+
+        // Assert
+        assertEquals(1, written);
+        verify(quoteRepository).upsertBySourceId(List.of(fresh));
+    }
+
+    @Test
+    void upsertBatch_WhenContentIsStoredUnderSameSourceId_ShouldLeaveItToTheUpsert() {
+        // Arrange
+        Quote respaced = new Quote();
+        respaced.setSourceId(7L);
+        respaced.setText("  " + quote2.getText().replace(" ", "  "));
+        respaced.setAuthor(author);
+        when(quoteRepository.findContentKeys(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{author.getId(), QuoteContentHash.of(quote2.getText()), 7L}));
+        when(quoteRepository.upsertBySourceId(anyList())).thenReturn(1);
+
+        // Act
+        int written = quoteService.upsertBatch(List.of(respaced));
+
+        // Assert
+        assertEquals(1, written);
+        verify(quoteRepository).upsertBySourceId(List.of(respaced));
+    }
+
+    @Test
+    void update_WithContentOfAnotherQuote_ShouldThrowDuplicateQuoteException() {
+        // Arrange
+        when(quoteRepository.findById(1L)).thenReturn(Optional.of(quote1));
+        when(authorService.findOrCreateByName(anyString())).thenReturn(author);
+        when(quoteRepository.findFirstByAuthorAndContentHash(eq(author), any(byte[].class)))
+                .thenReturn(Optional.of(quote2));
+
+        CreateQuoteDTO updateDTO = new CreateQuoteDTO();
+        updateDTO.setText(quote2.getText());
+        updateDTO.setAuthor("Albert Einstein");
+
+        // Act & Assert
+        assertThrows(DuplicateQuoteException.class, () -> quoteService.update(1L, updateDTO));
+        verify(quoteRepository, never()).save(any(Quote.class));
+        assertEquals("La imaginación es más importante que el conocimiento.", quote1.getText());
+    }
+
+    @Test
+    void create_WithDuplicateContent_ShouldReturnExistingQuote() {
+        // Arrange
+        createQuoteDTO.setText("  " + quote1.getText().toUpperCase() + " ");
+        when(authorService.findOrCreateByName(anyString())).thenReturn(author);
+        when(quoteRepository.findFirstByAuthorAndContentHash(eq(author), any(byte[].class)))
+                .thenReturn(Optional.of(quote1));
+        when(quoteMapper.toDto(quote1)).thenReturn(quoteDTO1);
+
+        // Act
+        QuoteDTO result = quoteService.create(createQuoteDTO);
+
+        // Assert
+        assertEquals(quoteDTO1, result);
+        verify(quoteRepository, never()).save(any(Quote.class));
+    }
+
+    @Test
+    void createBatch_ShouldSkipDuplicatesWithinBatchAndAlreadyStored() {
+        // Arrange
+        CreateQuoteDTO stored = new CreateQuoteDTO();
+        stored.setAuthor("Albert Einstein");
+        stored.setText(quote1.getText());
+        CreateQuoteDTO fresh = new CreateQuoteDTO();
+        fresh.setAuthor("Albert Einstein");
+        fresh.setText("Life is like riding a bicycle.");
+        CreateQuoteDTO repeated = new CreateQuoteDTO();
+        repeated.setAuthor("Albert Einstein");
+        repeated.setText("life is like  riding a bicycle.");
+
+        ReflectionTestUtils.setField(quoteService, "entityManager", entityManager);
+        when(authorService.findOrCreateByName(anyString())).thenReturn(author);
+        when(quoteRepository.findContentKeys(anyCollection())).thenReturn(List.<Object[]>of(
+                new Object[]{author.getId(), QuoteContentHash.of(quote1.getText())}));
+
+        // Act
+        List<Quote> result = quoteService.createBatch(List.of(stored, fresh, repeated));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Life is like riding a bicycle.", result.get(0).getText());
+        verify(entityManager).persist(result.get(0));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.model.Author;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AuthorDictionaryTest {
+
+    private final List<List<String>> creations = new ArrayList<>();
+
+    private static Author author(long id, String name) {
+        Author author = new Author();
+        author.setId(id);
+        author.setName(name);
+        return author;
+    }
+
+    private AuthorDictionary dictionary(Author... existing) {
+        return new AuthorDictionary(List.of(existing), names -> {
+            creations.add(names);
+            List<Author> created = new ArrayList<>();
+            for (String name : names) {
+                created.add(author(100 + created.size(), name));
+            }
+            return created;
+        });
+    }
+
+    @Test
+    void resolve_whenAllAuthorsArePreloaded_shouldNotCreateAnything() {
+        AuthorDictionary authors = dictionary(author(1, "Yoda"), author(2, "Albert Einstein"));
+
+        Map<String, Author> resolved = authors.resolve(List.of("YODA", " albert einstein", "Yoda"));
+
+        assertEquals(1L, resolved.get("yoda").getId());
+        assertEquals(2L, resolved.get("albert einstein").getId());
+        assertTrue(creations.isEmpty());
+    }
+
+    @Test
+    void resolve_shouldCreateMissingAuthorsOnceInASingleCall() {
+        AuthorDictionary authors = dictionary(author(1, "Yoda"));
+
+        authors.resolve(List.of("Yoda", "Mark Twain", "Seneca", "mark twain"));
+        Map<String, Author> again = authors.resolve(List.of("Seneca", "Mark Twain"));
+
+        assertEquals(List.of(List.of("Mark Twain", "Seneca")), creations);
+        assertEquals("Seneca", again.get("seneca").getName());
+        assertEquals(3, authors.size());
+    }
+}
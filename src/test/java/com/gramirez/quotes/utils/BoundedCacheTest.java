@@ -0,0 +1,108 @@
+package com.gramirez.quotes.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void get_shouldCountHitsAndMisses() {
+        BoundedCache cache = new BoundedCache("quotes", 10, Duration.ofMinutes(1), now::get);
+
+        assertNull(cache.get(1L));
+        cache.put(1L, "first");
+        Cache.ValueWrapper cached = cache.get(1L);
+
+        assertNotNull(cached);
+        assertEquals("first", cached.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.putCount());
+    }
+
+    @Test
+    void put_whenFull_shouldEvictLeastRecentlyRead() {
+        BoundedCache cache = new BoundedCache("quotes", 2, Duration.ofMinutes(1), now::get);
+        cache.put(1L, "first");
+        cache.put(2L, "second");
+        cache.get(1L);
+
+        cache.put(3L, "third");
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(3L));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void get_afterTtl_shouldExpireEntry() {
+        BoundedCache cache = new BoundedCache("quotes", 10, Duration.ofSeconds(30), now::get);
+        cache.put(1L, "first");
+
+        now.addAndGet(Duration.ofSeconds(29).toNanos());
+        assertNotNull(cache.get(1L));
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.evictionCount());
+    }
+
+    @Test
+    void get_withLoader_shouldLoadOnlyOnMiss() {
+        BoundedCache cache = new BoundedCache("quotes", 10, Duration.ofMinutes(1), now::get);
+        AtomicLong loads = new AtomicLong();
+
+        assertEquals("loaded", cache.get(1L, () -> {
+            loads.incrementAndGet();
+            return "loaded";
+        }));
+        assertEquals("loaded", cache.get(1L, () -> "reloaded"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_withLoader_whenEvictedWhileLoading_shouldNotStoreTheLoadedValue() {
+        BoundedCache cache = new BoundedCache("quotes", 10, Duration.ofMinutes(1), now::get);
+
+        Object loaded = cache.get(1L, () -> {
+            // A committed update evicts the key while this load still holds the old row
+            cache.evict(1L);
+            return "old";
+        });
+
+        assertEquals("old", loaded);
+        assertNull(cache.get(1L));
+        assertEquals("new", cache.get(1L, () -> "new"));
+        assertEquals("new", cache.get(1L).get());
+    }
+
+    @Test
+    void evictAndClear_outsideTransaction_shouldApplyImmediately() {
+        BoundedCache cache = new BoundedCache("quotes", 10, Duration.ofMinutes(1), now::get);
+        cache.put(1L, "first");
+        cache.put(2L, "second");
+
+        cache.evict(1L);
+        assertNull(cache.get(1L));
+        assertEquals(1, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache("quotes", 0, Duration.ofMinutes(1)));
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache("quotes", 10, Duration.ZERO));
+    }
+}
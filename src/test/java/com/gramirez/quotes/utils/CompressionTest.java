@@ -0,0 +1,78 @@
+package com.gramirez.quotes.utils;
+
+import com.github.luben.zstd.ZstdOutputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZOutputStream;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+
+    private static final String JSON = "[{\"Id\":0,\"Author\":\"Yoda\",\"Text\":\"Do, or do not.\"}]";
+
+    @TempDir
+    Path tempDir;
+
+    private interface Compressor {
+        OutputStream wrap(OutputStream out) throws IOException;
+    }
+
+    private static byte[] compress(Compressor compressor) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = compressor.wrap(bytes)) {
+            out.write(JSON.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void assertRoundTrip(Compression expected, byte[] data) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(data));
+
+        assertEquals(expected, Compression.detect(in));
+        try (InputStream decompressed = Compression.decompressing(in)) {
+            assertEquals(JSON, new String(decompressed.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void decompressing_shouldPassPlainJsonThrough() throws IOException {
+        assertRoundTrip(Compression.NONE, JSON.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void decompressing_shouldDetectGzip() throws IOException {
+        assertRoundTrip(Compression.GZIP, compress(GZIPOutputStream::new));
+    }
+
+    @Test
+    void decompressing_shouldDetectZstd() throws IOException {
+        assertRoundTrip(Compression.ZSTD, compress(ZstdOutputStream::new));
+    }
+
+    @Test
+    void decompressing_shouldDetectXz() throws IOException {
+        assertRoundTrip(Compression.XZ, compress(out -> new XZOutputStream(out, new LZMA2Options())));
+    }
+
+    @Test
+    void detect_shouldReadMagicBytesFromFiles() throws IOException {
+        Path compressed = Files.write(tempDir.resolve("quotes.json"), compress(GZIPOutputStream::new));
+        Path tiny = Files.write(tempDir.resolve("tiny.json"), new byte[]{'['});
+
+        assertEquals(Compression.GZIP, Compression.detect(compressed));
+        assertEquals(Compression.NONE, Compression.detect(tiny));
+    }
+}
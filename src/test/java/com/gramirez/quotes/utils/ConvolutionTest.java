@@ -0,0 +1,45 @@
+package com.gramirez.quotes.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConvolutionTest {
+
+    private static long[] naive(long[] values) {
+        long[] result = new long[2 * values.length - 1];
+        for (int a = 0; a < values.length; a++) {
+            for (int b = 0; b < values.length; b++) {
+                result[a + b] += values[a] * values[b];
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void selfConvolve_shouldMatchNaiveConvolution() {
+        Random random = new Random(3);
+        for (int length : new int[]{1, 2, 3, 17, 1001}) {
+            long[] values = new long[length];
+            for (int i = 0; i < length; i++) {
+                values[i] = random.nextInt(1000);
+            }
+            assertArrayEquals(naive(values), Convolution.selfConvolve(values), "length " + length);
+        }
+    }
+
+    @Test
+    void selfConvolve_shouldStayExactBeyondDoublePrecision() {
+        // Products around 10^18 are far beyond 2^53, where a floating-point FFT starts rounding
+        long[] values = {1_000_000_007L, 999_999_937L, 3L};
+
+        assertArrayEquals(naive(values), Convolution.selfConvolve(values));
+    }
+
+    @Test
+    void selfConvolve_ofEmptyInput_shouldBeEmpty() {
+        assertEquals(0, Convolution.selfConvolve(new long[0]).length);
+    }
+}
@@ -0,0 +1,114 @@
+package com.gramirez.quotes.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonObjectScannerTest {
+
+    private JsonObjectScanner scanner(String json) {
+        return new JsonObjectScanner(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String next(JsonObjectScanner scanner) throws IOException {
+        byte[] object = scanner.nextObject();
+        return object == null ? null : new String(object, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void nextObject_shouldSplitArrayIntoObjects() throws IOException {
+        JsonObjectScanner scanner = scanner("[{\"Id\":0,\"Text\":\"a\"}, {\"Id\":1,\"Text\":\"b\"}]");
+
+        assertEquals("{\"Id\":0,\"Text\":\"a\"}", next(scanner));
+        assertEquals("{\"Id\":1,\"Text\":\"b\"}", next(scanner));
+        assertNull(next(scanner));
+    }
+
+    @Test
+    void nextObject_shouldIgnoreBracesAndQuotesInsideStrings() throws IOException {
+        String object = "{\"Text\":\"curly } { and \\\"quoted\\\" \\\\\",\"Author\":\"x\"}";
+        JsonObjectScanner scanner = scanner("[" + object + "]");
+
+        assertEquals(object, next(scanner));
+        assertNull(next(scanner));
+    }
+
+    @Test
+    void nextObject_shouldTrackOffsets() throws IOException {
+        JsonObjectScanner scanner = scanner("[{\"a\":1},\n{\"b\":2}]");
+
+        next(scanner);
+        assertEquals(1, scanner.objectStart());
+        assertEquals(8, scanner.position());
+        next(scanner);
+        assertEquals(10, scanner.objectStart());
+    }
+
+    @Test
+    void nextObject_whenObjectIsTruncated_shouldThrow() {
+        JsonObjectScanner scanner = scanner("[{\"Text\":\"never closed");
+
+        assertThrows(EOFException.class, scanner::nextObject);
+    }
+
+    @Test
+    void nextObject_whenGarbageBetweenObjects_shouldThrow() {
+        JsonObjectScanner scanner = scanner("[{\"a\":1} x {\"b\":2}]");
+
+        assertThrows(IOException.class, () -> {
+            scanner.nextObject();
+            scanner.nextObject();
+        });
+    }
+
+    @Test
+    void skipLine_whenLineDelimited_shouldResumeAfterBrokenLine() throws IOException {
+        JsonObjectScanner scanner = new JsonObjectScanner(new ByteArrayInputStream(
+                "{\"a\":1}\n{\"b\":\"never closed\nx {\"c\":3}\n{\"d\":4}\n".getBytes(StandardCharsets.UTF_8)), 0, true);
+
+        assertEquals("{\"a\":1}", next(scanner));
+        assertThrows(JsonObjectScanner.MalformedObjectException.class, scanner::nextObject);
+        scanner.skipLine();
+        assertThrows(JsonObjectScanner.MalformedObjectException.class, scanner::nextObject);
+        scanner.skipLine();
+        assertEquals("{\"d\":4}", next(scanner));
+        assertNull(next(scanner));
+    }
+
+    @Test
+    void nextObject_whenObjectExceedsMaxSize_shouldThrowAndResumeOnNextLine() throws IOException {
+        JsonObjectScanner scanner = new JsonObjectScanner(new ByteArrayInputStream(
+                ("{\"a\":\"" + "x".repeat(100) + "\"}\n{\"b\":\"" + "y".repeat(1 << 12) + "\n{\"c\":3}\n")
+                        .getBytes(StandardCharsets.UTF_8)), 0, true, 32);
+
+        assertThrows(JsonObjectScanner.MalformedObjectException.class, scanner::nextObject);
+        scanner.skipLine();
+        assertThrows(JsonObjectScanner.MalformedObjectException.class, scanner::nextObject);
+        scanner.skipLine();
+        assertEquals("{\"c\":3}", next(scanner));
+        assertNull(next(scanner));
+    }
+
+    @Test
+    void nextObject_whenObjectIsExactlyMaxSize_shouldReturnIt() throws IOException {
+        String object = "{\"a\":\"" + "x".repeat(2000) + "\"}";
+        JsonObjectScanner scanner = new JsonObjectScanner(new ByteArrayInputStream(
+                object.getBytes(StandardCharsets.UTF_8)), 0, true, object.length());
+
+        assertEquals(object, next(scanner));
+    }
+
+    @Test
+    void nextObject_whenLineDelimitedInputIsAnArray_shouldAllowMultilineObjects() throws IOException {
+        JsonObjectScanner scanner = new JsonObjectScanner(new ByteArrayInputStream(
+                "[\n  {\n    \"a\": 1\n  }\n]".getBytes(StandardCharsets.UTF_8)), 0, true);
+
+        assertEquals("{\n    \"a\": 1\n  }", next(scanner));
+        assertFalse(scanner.isLineDelimited());
+    }
+}
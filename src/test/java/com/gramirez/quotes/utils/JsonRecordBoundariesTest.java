@@ -0,0 +1,76 @@
+package com.gramirez.quotes.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonRecordBoundariesTest {
+
+    @TempDir
+    Path tempDir;
+
+    static String dump(int count) {
+        StringBuilder json = new StringBuilder("[\n");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                json.append(",\n");
+            }
+            // Every fifth text embeds a fake boundary that must not be split on
+            String text = i % 5 == 0 ? "tricky ,{\\\"Text\\\": inside " + i : "quote " + i;
+            json.append("  {\"Id\": ").append(i)
+                    .append(", \"Text\": \"").append(text)
+                    .append("\", \"Author\": \"Author ").append(i % 7).append("\"}");
+        }
+        return json.append("\n]").toString();
+    }
+
+    @Test
+    void split_shouldProduceRangesCoveringEveryRecordOnce() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("quotes.json"), dump(2_000));
+
+        long[] offsets = JsonRecordBoundaries.split(file, 8);
+        byte[] content = Files.readAllBytes(file);
+
+        assertEquals(9, offsets.length);
+        assertEquals(0, offsets[0]);
+        assertEquals(content.length, offsets[offsets.length - 1]);
+
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < offsets.length - 1; i++) {
+            assertTrue(offsets[i] < offsets[i + 1]);
+            if (i > 0) {
+                assertEquals('{', content[(int) offsets[i]]);
+            }
+            JsonObjectScanner scanner = new JsonObjectScanner(new ByteArrayInputStream(
+                    content, (int) offsets[i], (int) (offsets[i + 1] - offsets[i])));
+            byte[] object;
+            while ((object = scanner.nextObject()) != null) {
+                ids.add(QuoteJsonStreamReader.parseObject(object).getSourceId());
+            }
+        }
+
+        assertEquals(2_000, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i, ids.get(i));
+        }
+    }
+
+    @Test
+    void split_shouldReturnFewerRangesThanRequestedForTinyFiles() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("one.json"),
+                "[{\"Text\": \"only\", \"Author\": \"me\"}]", StandardCharsets.UTF_8);
+
+        long[] offsets = JsonRecordBoundaries.split(file, 4);
+
+        assertArrayEquals(new long[]{0, Files.size(file)}, offsets);
+    }
+}
@@ -0,0 +1,48 @@
+package com.gramirez.quotes.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LengthMetricTest {
+
+    @Test
+    void measure_shouldCountCodePoints() {
+        assertEquals(0, LengthMetric.CHARACTERS.measure(""));
+        assertEquals(4, LengthMetric.CHARACTERS.measure("a😀bc"));
+        assertEquals(-1, LengthMetric.CHARACTERS.measure(null));
+    }
+
+    @Test
+    void measure_shouldCountWhitespaceSeparatedWords() {
+        assertEquals(0, LengthMetric.WORDS.measure(""));
+        assertEquals(0, LengthMetric.WORDS.measure(" \t\n "));
+        assertEquals(1, LengthMetric.WORDS.measure("word"));
+        assertEquals(4, LengthMetric.WORDS.measure("  Do, or\tdo\nnot. "));
+    }
+
+    @Test
+    void measure_shouldSplitWordsOnTheSameSeparatorsAsTheDatabase() {
+        // '[ \t\n\r\f\v]+' in the text_words column
+        assertEquals(6, LengthMetric.WORDS.measure("a b\tc\nd\r\fe\u000Bf"));
+        // Unicode spaces and the ASCII information separators are not word separators
+        assertEquals(1, LengthMetric.WORDS.measure("a\u2003b\u3000c\u00A0d\u001Fe"));
+    }
+
+    @Test
+    void measure_shouldMatchUtf8EncodedLength() {
+        for (String text : new String[]{"", "plain ascii", "héllo wörld", "日本語のテキスト", "emoji 😀 and 𝄞"}) {
+            assertEquals(text.getBytes(StandardCharsets.UTF_8).length, LengthMetric.UTF8_BYTES.measure(text), text);
+        }
+    }
+
+    @Test
+    void fromParameter_shouldAcceptKeysAndNamesIgnoringCase() {
+        assertEquals(LengthMetric.WORDS, LengthMetric.fromParameter("words"));
+        assertEquals(LengthMetric.UTF8_BYTES, LengthMetric.fromParameter("UTF8_BYTES"));
+        assertEquals(LengthMetric.CHARACTERS, LengthMetric.fromParameter(" Characters "));
+        assertThrows(IllegalArgumentException.class, () -> LengthMetric.fromParameter("syllables"));
+    }
+}
@@ -0,0 +1,76 @@
+package com.gramirez.quotes.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LengthTupleCounterTest {
+
+    private static long bruteForce(int[] lengths, int k, int minLength, int maxLength) {
+        return count(lengths, k, 0, 0, minLength, maxLength);
+    }
+
+    private static long count(int[] lengths, int k, int start, int sum, int minLength, int maxLength) {
+        if (k == 0) {
+            return sum >= minLength && sum <= maxLength ? 1 : 0;
+        }
+        long total = 0;
+        for (int i = start; i < lengths.length; i++) {
+            total += count(lengths, k - 1, i + 1, sum + lengths[i], minLength, maxLength);
+        }
+        return total;
+    }
+
+    private static BigInteger binomial(long n, int k) {
+        BigInteger result = BigInteger.ONE;
+        for (int i = 0; i < k; i++) {
+            result = result.multiply(BigInteger.valueOf(n - i)).divide(BigInteger.valueOf(i + 1));
+        }
+        return result;
+    }
+
+    @Test
+    void count_shouldMatchBruteForce() {
+        Random random = new Random(17);
+        int[] lengths = new int[24];
+        long[] counts = new long[41];
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = random.nextInt(counts.length);
+            counts[lengths[i]]++;
+        }
+        LengthTupleCounter counter = new LengthTupleCounter(counts);
+
+        for (int k = 1; k <= LengthTupleCounter.MAX_TUPLE_SIZE; k++) {
+            for (int[] band : new int[][]{{0, 0}, {0, 40}, {10, 60}, {35, 90}, {100, 200}, {0, 1000}}) {
+                assertEquals(BigInteger.valueOf(bruteForce(lengths, k, band[0], band[1])),
+                        counter.count(k, band[0], band[1]), "k=" + k + " band " + band[0] + ".." + band[1]);
+            }
+        }
+    }
+
+    @Test
+    void count_shouldStayExactBeyondLongRange() {
+        long quotes = 5_000_000L;
+        long[] counts = new long[1001];
+        counts[250] = quotes;
+
+        LengthTupleCounter counter = new LengthTupleCounter(counts);
+
+        // C(5e6, 4) is about 2.6e25, far beyond Long.MAX_VALUE
+        assertEquals(binomial(quotes, 4), counter.count(4, 0, 1000));
+        assertEquals(binomial(quotes, 3), counter.count(3, 750, 750));
+        assertEquals(BigInteger.ZERO, counter.count(3, 751, 1000));
+    }
+
+    @Test
+    void count_withInvalidBandOrSize_shouldReturnZeroOrThrow() {
+        LengthTupleCounter counter = new LengthTupleCounter(new long[]{0, 3, 2});
+
+        assertEquals(BigInteger.ZERO, counter.count(2, 5, 4));
+        assertEquals(BigInteger.ZERO, counter.count(2, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> counter.count(5, 0, 10));
+    }
+}
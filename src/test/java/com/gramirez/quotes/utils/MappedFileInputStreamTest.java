@@ -0,0 +1,31 @@
+package com.gramirez.quotes.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileInputStreamTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void read_shouldReturnOnlyTheRangeAcrossSeveralWindows() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("data.txt"), "0123456789abcdefghij");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             InputStream in = new MappedFileInputStream(channel, 3, 17, 4)) {
+            assertEquals("3456789abcdefg", new String(in.readAllBytes(), StandardCharsets.US_ASCII));
+            assertEquals(-1, in.read());
+        }
+    }
+}
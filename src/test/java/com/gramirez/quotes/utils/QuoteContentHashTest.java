@@ -0,0 +1,51 @@
+package com.gramirez.quotes.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteContentHashTest {
+
+    @Test
+    void of_shouldIgnoreCaseAndWhitespaceDifferences() {
+        assertArrayEquals(QuoteContentHash.of("Do, or do not."), QuoteContentHash.of("  do,\tor  DO not.\n"));
+        assertEquals("do, or do not.", QuoteContentHash.normalize("  Do, or\n\ndo not. "));
+    }
+
+    @Test
+    void normalize_shouldUseTheSameSeparatorsAndCaseFoldingAsTheDatabase() {
+        // '[ \t\n\r\f\v]+' and translate(..., 'A..Z', 'a..z') in SQL
+        assertEquals("a b c d e", QuoteContentHash.normalize("\u000BA\tb\n\rC\fd e "));
+        // Unicode spaces are kept and non-ASCII letters are not folded
+        assertEquals("a\u00A0b\u2028c\u3000 \u00C9t\u00C9", QuoteContentHash.normalize("A\u00A0B\u2028C\u3000 \u00C9T\u00C9"));
+    }
+
+    @Test
+    void of_shouldDifferForDifferentText() {
+        assertFalse(Arrays.equals(QuoteContentHash.of("Do, or do not."), QuoteContentHash.of("Do or do not.")));
+        assertEquals(32, QuoteContentHash.of("").length);
+    }
+
+    @Test
+    void fingerprint_shouldDependOnTheAuthor() {
+        byte[] hash = QuoteContentHash.of("There is no try.");
+
+        assertEquals(QuoteContentHash.fingerprint(1L, hash), QuoteContentHash.fingerprint(1L, hash.clone()));
+        assertNotEquals(QuoteContentHash.fingerprint(1L, hash), QuoteContentHash.fingerprint(2L, hash));
+    }
+
+    @Test
+    void fingerprintSet_shouldReportDuplicatesAcrossGrowth() {
+        ContentFingerprintSet set = new ContentFingerprintSet(4);
+
+        for (long i = 0; i < 10_000; i++) {
+            assertTrue(set.add(i * 0x9E3779B97F4A7C15L));
+        }
+        for (long i = 0; i < 10_000; i++) {
+            assertFalse(set.add(i * 0x9E3779B97F4A7C15L));
+        }
+        assertEquals(10_000, set.size());
+    }
+}
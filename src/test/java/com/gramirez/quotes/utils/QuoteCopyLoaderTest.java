@@ -0,0 +1,27 @@
+package com.gramirez.quotes.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteCopyLoaderTest {
+
+    @Test
+    void appendCsvField_shouldQuoteAndDoubleEmbeddedQuotes() {
+        StringBuilder csv = new StringBuilder();
+
+        QuoteCopyLoader.appendCsvField(csv, "He said \"hi\", then\nleft").append(',');
+        QuoteCopyLoader.appendCsvField(csv, "plain");
+
+        assertEquals("\"He said \"\"hi\"\", then\nleft\",\"plain\"", csv.toString());
+    }
+
+    @Test
+    void appendCsvField_shouldDropNulCharacters() {
+        StringBuilder csv = new StringBuilder();
+
+        QuoteCopyLoader.appendCsvField(csv, "a\0b");
+
+        assertEquals("\"ab\"", csv.toString());
+    }
+}
@@ -0,0 +1,72 @@
+package com.gramirez.quotes.utils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.item.ExecutionContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteFileRangeItemReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final QuoteImportMetrics metrics = new QuoteImportMetrics(new SimpleMeterRegistry());
+
+    private QuoteFileRangeItemReader reader(Path file, long startOffset, long endOffset) {
+        return new QuoteFileRangeItemReader(file, startOffset, endOffset, metrics);
+    }
+
+    private List<Long> readAll(QuoteFileRangeItemReader reader, ExecutionContext context, int limit) throws IOException {
+        List<Long> ids = new ArrayList<>();
+        reader.open(context);
+        try {
+            QuoteRecord record;
+            while (ids.size() < limit && (record = reader.read()) != null) {
+                ids.add(record.getSourceId());
+            }
+            reader.update(context);
+        } finally {
+            reader.close();
+        }
+        return ids;
+    }
+
+    @Test
+    void read_shouldOnlyReturnRecordsStartingInsideItsRange() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("quotes.json"), JsonRecordBoundariesTest.dump(100));
+        long[] offsets = JsonRecordBoundaries.split(file, 2);
+
+        List<Long> first = readAll(reader(file, offsets[0], offsets[1]), new ExecutionContext(), Integer.MAX_VALUE);
+        List<Long> second = readAll(reader(file, offsets[1], offsets[2]), new ExecutionContext(), Integer.MAX_VALUE);
+
+        assertFalse(first.isEmpty());
+        assertFalse(second.isEmpty());
+        assertEquals(100, first.size() + second.size());
+        assertEquals(Files.size(file), metrics.snapshot().getBytesRead());
+        assertEquals(first.get(first.size() - 1) + 1, second.get(0));
+    }
+
+    @Test
+    void open_shouldResumeFromSavedOffset() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("quotes.json"), JsonRecordBoundariesTest.dump(50));
+        long size = Files.size(file);
+        ExecutionContext context = new ExecutionContext();
+
+        List<Long> beforeCrash = readAll(reader(file, 0, size), context, 20);
+        assertTrue(context.containsKey(QuoteFileRangeItemReader.OFFSET_KEY));
+
+        List<Long> afterRestart = readAll(reader(file, 0, size), context, Integer.MAX_VALUE);
+
+        assertEquals(20, beforeCrash.size());
+        assertEquals(30, afterRestart.size());
+        assertEquals(20L, afterRestart.get(0));
+    }
+}
@@ -0,0 +1,58 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.dto.ImportStatusDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuoteImportMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QuoteImportMetrics metrics = new QuoteImportMetrics(registry);
+
+    @Test
+    void snapshot_beforeAnyRun_shouldBeIdle() {
+        ImportStatusDTO status = metrics.snapshot();
+
+        assertEquals("IDLE", status.getState());
+        assertNull(status.getEtaSeconds());
+    }
+
+    @Test
+    void snapshot_shouldReportCountsStagesAndEta() {
+        metrics.startRun("jpa-mmap", "quotes.json", 1000);
+        metrics.recordBytes(250);
+        metrics.recordParsed(10);
+        metrics.recordRejected(2);
+        metrics.recordInserted(8);
+        metrics.recordBatch("writer", 8, TimeUnit.MILLISECONDS.toNanos(40));
+
+        ImportStatusDTO status = metrics.snapshot();
+
+        assertEquals("RUNNING", status.getState());
+        assertEquals(250, status.getBytesRead());
+        assertEquals(8, status.getInserted());
+        assertEquals(2, status.getRejected());
+        assertNotNull(status.getEtaSeconds());
+        assertEquals(40.0, status.getStages().get("writer").getLastBatchMillis(), 0.001);
+        assertEquals(8.0, registry.get("quotes.import.records").tag("outcome", "inserted").counter().count());
+        assertEquals(1, registry.get("quotes.import.batch").tag("stage", "writer").timer().count());
+        assertEquals(0.25, registry.get("quotes.import.progress").gauge().value(), 0.001);
+    }
+
+    @Test
+    void startRun_shouldResetRunCountersButKeepMeterTotals() {
+        metrics.startRun("copy", "a.json", 10);
+        metrics.recordInserted(5);
+        metrics.finishRun();
+        assertEquals(0.0, metrics.snapshot().getEtaSeconds());
+
+        metrics.startRun("copy", "b.json", 10);
+
+        assertEquals(0, metrics.snapshot().getInserted());
+        assertEquals(5.0, registry.get("quotes.import.records").tag("outcome", "inserted").counter().count());
+    }
+}
@@ -0,0 +1,255 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.model.Author;
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.service.AuthorService;
+import com.gramirez.quotes.service.QuoteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteImportPipelineTest {
+
+    @Mock
+    private AuthorService authorService;
+
+    @Mock
+    private QuoteService quoteService;
+
+    @TempDir
+    Path tempDir;
+
+    private QuoteImportMetrics metrics;
+    private QuoteImportPipeline pipeline;
+    private ConcurrentLinkedQueue<Quote> persisted;
+    private ConcurrentLinkedQueue<String> createdAuthors;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new QuoteImportMetrics(new SimpleMeterRegistry());
+        pipeline = new QuoteImportPipeline(authorService, quoteService, metrics);
+        persisted = new ConcurrentLinkedQueue<>();
+        createdAuthors = new ConcurrentLinkedQueue<>();
+
+        lenient().when(authorService.createAll(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> names = invocation.getArgument(0);
+            createdAuthors.addAll(names);
+            return names.stream().map(name -> {
+                Author author = new Author();
+                author.setName(name);
+                return author;
+            }).toList();
+        });
+        lenient().when(quoteService.persistBatch(anyList())).thenAnswer(invocation -> {
+            List<Quote> quotes = invocation.getArgument(0);
+            persisted.addAll(quotes);
+            return quotes;
+        });
+    }
+
+    private int run(String json) throws IOException {
+        return pipeline.run(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // The reader and parser stages: split the input into objects, then parse each one
+    private List<QuoteRecord> parseAll(String json) throws IOException {
+        JsonObjectScanner scanner = new JsonObjectScanner(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+        List<QuoteRecord> records = new ArrayList<>();
+        byte[] object;
+        while ((object = scanner.nextObject()) != null) {
+            records.add(pipeline.parseObject(object));
+        }
+        return records;
+    }
+
+    @Test
+    void run_shouldImportEveryValidQuote() throws IOException {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 5000; i++) {
+            if (i > 0) json.append(',');
+            json.append("{\"Id\":").append(i).append(",\"Author\":\"Author ").append(i % 7)
+                    .append("\",\"Text\":\"Quote ").append(i).append("\"}");
+        }
+        json.append(']');
+
+        int imported = run(json.toString());
+
+        assertEquals(5000, imported);
+        assertEquals(5000, persisted.size());
+        assertEquals(7, createdAuthors.size());
+        verify(authorService, never()).findOrCreateByName(anyString());
+    }
+
+    @Test
+    void run_shouldRejectQuotesWithoutTextOrAuthor() throws IOException {
+        int imported = run("[{\"Id\":0,\"Author\":\"Yoda\",\"Text\":\"Do, or do not.\"}," +
+                "{\"Id\":1,\"Author\":\"\",\"Text\":\"orphan\"},{\"Id\":2,\"Author\":\"Yoda\"}]");
+
+        assertEquals(1, imported);
+        assertEquals("Do, or do not.", persisted.peek().getText());
+    }
+
+    @Test
+    void run_whenWriterFails_shouldSkipBatchAndFinish() throws IOException {
+        when(quoteService.persistBatch(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        int imported = run("[{\"Id\":0,\"Author\":\"Yoda\",\"Text\":\"Do, or do not.\"}]");
+
+        assertEquals(0, imported);
+        verify(quoteService).persistBatch(anyList());
+    }
+
+    @Test
+    void run_whenInputIsEmpty_shouldImportNothing() throws IOException {
+        assertEquals(0, run("[]"));
+        verify(quoteService, never()).persistBatch(any());
+    }
+
+    @Test
+    void runMapped_shouldImportEveryQuoteExactlyOnce() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("quotes.json"), JsonRecordBoundariesTest.dump(3000));
+
+        int imported = pipeline.run(file);
+
+        assertEquals(3000, imported);
+        assertEquals(Files.size(file), metrics.snapshot().getBytesRead());
+        assertEquals(3000, metrics.snapshot().getStages().get("writer").getRows());
+        assertEquals(3000, persisted.stream().map(Quote::getText).distinct().count());
+        assertEquals(7, createdAuthors.size());
+        verify(authorService, never()).findOrCreateByName(anyString());
+    }
+
+    @Test
+    void run_whenIncremental_shouldUpsertBySourceIdAndCountOnlyWrittenRows() throws IOException {
+        ReflectionTestUtils.setField(pipeline, "incremental", true);
+        when(quoteService.upsertBatch(anyList())).thenAnswer(invocation -> {
+            List<Quote> quotes = invocation.getArgument(0);
+            persisted.addAll(quotes);
+            return 1;
+        });
+
+        int imported = run("[{\"Id\":7,\"Author\":\"Yoda\",\"Text\":\"Do, or do not.\"}," +
+                "{\"Id\":8,\"Author\":\"Yoda\",\"Text\":\"There is no try.\"}]");
+
+        assertEquals(1, imported);
+        assertEquals(List.of(7L, 8L), persisted.stream().map(Quote::getSourceId).sorted().toList());
+        verify(quoteService, never()).persistBatch(anyList());
+    }
+
+    @Test
+    void run_shouldSkipQuotesWithTheSameNormalizedText() throws IOException {
+        int imported = run("[{\"Id\":0,\"Author\":\"Yoda\",\"Text\":\"Do, or do not.\"}," +
+                "{\"Id\":1,\"Author\":\"yoda\",\"Text\":\" do,  or DO not. \"}," +
+                "{\"Id\":2,\"Author\":\"Yoda\",\"Text\":\"There is no try.\"}]");
+
+        assertEquals(2, imported);
+        assertEquals(1, metrics.snapshot().getDuplicates());
+        assertEquals(List.of("Do, or do not.", "There is no try."), persisted.stream().map(Quote::getText).toList());
+    }
+
+    @Test
+    void parseObject_shouldReadRecordsFromJsonArray() throws IOException {
+        List<QuoteRecord> records = parseAll(
+                "[{\"Id\":0,\"Author\":\"Avin Fernando\",\"Text\":\"Hello, World!\"}," +
+                        "{\"Id\":1,\"Author\":\"Gaius Julius Caesar\",\"Text\":\"Veni, Vidi, Vici\"}]");
+
+        assertEquals(2, records.size());
+        assertEquals(0L, records.get(0).getSourceId());
+        assertEquals("Avin Fernando", records.get(0).getAuthor());
+        assertEquals("Hello, World!", records.get(0).getText());
+        assertEquals("Veni, Vidi, Vici", records.get(1).getText());
+    }
+
+    @Test
+    void parseObject_shouldDecodeEscapesAndUnicode() throws IOException {
+        List<QuoteRecord> records = parseAll(
+                "[{\"Id\":7,\"Author\":\"Ren\\u00e9 Descartes\",\"Text\":\"He said \\\"cogito\\\"\\nback\\\\slash ñ 😀\"}]");
+
+        assertEquals(1, records.size());
+        assertEquals("René Descartes", records.get(0).getAuthor());
+        assertEquals("He said \"cogito\"\nback\\slash ñ 😀", records.get(0).getText());
+    }
+
+    @Test
+    void parseObject_shouldAcceptAnyFieldOrderCaseAndUnknownFields() throws IOException {
+        List<QuoteRecord> records = parseAll(
+                "[ {\"text\": \"Veni, Vidi, Vici\", \"tags\": [\"latin\", {\"x\": 1}], \"author\": \"Caesar\", \"id\": \"12\"} ]");
+
+        assertEquals(1, records.size());
+        assertEquals(12L, records.get(0).getSourceId());
+        assertEquals("Caesar", records.get(0).getAuthor());
+        assertEquals("Veni, Vidi, Vici", records.get(0).getText());
+    }
+
+    @Test
+    void parseObject_shouldReadNewlineDelimitedObjects() throws IOException {
+        List<QuoteRecord> records = parseAll(
+                "{\"Id\":1,\"Author\":\"Yoda\",\"Text\":\"Do, or do not.\"}\n" +
+                        "{\"Id\":2,\"Author\":\"Yoda\",\"Text\":\"There is no try.\"}\n");
+
+        assertEquals(2, records.size());
+        assertEquals("There is no try.", records.get(1).getText());
+    }
+
+    @Test
+    void parseObject_shouldReturnInvalidRecordWhenFieldsAreMissing() throws IOException {
+        List<QuoteRecord> records = parseAll("[{\"Id\":3,\"Text\":\"hunter2\"}]");
+
+        assertEquals(1, records.size());
+        assertNull(records.get(0).getAuthor());
+        assertFalse(records.get(0).isValid());
+    }
+
+    @Test
+    void parseObject_withStreamingParser_shouldMatchRegexParser() throws IOException {
+        String json = "[{\"Id\":1,\"Author\":\"Séneca\",\"Text\":\"Non est ad astra mollis e terris via, {braces} & ñ\"},"
+                + "{\"Id\":2,\"Author\":\"李白\",\"Text\":\"举头望明月 😀\"},"
+                + "{\"Id\":3,\"Author\":\"Yoda\",\"Text\":\"Do, or do not.\"}]";
+
+        List<QuoteRecord> streamingRecords = parseAll(json);
+        ReflectionTestUtils.setField(pipeline, "parserType", "regex");
+        List<QuoteRecord> regexRecords = parseAll(json);
+
+        assertEquals(3, regexRecords.size());
+        assertEquals(regexRecords.size(), streamingRecords.size());
+        for (int i = 0; i < regexRecords.size(); i++) {
+            assertEquals(regexRecords.get(i).getSourceId(), streamingRecords.get(i).getSourceId());
+            assertEquals(regexRecords.get(i).getAuthor(), streamingRecords.get(i).getAuthor());
+            assertEquals(regexRecords.get(i).getText(), streamingRecords.get(i).getText());
+        }
+    }
+
+    @Test
+    void parseObject_withStreamingParser_shouldDecodeEscapesTheRegexParserCannotMatch() throws IOException {
+        String json = "[{\"Id\":4,\"Author\":\"Caf\\u00e9\",\"Text\":\"\\\"Quoted\\\"\\\\ line\\nbreak \\uD83D\\uDE00\"}]";
+
+        List<QuoteRecord> streamingRecords = parseAll(json);
+
+        assertEquals(1, streamingRecords.size());
+        assertEquals("Café", streamingRecords.get(0).getAuthor());
+        assertEquals("\"Quoted\"\\ line\nbreak 😀", streamingRecords.get(0).getText());
+    }
+}
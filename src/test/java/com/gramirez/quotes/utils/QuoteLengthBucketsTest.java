@@ -0,0 +1,182 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.model.Author;
+import com.gramirez.quotes.model.Quote;
+import com.gramirez.quotes.repository.QuoteLengthGroupRepository.LengthGroup;
+import com.gramirez.quotes.repository.QuoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteLengthBucketsTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Mock
+    private QuoteRepository quoteRepository;
+
+    private QuoteLengthBuckets buckets;
+
+    private record Row(long authorId, LocalDate day, int characters, int words, int bytes) {
+
+        int length(LengthMetric metric) {
+            return switch (metric) {
+                case CHARACTERS -> characters;
+                case WORDS -> words;
+                case UTF8_BYTES -> bytes;
+            };
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        buckets = new QuoteLengthBuckets(quoteRepository);
+    }
+
+    private void stubGroups(List<LengthGroup> groups) {
+        doAnswer(invocation -> {
+            groups.forEach(invocation.<Consumer<LengthGroup>>getArgument(0));
+            return null;
+        }).when(quoteRepository).forEachLengthGroup(any());
+    }
+
+    private static long bruteForce(List<Row> rows, LengthMetric metric, int maxLength, Set<Long> authors,
+                                   LocalDate from, LocalDate to) {
+        List<Row> matching = rows.stream()
+                .filter(row -> authors == null || authors.contains(row.authorId()))
+                .filter(row -> from == null || !row.day().isBefore(from))
+                .filter(row -> to == null || !row.day().isAfter(to))
+                .toList();
+        long pairs = 0;
+        for (int i = 0; i < matching.size(); i++) {
+            for (int j = i + 1; j < matching.size(); j++) {
+                if (matching.get(i).length(metric) + matching.get(j).length(metric) <= maxLength) {
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    @Test
+    void countPairs_shouldMatchBruteForceForEveryFilter() {
+        Random random = new Random(13);
+        List<Row> rows = new ArrayList<>();
+        List<LengthGroup> grouped = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            int characters = random.nextInt(200);
+            Row row = new Row(random.nextInt(5), START.plusDays(random.nextInt(30)),
+                    characters, characters / 6, characters + random.nextInt(characters + 1));
+            rows.add(row);
+            grouped.add(new LengthGroup(row.authorId(), row.day(), row.characters(), row.words(), row.bytes(), 1L));
+        }
+        stubGroups(grouped);
+
+        LocalDate from = START.plusDays(5);
+        LocalDate to = START.plusDays(12);
+        for (LengthMetric metric : LengthMetric.values()) {
+            for (int maxLength : new int[]{0, 50, 150, 400}) {
+                assertEquals(bruteForce(rows, metric, maxLength, Set.of(1L, 3L), null, null),
+                        buckets.countPairs(metric, maxLength, List.of(1L, 3L, 3L), null, null));
+                assertEquals(bruteForce(rows, metric, maxLength, null, from, to),
+                        buckets.countPairs(metric, maxLength, null, from, to));
+                assertEquals(bruteForce(rows, metric, maxLength, Set.of(2L), from, null),
+                        buckets.countPairs(metric, maxLength, List.of(2L), from, null));
+                assertEquals(bruteForce(rows, metric, maxLength, Set.of(4L), null, to),
+                        buckets.countPairs(metric, maxLength, List.of(4L), null, to));
+            }
+        }
+        verify(quoteRepository, times(1)).forEachLengthGroup(any());
+    }
+
+    @Test
+    void recordChanges_shouldMoveQuotesBetweenBuckets() {
+        stubGroups(List.of());
+        buckets.reload();
+
+        Author yoda = new Author();
+        yoda.setId(1L);
+        Quote first = new Quote();
+        first.setAuthor(yoda);
+        first.setText("Do, or do not.");
+        first.setCreatedAt(START.atTime(10, 0));
+        Quote second = new Quote();
+        second.setAuthor(yoda);
+        second.setText("There is no try.");
+        second.setCreatedAt(START.plusDays(1).atTime(10, 0));
+
+        buckets.recordCreated(first);
+        buckets.recordCreated(second);
+        assertEquals(1, buckets.countPairs(LengthMetric.CHARACTERS, 100, List.of(1L), null, null));
+        assertEquals(0, buckets.countPairs(LengthMetric.CHARACTERS, 100, List.of(1L), START, START));
+        assertEquals(0, buckets.countPairs(LengthMetric.WORDS, 7, List.of(1L), null, null));
+        assertEquals(1, buckets.countPairs(LengthMetric.WORDS, 8, List.of(1L), null, null));
+
+        Author vader = new Author();
+        vader.setId(2L);
+        second.setAuthor(vader);
+        buckets.recordUpdated(1L, second.getText(), second);
+        assertEquals(0, buckets.countPairs(LengthMetric.CHARACTERS, 100, List.of(1L), null, null));
+        assertEquals(1, buckets.countPairs(LengthMetric.UTF8_BYTES, 100, List.of(1L, 2L), null, null));
+
+        buckets.recordDeleted(first);
+        assertEquals(0, buckets.countPairs(LengthMetric.CHARACTERS, 100, null, START, START.plusDays(1)));
+    }
+
+    @Test
+    void reload_whenWriteLandsDuringQuery_shouldQueryAgain() {
+        Author yoda = new Author();
+        yoda.setId(1L);
+        Quote created = new Quote();
+        created.setAuthor(yoda);
+        created.setText("abcd");
+        created.setCreatedAt(START.atTime(10, 0));
+        LengthGroup stored = new LengthGroup(1L, START, 3, 1, 3, 1L);
+        LengthGroup createdGroup = new LengthGroup(1L, START, 4, 1, 4, 1L);
+        doAnswer(invocation -> {
+            // Committed after the query's snapshot was taken
+            buckets.recordCreated(created);
+            invocation.<Consumer<LengthGroup>>getArgument(0).accept(stored);
+            return null;
+        }).doAnswer(invocation -> {
+            Consumer<LengthGroup> consumer = invocation.getArgument(0);
+            consumer.accept(stored);
+            consumer.accept(createdGroup);
+            return null;
+        }).when(quoteRepository).forEachLengthGroup(any());
+
+        assertEquals(1, buckets.countPairs(LengthMetric.CHARACTERS, 100, List.of(1L), START, START));
+        assertEquals(1, buckets.countPairs(LengthMetric.CHARACTERS, 100, null, null, null));
+        verify(quoteRepository, times(2)).forEachLengthGroup(any());
+    }
+
+    @Test
+    void recordChanges_shouldApplyBulkWriteGroupsWithoutReloading() {
+        stubGroups(List.of(new LengthGroup(1L, START, 10, 2, 10, 2L)));
+        assertEquals(1, buckets.countPairs(LengthMetric.CHARACTERS, 20, List.of(1L), null, null));
+
+        // One quote rewritten from 10 to 30 characters, and a new one for author 2
+        buckets.recordChanges(List.of(
+                new LengthGroup(1L, START, 10, 2, 10, -1L),
+                new LengthGroup(1L, START, 30, 5, 30, 1L),
+                new LengthGroup(2L, START.plusDays(1), 5, 1, 5, 1L)));
+
+        assertEquals(0, buckets.countPairs(LengthMetric.CHARACTERS, 20, List.of(1L), null, null));
+        assertEquals(1, buckets.countPairs(LengthMetric.CHARACTERS, 40, List.of(1L), null, null));
+        assertEquals(1, buckets.countPairs(LengthMetric.WORDS, 3, null, START, START.plusDays(1)));
+        verify(quoteRepository, times(1)).forEachLengthGroup(any());
+    }
+}
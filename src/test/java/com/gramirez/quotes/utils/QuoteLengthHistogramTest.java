@@ -0,0 +1,241 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.repository.QuoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteLengthHistogramTest {
+
+    @Mock
+    private QuoteRepository quoteRepository;
+
+    private QuoteLengthHistogram histogram;
+
+    @BeforeEach
+    void setUp() {
+        histogram = new QuoteLengthHistogram(quoteRepository);
+    }
+
+    private void stubCharacterLengths(List<Object[]> rows) {
+        when(quoteRepository.countByLength(anyString())).thenReturn(List.of());
+        when(quoteRepository.countByLength("characters")).thenReturn(rows);
+    }
+
+    private static long bruteForce(List<Integer> lengths, int maxLength) {
+        long pairs = 0;
+        for (int i = 0; i < lengths.size(); i++) {
+            for (int j = i + 1; j < lengths.size(); j++) {
+                if (lengths.get(i) + lengths.get(j) <= maxLength) {
+                    pairs++;
+                }
+            }
+        }
+        return pairs;
+    }
+
+    @Test
+    void countPairs_shouldMatchBruteForce() {
+        Random random = new Random(7);
+        List<Integer> lengths = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>();
+        long[] counts = new long[QuoteLengthHistogram.MAX_LENGTH + 1];
+        for (int i = 0; i < 600; i++) {
+            int length = random.nextInt(QuoteLengthHistogram.MAX_LENGTH + 1);
+            lengths.add(length);
+            counts[length]++;
+        }
+        for (int length = 0; length < counts.length; length++) {
+            if (counts[length] > 0) {
+                rows.add(new Object[]{length, counts[length]});
+            }
+        }
+        stubCharacterLengths(rows);
+
+        for (int maxLength : new int[]{-1, 0, 1, 10, 499, 500, 1000, 1500, 2000, 5000}) {
+            assertEquals(bruteForce(lengths, maxLength), histogram.countPairs(LengthMetric.CHARACTERS, maxLength), "maxLength " + maxLength);
+        }
+        verify(quoteRepository, times(1)).countByLength("characters");
+    }
+
+    @Test
+    void countPairs_shouldFollowRecordedChangesWithoutQueryingAgain() {
+        stubCharacterLengths(List.<Object[]>of(new Object[]{3, 2L}));
+        histogram.reload();
+
+        assertEquals(1, histogram.countPairs(LengthMetric.CHARACTERS, 6));
+
+        histogram.recordCreated("abcd");
+        assertEquals(3, histogram.countPairs(LengthMetric.CHARACTERS, 7));
+
+        histogram.recordUpdated("abcd", "ab");
+        assertEquals(3, histogram.countPairs(LengthMetric.CHARACTERS, 6));
+
+        histogram.recordDeleted("abc");
+        assertEquals(1, histogram.countPairs(LengthMetric.CHARACTERS, 6));
+        assertEquals(2, histogram.total());
+        verify(quoteRepository, times(1)).countByLength("characters");
+    }
+
+    @Test
+    void countPairs_shouldCountLengthInCodePoints() {
+        stubCharacterLengths(List.of());
+        histogram.reload();
+
+        histogram.recordCreated("😀😀");
+        histogram.recordCreated("ab");
+
+        assertEquals(1, histogram.countPairs(LengthMetric.CHARACTERS, 4));
+        assertEquals(0, histogram.countPairs(LengthMetric.CHARACTERS, 3));
+    }
+
+    @Test
+    void invalidate_shouldReloadOnNextQuery() {
+        when(quoteRepository.countByLength(anyString())).thenReturn(List.of());
+        when(quoteRepository.countByLength("characters"))
+                .thenReturn(List.of())
+                .thenReturn(List.<Object[]>of(new Object[]{1, 2L}));
+        histogram.reload();
+
+        histogram.invalidate();
+
+        assertEquals(1, histogram.countPairs(LengthMetric.CHARACTERS, 2));
+        verify(quoteRepository, times(2)).countByLength("characters");
+    }
+
+    @Test
+    void reload_whenWriteLandsDuringQuery_shouldQueryAgain() {
+        when(quoteRepository.countByLength(anyString())).thenReturn(List.of());
+        when(quoteRepository.countByLength("characters"))
+                .thenAnswer(invocation -> {
+                    // Committed after the query's snapshot was taken
+                    histogram.recordCreated("abcd");
+                    return List.<Object[]>of(new Object[]{3, 2L});
+                })
+                .thenReturn(List.<Object[]>of(new Object[]{3, 2L}, new Object[]{4, 1L}));
+
+        histogram.reload();
+
+        assertEquals(3, histogram.countPairs(LengthMetric.CHARACTERS, 7));
+        verify(quoteRepository, times(2)).countByLength("characters");
+    }
+
+    @Test
+    void reload_whenInvalidatedDuringQuery_shouldNotClearStale() {
+        when(quoteRepository.countByLength(anyString())).thenReturn(List.of());
+        when(quoteRepository.countByLength("characters"))
+                .thenAnswer(invocation -> {
+                    histogram.invalidate();
+                    return List.of();
+                })
+                .thenReturn(List.<Object[]>of(new Object[]{1, 2L}));
+
+        histogram.reload();
+
+        assertEquals(1, histogram.countPairs(LengthMetric.CHARACTERS, 2));
+        verify(quoteRepository, times(2)).countByLength("characters");
+    }
+
+    @Test
+    void reload_whenWritesKeepRacing_shouldStayStale() {
+        when(quoteRepository.countByLength(anyString())).thenReturn(List.of());
+        when(quoteRepository.countByLength("characters")).thenAnswer(invocation -> {
+            histogram.invalidate();
+            return List.of();
+        });
+
+        histogram.reload();
+        verify(quoteRepository, times(QuoteLengthHistogram.MAX_RELOAD_ATTEMPTS)).countByLength("characters");
+
+        histogram.countPairs(LengthMetric.CHARACTERS, 2);
+        verify(quoteRepository, times(2 * QuoteLengthHistogram.MAX_RELOAD_ATTEMPTS)).countByLength("characters");
+    }
+
+    @Test
+    void countPairs_forManyThresholds_shouldMatchSingleThresholdCounts() {
+        Random random = new Random(11);
+        List<Object[]> rows = new ArrayList<>();
+        for (int length = 0; length <= QuoteLengthHistogram.MAX_LENGTH; length++) {
+            if (random.nextInt(3) == 0) {
+                rows.add(new Object[]{length, (long) random.nextInt(1_000_000)});
+            }
+        }
+        stubCharacterLengths(rows);
+
+        int[] thresholds = new int[2102];
+        for (int i = 0; i < thresholds.length; i++) {
+            thresholds[i] = i - 1;
+        }
+        long[] batch = histogram.countPairs(LengthMetric.CHARACTERS, thresholds);
+
+        for (int i = 0; i < thresholds.length; i++) {
+            assertEquals(histogram.countPairs(LengthMetric.CHARACTERS, thresholds[i]), batch[i], "maxLength " + thresholds[i]);
+        }
+    }
+
+    @Test
+    void countPairs_forManyThresholds_shouldRebuildAfterChanges() {
+        stubCharacterLengths(List.<Object[]>of(new Object[]{2, 2L}));
+        histogram.reload();
+        assertArrayEquals(new long[]{0, 1}, histogram.countPairs(LengthMetric.CHARACTERS, new int[]{3, 4}));
+
+        histogram.recordCreated("a");
+
+        assertArrayEquals(new long[]{2, 3}, histogram.countPairs(LengthMetric.CHARACTERS, new int[]{3, 4}));
+    }
+
+    @Test
+    void countPairsInBand_shouldMatchTupleCount() {
+        stubCharacterLengths(List.of(
+                new Object[]{10, 4L}, new Object[]{25, 3L}, new Object[]{40, 2L}));
+
+        for (int[] band : new int[][]{{0, 100}, {20, 35}, {35, 50}, {60, 80}, {51, 64}}) {
+            assertEquals(histogram.countTuples(LengthMetric.CHARACTERS, 2, band[0], band[1]).longValueExact(),
+                    histogram.countPairs(LengthMetric.CHARACTERS, band[0], band[1]), "band " + band[0] + ".." + band[1]);
+        }
+        assertEquals(6 + 12, histogram.countPairs(LengthMetric.CHARACTERS, 20, 35));
+    }
+
+    @Test
+    void countPairs_shouldKeepOneHistogramPerMetric() {
+        when(quoteRepository.countByLength(anyString())).thenReturn(List.of());
+        histogram.reload();
+
+        // 11 characters, 2 words, 13 bytes; then 5 characters, 3 words, 5 bytes
+        histogram.recordCreated("héllo wörld");
+        histogram.recordCreated("a b c");
+
+        assertArrayEquals(new long[]{0, 1}, histogram.countPairs(LengthMetric.CHARACTERS, new int[]{15, 16}));
+        assertArrayEquals(new long[]{0, 1}, histogram.countPairs(LengthMetric.UTF8_BYTES, new int[]{17, 18}));
+        assertArrayEquals(new long[]{0, 1}, histogram.countPairs(LengthMetric.WORDS, new int[]{4, 5}));
+        assertEquals(1, histogram.countPairs(LengthMetric.WORDS, 5, 5));
+        verify(quoteRepository, times(1)).countByLength("words");
+    }
+
+    @Test
+    void recordUpdated_shouldMoveQuoteInEveryMetricThatChanged() {
+        when(quoteRepository.countByLength(anyString())).thenReturn(List.of());
+        histogram.reload();
+        histogram.recordCreated("one two");
+        histogram.recordCreated("three");
+
+        // Same character count, one word fewer, two bytes more
+        histogram.recordUpdated("one two", "oñe_twó");
+
+        assertArrayEquals(new long[]{0, 1}, histogram.countPairs(LengthMetric.CHARACTERS, new int[]{11, 12}));
+        assertEquals(1, histogram.countPairs(LengthMetric.WORDS, 2));
+        assertEquals(0, histogram.countPairs(LengthMetric.UTF8_BYTES, 13));
+        assertEquals(1, histogram.countPairs(LengthMetric.UTF8_BYTES, 14));
+    }
+}
@@ -0,0 +1,44 @@
+package com.gramirez.quotes.utils;
+
+import com.gramirez.quotes.repository.QuoteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class QuoteLengthStatsFolderTest {
+
+    @Mock
+    private QuoteRepository quoteRepository;
+
+    private QuoteLengthStatsFolder folder;
+
+    @BeforeEach
+    void setUp() {
+        folder = new QuoteLengthStatsFolder(quoteRepository);
+        ReflectionTestUtils.setField(folder, "threshold", 100);
+    }
+
+    @Test
+    void foldIfBacklogged_whenThresholdReached_shouldFold() {
+        when(quoteRepository.countLengthStatsDeltas(100)).thenReturn(100L);
+
+        folder.foldIfBacklogged();
+
+        verify(quoteRepository).foldLengthStatsDeltas();
+    }
+
+    @Test
+    void foldIfBacklogged_whenFewDeltasPending_shouldWaitForTheTimer() {
+        when(quoteRepository.countLengthStatsDeltas(100)).thenReturn(99L);
+
+        folder.foldIfBacklogged();
+
+        verify(quoteRepository, never()).foldLengthStatsDeltas();
+    }
+}
@@ -0,0 +1,41 @@
+package com.gramirez.quotes.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeekCursorTest {
+
+    @Test
+    void decode_shouldRestoreEncodedCursor() {
+        SeekCursor cursor = new SeekCursor("textLength", Sort.Direction.DESC, "42", 1234L);
+
+        assertEquals(cursor, SeekCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decode_shouldKeepSeparatorsAndNonAsciiInKey() {
+        SeekCursor cursor = new SeekCursor("name", Sort.Direction.ASC, "Seneca: Letters from a Stoïc", 7L);
+
+        String encoded = cursor.encode();
+
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+        assertEquals(cursor, SeekCursor.decode(encoded));
+    }
+
+    @Test
+    void decode_shouldRejectMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> SeekCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> SeekCursor.decode(encode("id:DESC")));
+        assertThrows(IllegalArgumentException.class, () -> SeekCursor.decode(encode("id:SIDEWAYS:1:1")));
+        assertThrows(IllegalArgumentException.class, () -> SeekCursor.decode(encode("id:DESC:one:1")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}